@@ -0,0 +1,53 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.service.DroneService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DroneService.alocarPedidos por número de pedidos, tamanho da frota, distribuição e modo.
+ * Cada invocação parte do mesmo estado (resetPedidos fora da medição).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlocacaoBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int pedidos;
+
+    @Param({"5", "50", "500"})
+    public int drones;
+
+    @Param({"UNIFORME", "AGRUPADA", "HOTSPOT"})
+    public Cenarios.Distribuicao distribuicao;
+
+    @Param({"SEQUENCIAL", "PARALELO"})
+    public Enums.ModoAlocacao modo;
+
+    private DroneService service;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = Cenarios.servico(drones, pedidos, distribuicao, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetar() {
+        service.resetPedidos();
+    }
+
+    @Benchmark
+    public Map<Drone, List<Pedido>> alocarPedidos() {
+        return service.alocarPedidos(modo);
+    }
+}
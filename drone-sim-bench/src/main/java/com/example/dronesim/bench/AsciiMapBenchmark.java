@@ -0,0 +1,65 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.util.AsciiMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Um quadro completo do mapa ASCII (limpar, posicionar drones e pedidos, render) escrevendo num
+ * stream descartável, nos modos normal e delta (ANSI).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsciiMapBenchmark {
+
+    @Param({"20", "80"})
+    public int tamanho;
+
+    @Param({"10", "500"})
+    public int drones;
+
+    @Param({"false", "true"})
+    public boolean modoDelta;
+
+    private AsciiMap mapa;
+    private double[] x;
+    private double[] y;
+    private Enums.StatusDrone[] status;
+    private int quadro;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        mapa = new AsciiMap(tamanho, tamanho, new PrintStream(OutputStream.nullOutputStream()));
+        mapa.setModoDelta(modoDelta);
+        Random r = new Random(1);
+        x = new double[drones];
+        y = new double[drones];
+        status = new Enums.StatusDrone[drones];
+        for (int i = 0; i < drones; i++) {
+            x[i] = r.nextInt(tamanho);
+            y[i] = r.nextInt(tamanho);
+            status[i] = Enums.StatusDrone.values()[r.nextInt(4)];
+        }
+    }
+
+    @Benchmark
+    public void renderizarQuadro() {
+        // Desloca os drones um passo por quadro, como na simulação
+        int deslocamento = quadro++ % tamanho;
+        mapa.clear();
+        for (int i = 0; i < drones; i++) {
+            mapa.setPedido(y[i], x[i], Enums.StatusPedido.ALOCADO);
+            mapa.setDrone((x[i] + deslocamento) % tamanho, y[i], i + 1, status[i]);
+        }
+        mapa.render();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.service.MotorBuscaRota;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca da melhor rota de um drone (MotorBuscaRota, que substituiu a validação de rotas por
+ * permutação) sobre listas de candidatos de tamanhos diferentes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuscaRotaBenchmark {
+
+    @Param({"8", "64", "512", "4096"})
+    public int candidatos;
+
+    @Param({"UNIFORME", "AGRUPADA", "HOTSPOT"})
+    public Cenarios.Distribuicao distribuicao;
+
+    // 3 = busca original; acima disso, ordem exata por Held-Karp (até 12) ou inserção mais barata
+    @Param({"3", "6", "12"})
+    public int maxParadas;
+
+    private MotorBuscaRota motor;
+    private final List<Pedido> lista = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        motor = new MotorBuscaRota(maxParadas);
+        // Gera pelo serviço para usar a mesma distribuição dos outros benchmarks
+        lista.addAll(Cenarios.servico(5, candidatos, distribuicao, 7).listarPedidos());
+        // Ordem de prioridade, como a alocação entrega ao motor
+        lista.sort((a, b) -> b.getPrioridade().ordinal() - a.getPrioridade().ordinal());
+    }
+
+    @Benchmark
+    public int buscarRota() {
+        motor.carregar(lista);
+        return motor.buscar(10.0, 100.0);
+    }
+
+    @Benchmark
+    public int buscarRotaPesada() {
+        // Capacidade pequena: força a poda por peso em boa parte das combinações
+        motor.carregar(lista);
+        return motor.buscar(2.0, 100.0);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.service.DroneService;
+import com.example.dronesim.service.SinkEventos;
+
+import java.util.Random;
+
+/**
+ * Cenários reproduzíveis (semente fixa) para os benchmarks: frota e pedidos em três distribuições espaciais.
+ */
+public final class Cenarios {
+
+    public enum Distribuicao {
+        UNIFORME,   // pedidos espalhados por todo o raio de atuação
+        AGRUPADA,   // alguns bairros com vários pedidos cada
+        HOTSPOT     // a maior parte dos pedidos num único ponto quente
+    }
+
+    // Coordenadas limitadas ao alcance/2 do maior drone padrão (150km)
+    private static final double RAIO_KM = 60.0;
+    private static final int BAIRROS = 8;
+
+    private Cenarios() {}
+
+    /**
+     * Serviço silencioso com 'drones' drones (os 5 padrão mais extras) e 'pedidos' pedidos pendentes.
+     */
+    public static DroneService servico(int drones, int pedidos, Distribuicao distribuicao, long semente) {
+        DroneService service = new DroneService();
+        service.setSinkEventos(SinkEventos.SILENCIOSO);
+        Random r = new Random(semente);
+        for (int i = 5; i < drones; i++) {
+            double capacidade = 8 + r.nextInt(8);
+            service.criarDrone(capacidade, capacidade * 10, 0, 0);
+        }
+        gerarPedidos(service, pedidos, distribuicao, r);
+        service.drenarEntrada();
+        return service;
+    }
+
+    public static void gerarPedidos(DroneService service, int n, Distribuicao distribuicao, Random r) {
+        double[][] bairros = new double[BAIRROS][2];
+        for (double[] b : bairros) {
+            b[0] = (r.nextDouble() * 2 - 1) * RAIO_KM * 0.8;
+            b[1] = (r.nextDouble() * 2 - 1) * RAIO_KM * 0.8;
+        }
+        Enums.Prioridade[] prioridades = Enums.Prioridade.values();
+        for (int i = 0; i < n; i++) {
+            double x, y;
+            switch (distribuicao) {
+                case AGRUPADA: {
+                    double[] b = bairros[r.nextInt(BAIRROS)];
+                    x = b[0] + r.nextGaussian() * 4;
+                    y = b[1] + r.nextGaussian() * 4;
+                    break;
+                }
+                case HOTSPOT:
+                    if (r.nextDouble() < 0.8) {
+                        x = 20 + r.nextGaussian() * 3;
+                        y = 15 + r.nextGaussian() * 3;
+                        break;
+                    }
+                    // 20% espalhados: mesmo caso da distribuição uniforme
+                default:
+                    x = (r.nextDouble() * 2 - 1) * RAIO_KM;
+                    y = (r.nextDouble() * 2 - 1) * RAIO_KM;
+            }
+            service.criarPedido(x, y, 0.5 + r.nextDouble() * 7.5, prioridades[r.nextInt(prioridades.length)]);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.service.Checkpoint;
+import com.example.dronesim.service.DroneService;
+import com.example.dronesim.service.SinkEventos;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkpoint.gravar e Checkpoint.restaurar de um serviço com 'pedidos' pendentes e 10 drones. A
+ * restauração parte de um serviço novo a cada invocação (criado fora da medição), então o tempo inclui
+ * reconstruir os pedidos e os índices de pendentes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CheckpointBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int pedidos;
+
+    private DroneService origem;
+    private DroneService destino;
+    private Path arquivo;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        Random r = new Random(42);
+        origem = new DroneService(false);
+        origem.setSinkEventos(SinkEventos.SILENCIOSO);
+        for (int i = 0; i < 10; i++) origem.criarDrone(8 + r.nextInt(8), 100, 0, 0);
+        Enums.Prioridade[] prioridades = Enums.Prioridade.values();
+        for (int i = 0; i < pedidos; i++) {
+            origem.criarPedido((r.nextDouble() * 2 - 1) * 60, (r.nextDouble() * 2 - 1) * 60,
+                    0.5 + r.nextDouble() * 7.5, prioridades[r.nextInt(prioridades.length)]);
+        }
+        arquivo = Files.createTempFile("checkpoint", ".bin");
+        new Checkpoint(origem).gravar(arquivo, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void apagar() throws IOException {
+        Files.deleteIfExists(arquivo);
+    }
+
+    @Setup(Level.Invocation)
+    public void servicoVazio() {
+        destino = new DroneService(false);
+        destino.setSinkEventos(SinkEventos.SILENCIOSO);
+    }
+
+    @Benchmark
+    public Checkpoint.Resumo gravar() throws IOException {
+        return new Checkpoint(origem).gravar(arquivo, 0);
+    }
+
+    @Benchmark
+    public Checkpoint.Resumo restaurar() throws IOException {
+        return new Checkpoint(destino).restaurar(arquivo);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.service.DiarioEventos;
+import com.example.dronesim.service.DroneService;
+import com.example.dronesim.service.PlanoOndas;
+import com.example.dronesim.service.SimuladorEventos;
+import com.example.dronesim.service.SinkEventos;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do DiarioEventos num ciclo completo (planejarOndas e simulação por eventos de 'pedidos' pedidos com
+ * 10 drones): diario=false publica no sink silencioso, diario=true grava tudo com group commit. O diário é
+ * compactado no fim de cada iteração, fora da medição, para o arquivo não crescer sem limite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiarioBenchmark {
+
+    @Param({"false", "true"})
+    public boolean diario;
+
+    @Param({"10000"})
+    public int pedidos;
+
+    private DroneService service;
+    private DiarioEventos sink;
+    private Path diretorio;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        Random r = new Random(42);
+        service = new DroneService(false);
+        service.setSinkEventos(SinkEventos.SILENCIOSO);
+        for (int i = 0; i < 10; i++) {
+            double capacidade = 8 + r.nextInt(8);
+            service.criarDrone(capacidade, capacidade * 10, 0, 0);
+        }
+        Enums.Prioridade[] prioridades = Enums.Prioridade.values();
+        for (int i = 0; i < pedidos; i++) {
+            service.criarPedido((r.nextDouble() * 2 - 1) * 60, (r.nextDouble() * 2 - 1) * 60,
+                    0.5 + r.nextDouble() * 7.5, prioridades[r.nextInt(prioridades.length)]);
+        }
+        service.drenarEntrada();
+        if (diario) {
+            diretorio = Files.createTempDirectory("diario");
+            sink = new DiarioEventos(diretorio.resolve("diario.bin"));
+            service.setSinkEventos(sink);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void compactar() throws IOException {
+        if (sink != null) sink.compactar(service, diretorio.resolve("snapshot.bin"), 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void fechar() throws IOException {
+        if (sink == null) return;
+        sink.fechar();
+        for (String nome : new String[]{"diario.bin", "snapshot.bin"}) Files.deleteIfExists(diretorio.resolve(nome));
+        Files.deleteIfExists(diretorio);
+    }
+
+    @Benchmark
+    public long ciclo() {
+        service.resetPedidos();
+        PlanoOndas plano = service.planejarOndas();
+        return new SimuladorEventos(service).executar(plano).totalEntregas;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.util.GeoUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kernels de distância em lote de GeoUtils: um ponto contra 'pontos' coordenadas (distâncias e filtro
+ * por raio). Cada método roda num fork próprio: os de sufixo Escalar com -Ddronesim.simd=false, os demais
+ * com a Vector API (o fork já recebe --add-modules jdk.incubator.vector).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class DistanciaBenchmark {
+
+    @Param({"64", "1024", "65536"})
+    public int pontos;
+
+    private double[] xs;
+    private double[] ys;
+    private double[] destino;
+    private int[] indices;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Random r = new Random(7);
+        xs = new double[pontos];
+        ys = new double[pontos];
+        for (int i = 0; i < pontos; i++) {
+            xs[i] = (r.nextDouble() * 2 - 1) * 60;
+            ys[i] = (r.nextDouble() * 2 - 1) * 60;
+        }
+        destino = new double[pontos];
+        indices = new int[pontos];
+        System.out.println("Kernel: " + GeoUtils.kernelDistancias());
+    }
+
+    @Benchmark
+    public double[] distancias() {
+        GeoUtils.distancias(0, 0, xs, ys, 0, pontos, destino);
+        return destino;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Ddronesim.simd=false"})
+    public double[] distanciasEscalar() {
+        GeoUtils.distancias(0, 0, xs, ys, 0, pontos, destino);
+        return destino;
+    }
+
+    @Benchmark
+    public int filtrarRaio() {
+        // Raio de um drone de 100km de alcance: cerca de metade dos pontos passa
+        return GeoUtils.filtrarRaio(0, 0, xs, ys, 0, pontos, 50.0, indices);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Ddronesim.simd=false"})
+    public int filtrarRaioEscalar() {
+        return GeoUtils.filtrarRaio(0, 0, xs, ys, 0, pontos, 50.0, indices);
+    }
+}
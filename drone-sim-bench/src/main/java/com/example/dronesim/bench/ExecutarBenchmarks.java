@@ -0,0 +1,32 @@
+package com.example.dronesim.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada do benchmarks.jar: aceita as mesmas opções do JMH (ex.: filtro por regex,
+ * -p pedidos=1000) e sempre liga o GCProfiler, para o relatório trazer a taxa de alocação
+ * (gc.alloc.rate.norm = bytes por operação) junto com o throughput.
+ */
+public class ExecutarBenchmarks {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linha = new CommandLineOptions(args);
+        if (linha.shouldHelp()) {
+            linha.showHelp();
+            return;
+        }
+        Options opcoes = new OptionsBuilder()
+                .parent(linha)
+                .addProfiler(GCProfiler.class)
+                .build();
+        Runner runner = new Runner(opcoes);
+        if (linha.shouldList()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+}
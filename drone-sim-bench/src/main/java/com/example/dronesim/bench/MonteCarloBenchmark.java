@@ -0,0 +1,47 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.service.MonteCarlo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MonteCarlo.executar com o mesmo lote de rodadas (12 drones, 500 pedidos, em ondas) e 1 a 8 threads:
+ * as rodadas não compartilham estado, então as rodadas por segundo devem crescer com as threads até o
+ * número de núcleos da máquina. Cada invocação roda as mesmas sementes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonteCarloBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"64"})
+    public int rodadas;
+
+    private ForkJoinPool pool;
+    private MonteCarlo monteCarlo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        pool = new ForkJoinPool(threads);
+        monteCarlo = new MonteCarlo(MonteCarlo.uniforme(12, 500, 60.0));
+        monteCarlo.setPool(pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void fecharPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public MonteCarlo.Resultado executar() {
+        return monteCarlo.executar(rodadas, 42);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.service.DespachoRegional;
+import com.example.dronesim.service.SinkEventos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DespachoRegional.planejarCiclo com a mesma carga por região (pedidosPorRegiao e 10 drones em volta de
+ * cada base, bases a 100km numa grade): com um núcleo por região, os ciclos por segundo devem ficar quase
+ * constantes enquanto o total de pedidos cresce com o número de regiões. Cada invocação parte de um
+ * despacho novo (montado fora da medição).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegioesBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int regioes;
+
+    @Param({"5000"})
+    public int pedidosPorRegiao;
+
+    private ForkJoinPool pool;
+    private DespachoRegional despacho;
+
+    @Setup(Level.Trial)
+    public void criarPool() {
+        pool = new ForkJoinPool(regioes);
+    }
+
+    @TearDown(Level.Trial)
+    public void fecharPool() {
+        pool.shutdown();
+    }
+
+    @Setup(Level.Invocation)
+    public void preparar() {
+        Random r = new Random(42);
+        despacho = new DespachoRegional(10.0);
+        despacho.setPool(pool);
+        int colunas = (int) Math.ceil(Math.sqrt(regioes));
+        for (int k = 0; k < regioes; k++) {
+            DespachoRegional.Regiao regiao = despacho.adicionarRegiao((k % colunas) * 100.0, (k / colunas) * 100.0);
+            regiao.getServico().setSinkEventos(SinkEventos.SILENCIOSO);
+            for (int i = 0; i < 10; i++) {
+                double capacidade = 8 + r.nextInt(8);
+                despacho.criarDrone(regiao, capacidade, capacidade * 10);
+            }
+        }
+        Enums.Prioridade[] prioridades = Enums.Prioridade.values();
+        for (DespachoRegional.Regiao regiao : despacho.getRegioes()) {
+            for (int i = 0; i < pedidosPorRegiao; i++) {
+                despacho.criarPedido(regiao.getBaseX() + (r.nextDouble() * 2 - 1) * 60,
+                        regiao.getBaseY() + (r.nextDouble() * 2 - 1) * 60,
+                        0.5 + r.nextDouble() * 7.5, prioridades[r.nextInt(prioridades.length)]);
+            }
+        }
+    }
+
+    @Benchmark
+    public DespachoRegional.ResultadoCiclo planejarCiclo() {
+        return despacho.planejarCiclo(Double.POSITIVE_INFINITY);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.dronesim.bench;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.service.DroneService;
+import com.example.dronesim.service.MotorTickParalelo;
+import com.example.dronesim.service.Simulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Os motores de simulação sobre o mesmo plano: a simulação técnica (runSimulation), o motor por
+ * eventos discretos e o motor de ticks headless. O plano é refeito antes de cada invocação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulacaoBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int pedidos;
+
+    @Param({"5", "50", "500"})
+    public int drones;
+
+    @Param({"UNIFORME", "AGRUPADA", "HOTSPOT"})
+    public Cenarios.Distribuicao distribuicao;
+
+    private DroneService service;
+    private Simulator simulator;
+    private MotorTickParalelo motorTicks;
+    private Map<Drone, List<Pedido>> plan;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = Cenarios.servico(drones, pedidos, distribuicao, 42);
+        simulator = new Simulator(service);
+        motorTicks = new MotorTickParalelo(service);
+    }
+
+    @Setup(Level.Invocation)
+    public void planejar() {
+        service.resetPedidos();
+        plan = service.alocarPedidos();
+    }
+
+    @Benchmark
+    public Simulator.SimulationReport runSimulation() {
+        return simulator.runSimulation(plan);
+    }
+
+    @Benchmark
+    public Simulator.SimulationReport runSimulationEventos() {
+        return simulator.runSimulationEventos(plan);
+    }
+
+    @Benchmark
+    public MotorTickParalelo.RelatorioTicks ticksHeadless() {
+        return motorTicks.executar(plan, Long.MAX_VALUE);
+    }
+}
@@ -3,13 +3,25 @@ package com.example.dronesim;
 import com.example.dronesim.model.*;
 import com.example.dronesim.service.*;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
 public class App {
     public static void main(String[] args) {
+        // Com argumentos: modo lote (sem menu), para scripts e CI
+        if (args.length > 0) System.exit(ExecucaoLote.executar(args));
+
         DroneService service = new DroneService();
+        // Mensagens da alocação/simulação saem por uma thread de escrita; flush() antes de imprimir direto no console
+        SinkEventos eventos = new SinkAssincrono(EventoSimulacao.Nivel.DEBUG);
+        service.setSinkEventos(eventos);
+        // Métricas de alocação/simulação visíveis ao vivo via JMX (JConsole, VisualVM)
+        service.getMetricas().registrarMBean();
         Simulator simulator = new Simulator(service);
         // Inicializa o runner de testes em Java Puro
         TesteUnitario pureTester = new TesteUnitario(service);
@@ -20,6 +32,7 @@ public class App {
 
         menuLoop:
         while (true) {
+            eventos.flush();
             System.out.println("\nMenu:");
             System.out.println("1) Criar pedido");
             System.out.println("2) Listar pedidos");
@@ -28,7 +41,8 @@ public class App {
             System.out.println("5) Rodar Simulação Técnica (Relatório)");
             System.out.println("6) Rodar Simulação Dinâmica (Mapa ASCII)"); // Novo Dashboard
             System.out.println("7) Rodar Testes Unitários (Java Puro)");
-            System.out.println("8) Sair");
+            System.out.println("8) Carregar cenário de arquivo (CSV ou .bin)");
+            System.out.println("9) Sair");
             System.out.print("Escolha: ");
             String opt = sc.nextLine().trim();
 
@@ -76,14 +90,36 @@ public class App {
                     break;
 
                 case "4": // Alocar pedidos
+                    System.out.print("modo (SEQUENCIAL/PARALELO/ONDAS): ");
+                    String md = sc.nextLine().trim().toUpperCase();
+                    if (md.equals("ONDAS")) {
+                        // Várias viagens por drone no ciclo, com recarga na base entre elas
+                        service.resetPedidos();
+                        PlanoOndas ondas = service.planejarOndas();
+                        eventos.flush();
+                        System.out.println("--- Gerou Plano em Ondas ---");
+                        System.out.println(service.getUltimoRelatorioAlocacao());
+                        System.out.println(ondas);
+                        System.out.println(simulator.runSimulationOndas(ondas));
+                        break;
+                    }
+                    Enums.ModoAlocacao modo;
+                    try { modo = Enums.ModoAlocacao.valueOf(md); }
+                    catch (IllegalArgumentException e) {
+                        System.out.println("Modo inválido. Usando SEQUENCIAL.");
+                        modo = Enums.ModoAlocacao.SEQUENCIAL;
+                    }
                     service.resetPedidos();
-                    Map<Drone, List<Pedido>> plan = service.alocarPedidos();
+                    Map<Drone, List<Pedido>> plan = service.alocarPedidos(modo);
+                    eventos.flush();
                     System.out.println("--- Gerou Plano de Alocação ---");
+                    System.out.println(service.getUltimoRelatorioAlocacao());
                     break;
 
                 case "5": // Simulação técnica (Relatório)
                     service.resetPedidos();
                     Map<Drone, List<Pedido>> planTech = service.alocarPedidos();
+                    eventos.flush();
 
                     if (planTech.values().stream().allMatch(List::isEmpty)) {
                         System.err.println("NÃO FOI POSSÍVEL ALOCAR PEDIDOS. Crie novos ou verifique o alcance/peso.");
@@ -92,6 +128,7 @@ public class App {
 
                     System.out.println("\n--- Iniciando Simulação Técnica Sequencial ---");
                     Simulator.SimulationReport report = simulator.runSimulation(planTech);
+                    eventos.flush();
                     System.out.println("\n--- SIMULAÇÃO CONCLUÍDA ---");
                     System.out.println(report);
                     break;
@@ -99,6 +136,7 @@ public class App {
                 case "6": // Rodar Simulação Dinâmica (Mapa ASCII)
                     service.resetPedidos();
                     Map<Drone, List<Pedido>> planAscii = service.alocarPedidos();
+                    eventos.flush();
 
                     if (planAscii.values().stream().allMatch(List::isEmpty)) {
                         System.err.println("NÃO FOI POSSÍVEL ALOCAR PEDIDOS. Crie novos ou verifique o alcance/peso.");
@@ -106,9 +144,12 @@ public class App {
                     }
 
                     System.out.println("\n--- Iniciando Simulação Dinâmica (Mapa ASCII) ---");
+                    System.out.print("Redesenhar só o que muda (terminal ANSI, sem mensagens durante o mapa)? (s/N): ");
+                    boolean delta = sc.nextLine().trim().equalsIgnoreCase("s");
                     System.out.println("Pressione Ctrl+C para parar a simulação.");
                     // O valor 500 define que o mapa será atualizado a cada 500ms
-                    simulator.runSimulationAscii(planAscii, 500);
+                    simulator.runSimulationAscii(planAscii, 500, delta);
+                    eventos.flush();
                     System.out.println("\n--- Simulação Dinâmica Concluída ---");
                     break;
 
@@ -116,8 +157,23 @@ public class App {
                     pureTester.runAllTests();
                     break;
 
-                case "8": // Sair (Movido)
+                case "8": // Carregar cenário (frota + pedidos) sem digitar pedido a pedido
+                    System.out.print("arquivo (.csv ou .bin): ");
+                    String caminho = sc.nextLine().trim();
+                    try {
+                        CarregadorCenario.Resumo resumo = new CarregadorCenario(service).carregar(Paths.get(caminho));
+                        eventos.flush();
+                        System.out.println(resumo);
+                    } catch (NoSuchFileException ex) {
+                        System.out.println("Arquivo não encontrado: " + ex.getMessage());
+                    } catch (IOException | InvalidPathException ex) {
+                        System.out.println("Erro ao carregar cenário: " + ex.getMessage());
+                    }
+                    break;
+
+                case "9": // Sair (Movido)
                     System.out.println("Saindo...");
+                    eventos.fechar();
                     break menuLoop;
 
                 default:
@@ -0,0 +1,432 @@
+package com.example.dronesim;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.service.*;
+import com.example.dronesim.util.GeoUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modo lote (sem menu): carrega um cenário, roda alocação + simulação N vezes e grava o relatório de
+ * cada execução, com os tempos, em JSON. Pensado para scripts e CI: não lê System.in, não dorme,
+ * não cria a thread do SinkAssincrono e por padrão não escreve eventos.
+ *
+ * <pre>
+ * java -jar drone-sim-java-se/target/drone-sim-java-se-1.0-SNAPSHOT.jar --cenario dia.bin --alocacao PARALELO --motor EVENTOS --execucoes 20 --saida r.json
+ * </pre>
+ */
+public class ExecucaoLote {
+    static final String USO = String.join(System.lineSeparator(),
+            "Uso: java -jar drone-sim-java-se/target/drone-sim-java-se-1.0-SNAPSHOT.jar [opções]   (sem opções abre o menu interativo)",
+            "  --cenario ARQUIVO      cenário .csv ou .bin (ver README)",
+            "  --frota-padrao         acrescenta os 5 drones padrão à frota do cenário",
+            "  --alocacao MODO        SEQUENCIAL (padrão) ou PARALELO",
+            "  --ondas [HORIZONTE]    várias viagens por drone no ciclo (planejarOndas), simuladas pelo motor EVENTOS;",
+            "                         HORIZONTE (km) limita o ciclo, o resto fica pendente",
+            "  --max-paradas N        pedidos por rota (padrão 3, até " + MotorBuscaRota.LIMITE_PARADAS + ")",
+            "  --motor MOTOR          TECNICO (padrão), EVENTOS ou TICKS",
+            "  --execucoes N          número de execuções (padrão 1)",
+            "  --max-ticks N          limite de ticks do motor TICKS (padrão 1000000)",
+            "  --saida ARQUIVO        relatório JSON (padrão: saída padrão)",
+            "  --eventos NIVEL        escreve os eventos a partir do nível (TRACO, DEBUG, INFO, AVISO, ERRO) em System.err",
+            "  --jmx                  registra o MBean de métricas (" + MetricasSimulacao.NOME_MBEAN + ")",
+            "  --ajuda                mostra esta ajuda");
+
+    public static class Opcoes {
+        public Path cenario;
+        public boolean frotaPadrao;
+        public Enums.ModoAlocacao alocacao = Enums.ModoAlocacao.SEQUENCIAL;
+        public Enums.MotorSimulacao motor = Enums.MotorSimulacao.TECNICO;
+        public boolean ondas;
+        public double horizonte = Double.POSITIVE_INFINITY;
+        public int maxParadas = MotorBuscaRota.PARADAS_PADRAO;
+        public int execucoes = 1;
+        public long maxTicks = 1_000_000;
+        public Path saida;
+        public EventoSimulacao.Nivel eventos;
+        public boolean jmx;
+        public boolean ajuda;
+
+        /**
+         * Lê as opções da linha de comando. Lança IllegalArgumentException com a mensagem para o usuário.
+         */
+        public static Opcoes ler(String[] args) {
+            Opcoes o = new Opcoes();
+            boolean motorInformado = false;
+            for (int i = 0; i < args.length; i++) {
+                String opcao = args[i];
+                switch (opcao) {
+                    case "--ajuda":
+                    case "-h":
+                        o.ajuda = true;
+                        break;
+                    case "--jmx":
+                        o.jmx = true;
+                        break;
+                    case "--frota-padrao":
+                        o.frotaPadrao = true;
+                        break;
+                    case "--cenario":
+                        o.cenario = Paths.get(valor(args, ++i, opcao));
+                        break;
+                    case "--alocacao":
+                        o.alocacao = constante(Enums.ModoAlocacao.class, args, ++i, opcao);
+                        break;
+                    case "--motor":
+                        o.motor = constante(Enums.MotorSimulacao.class, args, ++i, opcao);
+                        motorInformado = true;
+                        break;
+                    case "--ondas":
+                        o.ondas = true;
+                        // Horizonte opcional: só consome o próximo argumento se não for outra opção
+                        if (i + 1 < args.length && !args[i + 1].startsWith("--")) o.horizonte = horizonte(args[++i]);
+                        break;
+                    case "--max-paradas":
+                        o.maxParadas = (int) positivo(args, ++i, opcao);
+                        if (o.maxParadas > MotorBuscaRota.LIMITE_PARADAS) {
+                            throw new IllegalArgumentException("Valor inválido para --max-paradas: " + o.maxParadas
+                                    + " (máximo " + MotorBuscaRota.LIMITE_PARADAS + ").");
+                        }
+                        break;
+                    case "--execucoes":
+                        o.execucoes = (int) positivo(args, ++i, opcao);
+                        break;
+                    case "--max-ticks":
+                        o.maxTicks = positivo(args, ++i, opcao);
+                        break;
+                    case "--saida":
+                        o.saida = Paths.get(valor(args, ++i, opcao));
+                        break;
+                    case "--eventos":
+                        o.eventos = constante(EventoSimulacao.Nivel.class, args, ++i, opcao);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opção desconhecida: " + opcao);
+                }
+            }
+            if (o.ondas) {
+                // Só o motor de eventos simula várias viagens por drone
+                if (motorInformado && o.motor != Enums.MotorSimulacao.EVENTOS) {
+                    throw new IllegalArgumentException("--ondas só funciona com --motor EVENTOS.");
+                }
+                o.motor = Enums.MotorSimulacao.EVENTOS;
+            }
+            return o;
+        }
+
+        private static double horizonte(String v) {
+            try {
+                double h = Double.parseDouble(v);
+                if (h > 0) return h;
+            } catch (NumberFormatException ignored) {
+            }
+            throw new IllegalArgumentException("Valor inválido para --ondas: " + v + " (use um horizonte positivo, em km).");
+        }
+
+        private static String valor(String[] args, int i, String opcao) {
+            if (i >= args.length) throw new IllegalArgumentException("Falta o valor de " + opcao + ".");
+            return args[i];
+        }
+
+        private static long positivo(String[] args, int i, String opcao) {
+            String v = valor(args, i, opcao);
+            try {
+                long n = Long.parseLong(v);
+                if (n > 0 && n <= Integer.MAX_VALUE) return n;
+            } catch (NumberFormatException ignored) {
+            }
+            throw new IllegalArgumentException("Valor inválido para " + opcao + ": " + v + " (use um inteiro positivo).");
+        }
+
+        private static <E extends Enum<E>> E constante(Class<E> tipo, String[] args, int i, String opcao) {
+            String v = valor(args, i, opcao);
+            for (E e : tipo.getEnumConstants()) {
+                if (e.name().equalsIgnoreCase(v)) return e;
+            }
+            throw new IllegalArgumentException("Valor inválido para " + opcao + ": " + v
+                    + " (use " + Arrays.toString(tipo.getEnumConstants()) + ").");
+        }
+    }
+
+    /**
+     * Roda o modo lote. Retorna o código de saída do processo: 0 = ok, 1 = erro de E/S, 2 = opções inválidas.
+     */
+    public static int executar(String[] args) {
+        Opcoes opcoes;
+        try {
+            opcoes = Opcoes.ler(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erro: " + e.getMessage());
+            System.err.println(USO);
+            return 2;
+        }
+        if (opcoes.ajuda) {
+            System.out.println(USO);
+            return 0;
+        }
+        try {
+            String json = executar(opcoes);
+            if (opcoes.saida == null) {
+                System.out.println(json);
+            } else {
+                try (Writer w = Files.newBufferedWriter(opcoes.saida, StandardCharsets.UTF_8)) {
+                    w.write(json);
+                }
+            }
+            return 0;
+        } catch (NoSuchFileException e) {
+            System.err.println("Arquivo não encontrado: " + e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            System.err.println("Erro de E/S: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Executa as rodadas pedidas e devolve o relatório em JSON.
+     */
+    public static String executar(Opcoes opcoes) throws IOException {
+        long inicioNs = System.nanoTime();
+        DroneService service = new DroneService(opcoes.frotaPadrao || opcoes.cenario == null);
+        service.setSinkEventos(opcoes.eventos == null
+                ? SinkEventos.SILENCIOSO
+                : new SinkConsole(opcoes.eventos, System.err, System.err));
+        service.setMaxParadas(opcoes.maxParadas);
+        Simulator simulator = new Simulator(service);
+        // Opcional: carregar a parte de JMX custa tempo de partida
+        if (opcoes.jmx) service.getMetricas().registrarMBean();
+
+        CarregadorCenario.Resumo carga = opcoes.cenario == null
+                ? new CarregadorCenario.Resumo()
+                : new CarregadorCenario(service).carregar(opcoes.cenario);
+
+        Json json = new Json();
+        json.abrir()
+                .campo("cenario", opcoes.cenario == null ? null : opcoes.cenario.toString())
+                .campo("drones", service.getFrota().tamanho())
+                .campo("pedidos", carga.pedidos)
+                .campo("rejeitados", carga.rejeitados)
+                .campo("cargaMs", carga.segundos * 1000)
+                .campo("alocacao", opcoes.ondas ? "ONDAS" : opcoes.alocacao.name())
+                .campo("horizonte", opcoes.horizonte)
+                .campo("maxParadas", opcoes.maxParadas)
+                .campo("kernelDistancias", GeoUtils.kernelDistancias())
+                .campo("motor", opcoes.motor.name())
+                .campo("execucoes", opcoes.execucoes)
+                .lista("resultados");
+
+        double somaAlocacaoMs = 0, somaSimulacaoMs = 0;
+        double minSimulacaoMs = Double.MAX_VALUE, maxSimulacaoMs = 0;
+        for (int execucao = 1; execucao <= opcoes.execucoes; execucao++) {
+            service.resetPedidos();
+            long t0 = System.nanoTime();
+            Object relatorio;
+            long t1;
+            if (opcoes.ondas) {
+                PlanoOndas plano = service.planejarOndas(opcoes.horizonte);
+                t1 = System.nanoTime();
+                relatorio = simulator.runSimulationOndas(plano);
+            } else {
+                Map<Drone, List<Pedido>> plano = service.alocarPedidos(opcoes.alocacao);
+                t1 = System.nanoTime();
+                relatorio = simular(simulator, plano, opcoes);
+            }
+            long t2 = System.nanoTime();
+
+            double alocacaoMs = (t1 - t0) / 1e6, simulacaoMs = (t2 - t1) / 1e6;
+            somaAlocacaoMs += alocacaoMs;
+            somaSimulacaoMs += simulacaoMs;
+            minSimulacaoMs = Math.min(minSimulacaoMs, simulacaoMs);
+            maxSimulacaoMs = Math.max(maxSimulacaoMs, simulacaoMs);
+
+            DroneService.RelatorioAlocacao aloc = service.getUltimoRelatorioAlocacao();
+            json.abrir()
+                    .campo("execucao", execucao)
+                    .campo("alocacaoMs", alocacaoMs)
+                    .campo("simulacaoMs", simulacaoMs)
+                    .campo("pedidosAlocados", aloc.pedidosAlocados)
+                    .campo("viagens", aloc.viagens)
+                    .campo("naoAtendidos", aloc.naoAtendidos)
+                    .campo("distanciaPlanejadaKm", aloc.distanciaTotalKm);
+            if (opcoes.ondas) json.campo("ondas", aloc.ondas).campo("makespanPlanejado", aloc.makespan);
+            if (relatorio instanceof Simulator.SimulationReport) {
+                escreverRelatorio(json, (Simulator.SimulationReport) relatorio);
+            } else {
+                escreverRelatorio(json, (MotorTickParalelo.RelatorioTicks) relatorio);
+            }
+            json.fechar();
+        }
+        json.fecharLista()
+                .objeto("resumo")
+                .campo("alocacaoMsMedia", somaAlocacaoMs / opcoes.execucoes)
+                .campo("simulacaoMsMedia", somaSimulacaoMs / opcoes.execucoes)
+                .campo("simulacaoMsMin", minSimulacaoMs)
+                .campo("simulacaoMsMax", maxSimulacaoMs)
+                .campo("totalMs", (System.nanoTime() - inicioNs) / 1e6)
+                .fechar();
+        escreverMetricas(json, service.getMetricas());
+        json.fechar();
+        service.getSinkEventos().fechar();
+        return json.toString();
+    }
+
+    private static Object simular(Simulator simulator, Map<Drone, List<Pedido>> plano, Opcoes opcoes) {
+        switch (opcoes.motor) {
+            case EVENTOS:
+                return simulator.runSimulationEventos(plano);
+            case TICKS:
+                return simulator.runSimulationHeadless(plano, opcoes.maxTicks);
+            default:
+                return simulator.runSimulation(plano);
+        }
+    }
+
+    private static void escreverRelatorio(Json json, Simulator.SimulationReport r) {
+        json.campo("totalEntregas", r.totalEntregas)
+                .campo("tempoMedioEntrega", r.tempoMedioEntrega)
+                .campo("tempoTotalSimulacao", r.tempoTotalSimulacao)
+                .campo("recargasUrgentes", r.recargasUrgentes)
+                .campo("droneMaisEficiente", r.droneMaisEficiente == null ? null : r.droneMaisEficiente.getId())
+                .objeto("bateriaConsumidaPorDrone");
+        for (Map.Entry<Integer, Double> e : r.bateriaConsumidaPorDrone.entrySet()) {
+            json.campo(String.valueOf(e.getKey()), e.getValue());
+        }
+        json.fechar().objeto("recargasPorDrone");
+        for (Map.Entry<Integer, Integer> e : r.recargasPorDrone.entrySet()) {
+            json.campo(String.valueOf(e.getKey()), e.getValue());
+        }
+        json.fechar();
+    }
+
+    private static void escreverMetricas(Json json, MetricasSimulacao m) {
+        json.objeto("metricas")
+                .campo("buscasRota", m.getBuscasRota())
+                .campo("rotasAvaliadas", m.getRotasAvaliadas())
+                .campo("rotasPodadas", m.getRotasPodadas())
+                .campo("alocacaoLatenciaP50Ms", m.getAlocacaoLatenciaP50Ms())
+                .campo("alocacaoLatenciaP99Ms", m.getAlocacaoLatenciaP99Ms())
+                .campo("alocacaoLatenciaMaxMs", m.getAlocacaoLatenciaMaxMs())
+                .campo("ticks", m.getTicks())
+                .campo("tickDuracaoP50Us", m.getTickDuracaoP50Us())
+                .campo("tickDuracaoP99Us", m.getTickDuracaoP99Us())
+                .campo("tickDuracaoMaxUs", m.getTickDuracaoMaxUs())
+                .campo("eventosSimulacao", m.getEventosSimulacao())
+                .campo("eventosPorSegundo", m.getEventosPorSegundo())
+                .campo("recargasUrgentesPorEntrega", m.getRecargasUrgentesPorEntrega())
+                .fechar();
+    }
+
+    private static void escreverRelatorio(Json json, MotorTickParalelo.RelatorioTicks r) {
+        json.campo("ticks", r.ticks)
+                .campo("ticksPorSegundo", r.ticksPorSegundo)
+                .campo("totalEntregas", r.entregas)
+                .campo("recargas", r.recargas)
+                .campo("retornosBateriaCritica", r.retornosBateriaCritica)
+                .campo("pedidosLiberados", r.pedidosLiberados);
+    }
+
+    /**
+     * Escritor mínimo de JSON (só o que o relatório usa), para não trazer dependências ao jar.
+     */
+    static class Json {
+        private final StringBuilder sb = new StringBuilder(512);
+        // true quando o próximo item do objeto/lista atual é o primeiro (sem vírgula antes)
+        private boolean primeiro = true;
+        private int nivel = 0;
+
+        Json abrir() {
+            separar();
+            sb.append('{');
+            return entrar();
+        }
+
+        Json objeto(String nome) {
+            chave(nome);
+            sb.append('{');
+            return entrar();
+        }
+
+        Json lista(String nome) {
+            chave(nome);
+            sb.append('[');
+            return entrar();
+        }
+
+        Json fechar() {
+            return sair('}');
+        }
+
+        Json fecharLista() {
+            return sair(']');
+        }
+
+        Json campo(String nome, String valor) {
+            chave(nome);
+            if (valor == null) sb.append("null");
+            else texto(valor);
+            return this;
+        }
+
+        Json campo(String nome, Number valor) {
+            chave(nome);
+            if (valor == null) sb.append("null");
+            else if (valor instanceof Double && !Double.isFinite(valor.doubleValue())) sb.append("null");
+            else sb.append(valor);
+            return this;
+        }
+
+        private void chave(String nome) {
+            separar();
+            texto(nome);
+            sb.append(": ");
+        }
+
+        private void separar() {
+            if (!primeiro) sb.append(',');
+            if (nivel > 0) sb.append('\n').append("  ".repeat(nivel));
+            primeiro = false;
+        }
+
+        private Json entrar() {
+            nivel++;
+            primeiro = true;
+            return this;
+        }
+
+        private Json sair(char fecho) {
+            nivel--;
+            if (!primeiro) sb.append('\n').append("  ".repeat(nivel));
+            sb.append(fecho);
+            primeiro = false;
+            return this;
+        }
+
+        private void texto(String s) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') sb.append('\\').append(c);
+                else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                else sb.append(c);
+            }
+            sb.append('"');
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
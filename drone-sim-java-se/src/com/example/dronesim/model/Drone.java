@@ -2,55 +2,80 @@ package com.example.dronesim.model;
 
 import com.example.dronesim.model.Enums.StatusDrone;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fachada de um drone sobre o seu slot na {@link Frota} (os dados ficam nos arrays da frota).
+ */
 public class Drone {
-    private static int COUNTER = 1;
+    // Compartilhado por todas as frotas: serviços em threads diferentes criam drones ao mesmo tempo
+    private static final AtomicInteger COUNTER = new AtomicInteger(1);
     private final int id;
-    private double capacidadeKg;
-    private double alcanceKm;
-    private double posX;
-    private double posY;
-    private double bateriaPercent;
-    private StatusDrone status;
-    private Pedido currentPedido;
+    // Mudam só quando o drone passa para outra frota (Frota.transferir)
+    private Frota frota;
+    private int slot;
 
+    // Drone avulso: ocupa sozinho uma frota própria
     public Drone(double capacidadeKg, double alcanceKm, double posX, double posY) {
-        this.id = COUNTER++;
-        this.capacidadeKg = capacidadeKg;
-        this.alcanceKm = alcanceKm;
-        this.posX = posX;
-        this.posY = posY;
-        this.bateriaPercent = 100.0;
-        this.status = StatusDrone.IDLE;
+        this(new Frota(1), capacidadeKg, alcanceKm, posX, posY);
+    }
+
+    private Drone(Frota frota, double capacidadeKg, double alcanceKm, double posX, double posY) {
+        this(frota, frota.reservarSlot(capacidadeKg, alcanceKm, posX, posY));
+    }
+
+    Drone(Frota frota, int slot) {
+        this(frota, slot, COUNTER.getAndIncrement());
+    }
+
+    // Drone restaurado com o id original: os próximos ids continuam acima dele
+    Drone(Frota frota, int slot, int id) {
+        COUNTER.accumulateAndGet(id + 1, Math::max);
+        this.id = id;
+        this.frota = frota;
+        this.slot = slot;
+        frota.vincular(slot, this);
+    }
+
+    void revincular(Frota frota, int slot) {
+        this.frota = frota;
+        this.slot = slot;
     }
 
     public int getId() { return id; }
-    public double getCapacidadeKg() { return capacidadeKg; }
-    public double getAlcanceKm() { return alcanceKm; }
-    public double getX() { return posX; }
-    public void setX(double posX) { this.posX = posX; }
-    public double getY() { return posY; }
-    public void setY(double posY) { this.posY = posY; }
-    public double getBateria() { return bateriaPercent; }
-    public void consumirBateria(double valor) { bateriaPercent = Math.max(0, bateriaPercent - valor); }
+    public Frota getFrota() { return frota; }
+    public int getSlot() { return slot; }
+    public double getCapacidadeKg() { return frota.getCapacidadeKg(slot); }
+    public double getAlcanceKm() { return frota.getAlcanceKm(slot); }
+    public double getX() { return frota.estado().x[slot]; }
+    public void setX(double posX) { frota.estado().x[slot] = posX; }
+    public double getY() { return frota.estado().y[slot]; }
+    public void setY(double posY) { frota.estado().y[slot] = posY; }
+    public double getBateria() { return frota.estado().bateria[slot]; }
+    public void consumirBateria(double valor) {
+        double[] bateria = frota.estado().bateria;
+        bateria[slot] = Math.max(0, bateria[slot] - valor);
+    }
     public void recarregar() {
-        this.bateriaPercent = 100.0;
-        this.status = StatusDrone.IDLE;
-        this.currentPedido = null;
+        frota.estado().bateria[slot] = 100.0;
+        frota.setStatus(slot, StatusDrone.IDLE);
+        frota.setPedidoAtual(slot, null);
     }
     public void recarregarPosicao() {
-        this.posX = 0;
-        this.posY = 0;
+        frota.estado().x[slot] = 0;
+        frota.estado().y[slot] = 0;
     }
-    public StatusDrone getStatus() { return status; }
-    public void setStatus(StatusDrone status) { this.status = status; }
-    public Pedido getCurrentPedido() { return currentPedido; }
-    public void assignPedido(Pedido p) { this.currentPedido = p; p.setStatus(Enums.StatusPedido.ALOCADO); setStatus(StatusDrone.CARREGANDO);}
-    public void finishPedido() { this.currentPedido = null; } // O status será atualizado pelo motor de simulação (Engine)
+    public StatusDrone getStatus() { return frota.getStatus(slot); }
+    public void setStatus(StatusDrone status) { frota.setStatus(slot, status); }
+    public Pedido getCurrentPedido() { return frota.getPedidoAtual(slot); }
+    public void assignPedido(Pedido p) { frota.setPedidoAtual(slot, p); p.setStatus(Enums.StatusPedido.ALOCADO); setStatus(StatusDrone.CARREGANDO);}
+    public void finishPedido() { frota.setPedidoAtual(slot, null); } // O status será atualizado pelo motor de simulação (Engine)
 
     @Override
     public String toString() {
+        Pedido currentPedido = getCurrentPedido();
         return String.format("Drone{id=%d, cap=%.1fkg, alcance=%.1fkm, bateria=%.1f%%, estado=%s, pedido=%s}",
-                id, capacidadeKg, alcanceKm, bateriaPercent, status,
-                currentPedido != null ? currentPedido.getId().substring(0, 4) : "Nenhum");
+                id, getCapacidadeKg(), getAlcanceKm(), getBateria(), getStatus(),
+                currentPedido != null ? "#" + currentPedido.getId() : "Nenhum");
     }
 }
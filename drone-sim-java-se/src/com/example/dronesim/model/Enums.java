@@ -5,4 +5,8 @@ public class Enums {
     public enum StatusDrone { IDLE, EM_VOO, ENTREGANDO, RETORNANDO, CARREGANDO, RECARREGANDO, NAO_IDLE_ALOCADO }
     public enum StatusPedido { PENDENTE, ALOCADO, EM_ENTREGA, ENTREGUE, NAO_ATENDIDO }
     public enum Prioridade { BAIXA, MEDIA, ALTA }
+    // Estratégia de alocação: gulosa drone a drone ou rotas calculadas em paralelo (ForkJoin)
+    public enum ModoAlocacao { SEQUENCIAL, PARALELO }
+    // Motor da simulação no modo lote: técnico sequencial, eventos discretos ou ticks headless
+    public enum MotorSimulacao { TECNICO, EVENTOS, TICKS }
 }
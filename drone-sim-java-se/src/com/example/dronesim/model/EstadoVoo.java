@@ -0,0 +1,47 @@
+package com.example.dronesim.model;
+
+/**
+ * Estado de voo da frota em arrays primitivos (struct-of-arrays), indexado pelo slot do drone na Frota.
+ * Os motores de simulação leem e escrevem estes arrays diretamente, sem passar pelos objetos Drone.
+ * O status é guardado como o ordinal de {@link Enums.StatusDrone}.
+ */
+public class EstadoVoo {
+    public final double[] x;
+    public final double[] y;
+    public final double[] bateria;
+    public final byte[] status;
+    public final int[] cursorRota;
+
+    public EstadoVoo(int capacidade) {
+        this(new double[capacidade], new double[capacidade], new double[capacidade], new byte[capacidade], new int[capacidade]);
+    }
+
+    EstadoVoo(double[] x, double[] y, double[] bateria, byte[] status, int[] cursorRota) {
+        this.x = x;
+        this.y = y;
+        this.bateria = bateria;
+        this.status = status;
+        this.cursorRota = cursorRota;
+    }
+
+    public int capacidade() { return x.length; }
+
+    /** Copia o estado dos slots [de, ate) para outro buffer. */
+    public void copiarPara(EstadoVoo destino, int de, int ate) {
+        int n = ate - de;
+        System.arraycopy(x, de, destino.x, de, n);
+        System.arraycopy(y, de, destino.y, de, n);
+        System.arraycopy(bateria, de, destino.bateria, de, n);
+        System.arraycopy(status, de, destino.status, de, n);
+        System.arraycopy(cursorRota, de, destino.cursorRota, de, n);
+    }
+
+    /** Copia o estado de um slot para o slot 'para' de outro buffer (ou deste). */
+    public void copiarSlot(int de, EstadoVoo destino, int para) {
+        destino.x[para] = x[de];
+        destino.y[para] = y[de];
+        destino.bateria[para] = bateria[de];
+        destino.status[para] = status[de];
+        destino.cursorRota[para] = cursorRota[de];
+    }
+}
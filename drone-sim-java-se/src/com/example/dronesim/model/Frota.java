@@ -0,0 +1,125 @@
+package com.example.dronesim.model;
+
+import java.util.Arrays;
+
+/**
+ * Armazenamento da frota em arrays primitivos (struct-of-arrays).
+ * Cada drone ocupa um slot; o objeto {@link Drone} é apenas uma fachada sobre o seu slot,
+ * o que permite aos simuladores percorrer a frota de forma linear, sem boxing nem ponteiros.
+ */
+public class Frota {
+    private static final Enums.StatusDrone[] STATUS = Enums.StatusDrone.values();
+
+    private int tamanho = 0;
+    private int[] ids;
+    private double[] capacidadeKg;
+    private double[] alcanceKm;
+    private Pedido[] pedidoAtual;
+    private Drone[] drones;
+    private EstadoVoo voo;
+
+    public Frota() {
+        this(16);
+    }
+
+    public Frota(int capacidadeInicial) {
+        int cap = Math.max(1, capacidadeInicial);
+        ids = new int[cap];
+        capacidadeKg = new double[cap];
+        alcanceKm = new double[cap];
+        pedidoAtual = new Pedido[cap];
+        drones = new Drone[cap];
+        voo = new EstadoVoo(cap);
+    }
+
+    /**
+     * Cria um drone na frota (na posição dada, com 100% de bateria e IDLE) e retorna a sua fachada.
+     */
+    public Drone adicionar(double capacidadeKg, double alcanceKm, double posX, double posY) {
+        int i = reservarSlot(capacidadeKg, alcanceKm, posX, posY);
+        return new Drone(this, i);
+    }
+
+    /**
+     * Igual a adicionar, com o id dado (ex.: frota restaurada de um Checkpoint).
+     */
+    public Drone adicionar(int id, double capacidadeKg, double alcanceKm, double posX, double posY) {
+        int i = reservarSlot(capacidadeKg, alcanceKm, posX, posY);
+        return new Drone(this, i, id);
+    }
+
+    int reservarSlot(double capacidade, double alcance, double posX, double posY) {
+        if (tamanho == ids.length) crescer();
+        int i = tamanho++;
+        capacidadeKg[i] = capacidade;
+        alcanceKm[i] = alcance;
+        voo.x[i] = posX;
+        voo.y[i] = posY;
+        voo.bateria[i] = 100.0;
+        voo.status[i] = (byte) Enums.StatusDrone.IDLE.ordinal();
+        voo.cursorRota[i] = 0;
+        return i;
+    }
+
+    void vincular(int i, Drone drone) {
+        ids[i] = drone.getId();
+        drones[i] = drone;
+    }
+
+    /**
+     * Passa o drone para outra frota mantendo o objeto, o id e o estado de voo: ele ganha um slot no fim
+     * da frota de destino e o último slot desta frota ocupa o lugar que ficou vago. Os slots guardados
+     * fora da frota (ex.: PlanoCompacto) deixam de valer, então só com as duas frotas fora de simulação.
+     */
+    public void transferir(Drone d, Frota destino) {
+        if (d.getFrota() != this) throw new IllegalArgumentException("Drone #" + d.getId() + " não pertence a esta frota.");
+        int i = d.getSlot();
+        int j = destino.reservarSlot(capacidadeKg[i], alcanceKm[i], voo.x[i], voo.y[i]);
+        voo.copiarSlot(i, destino.voo, j);
+        destino.pedidoAtual[j] = pedidoAtual[i];
+        d.revincular(destino, j);
+        destino.vincular(j, d);
+
+        int ultimo = --tamanho;
+        if (i != ultimo) {
+            ids[i] = ids[ultimo];
+            capacidadeKg[i] = capacidadeKg[ultimo];
+            alcanceKm[i] = alcanceKm[ultimo];
+            pedidoAtual[i] = pedidoAtual[ultimo];
+            drones[i] = drones[ultimo];
+            voo.copiarSlot(ultimo, voo, i);
+            drones[i].revincular(this, i);
+        }
+        pedidoAtual[ultimo] = null;
+        drones[ultimo] = null;
+    }
+
+    private void crescer() {
+        int nova = ids.length * 2;
+        ids = Arrays.copyOf(ids, nova);
+        capacidadeKg = Arrays.copyOf(capacidadeKg, nova);
+        alcanceKm = Arrays.copyOf(alcanceKm, nova);
+        pedidoAtual = Arrays.copyOf(pedidoAtual, nova);
+        drones = Arrays.copyOf(drones, nova);
+        EstadoVoo novo = new EstadoVoo(nova);
+        voo.copiarPara(novo, 0, tamanho);
+        voo = novo;
+    }
+
+    public int tamanho() { return tamanho; }
+
+    /**
+     * Arrays de estado de voo da frota. A referência muda quando a frota cresce,
+     * então deve ser obtida de novo depois de adicionar drones.
+     */
+    public EstadoVoo estado() { return voo; }
+
+    public Drone drone(int i) { return drones[i]; }
+    public int getId(int i) { return ids[i]; }
+    public double getCapacidadeKg(int i) { return capacidadeKg[i]; }
+    public double getAlcanceKm(int i) { return alcanceKm[i]; }
+    public Enums.StatusDrone getStatus(int i) { return STATUS[voo.status[i]]; }
+    public void setStatus(int i, Enums.StatusDrone status) { voo.status[i] = (byte) status.ordinal(); }
+    public Pedido getPedidoAtual(int i) { return pedidoAtual[i]; }
+    public void setPedidoAtual(int i, Pedido p) { pedidoAtual[i] = p; }
+}
@@ -1,9 +1,9 @@
 package com.example.dronesim.model;
 
-import java.util.UUID;
+import com.example.dronesim.util.GeradorIds;
 
 public class Pedido {
-    private final UUID id;
+    private final long id; // Sequencial de 64 bits (ver GeradorIds)
     private final double x;
     private final double y;
     private final double pesoKg;
@@ -12,16 +12,30 @@ public class Pedido {
     private final long dataChegadaTimestamp; // Novo: para fila de prioridade (FIFO)
 
     public Pedido(double x, double y, double pesoKg, Enums.Prioridade prioridade) {
-        this.id = UUID.randomUUID();
+        this(GeradorIds.PEDIDOS.proximo(), x, y, pesoKg, prioridade);
+    }
+
+    /**
+     * Pedido com id já definido (ex.: vindo de uma faixa reservada em GeradorIds por um produtor).
+     */
+    public Pedido(long id, double x, double y, double pesoKg, Enums.Prioridade prioridade) {
+        this(id, x, y, pesoKg, prioridade, System.currentTimeMillis());
+    }
+
+    /**
+     * Pedido restaurado (ex.: de um Checkpoint), com o instante de chegada original.
+     */
+    public Pedido(long id, double x, double y, double pesoKg, Enums.Prioridade prioridade, long dataChegadaTimestamp) {
+        this.id = id;
         this.x = x;
         this.y = y;
         this.pesoKg = pesoKg;
         this.prioridade = prioridade;
         this.status = Enums.StatusPedido.PENDENTE;
-        this.dataChegadaTimestamp = System.currentTimeMillis();
+        this.dataChegadaTimestamp = dataChegadaTimestamp;
     }
 
-    public String getId() { return id.toString(); }
+    public long getId() { return id; }
     public double getX() { return x; }
     public double getY() { return y; }
     public double getPesoKg() { return pesoKg; }
@@ -32,6 +46,6 @@ public class Pedido {
 
     @Override
     public String toString() {
-        return String.format("Pedido[%s] (x=%.2f,y=%.2f, peso=%.2fkg, prioridade=%s, status=%s)", getId(), x, y, pesoKg, prioridade, status);
+        return String.format("Pedido[%d] (x=%.2f,y=%.2f, peso=%.2fkg, prioridade=%s, status=%s)", id, x, y, pesoKg, prioridade, status);
     }
 }
@@ -0,0 +1,260 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.util.GeradorIds;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Carga de cenários (frota + pedidos) a partir de arquivos, direto no DroneService e sem uma mensagem
+ * por pedido.
+ *
+ * <p>CSV (troca de dados), uma linha por registro; linhas vazias ou começando com '#' são ignoradas:
+ * <pre>
+ * drone,capacidadeKg,alcanceKm[,x,y]
+ * pedido,x,y,pesoKg,prioridade        (prioridade: BAIXA, MEDIA ou ALTA)
+ * </pre>
+ *
+ * <p>Binário colunar (carga rápida), big-endian, lido por arquivos mapeados em memória (FileChannel.map):
+ * <pre>
+ * int MAGICO, int VERSAO, int drones (n), int pedidos (m)
+ * double[n] capacidadeKg | double[n] alcanceKm | double[n] x | double[n] y
+ * double[m] x | double[m] y | double[m] pesoKg | byte[m] prioridade (ordinal)
+ * </pre>
+ * Os ids dos pedidos não são gravados: cada carga reserva uma faixa nova em GeradorIds.PEDIDOS.
+ */
+public class CarregadorCenario {
+    static final int MAGICO = 0x44524F4E; // "DRON"
+    static final int VERSAO = 1;
+    static final int CABECALHO_BYTES = 16;
+
+    // Pedidos entram no serviço em lotes (não é preciso montar uma lista com o arquivo inteiro)
+    private static final int LOTE = 1 << 16;
+    private static final int BUFFER_ESCRITA = 1 << 20;
+    private static final Enums.Prioridade[] PRIORIDADES = Enums.Prioridade.values();
+
+    private final DroneService service;
+
+    public CarregadorCenario(DroneService service) {
+        this.service = service;
+    }
+
+    public static class Resumo {
+        public int drones;
+        public int pedidos;
+        public long rejeitados;
+        public double segundos;
+
+        @Override
+        public String toString() {
+            return String.format("Cenário: %d drones, %d pedidos (%d rejeitados por peso) em %.2fs",
+                    drones, pedidos, rejeitados, segundos);
+        }
+    }
+
+    /** Carrega .bin no formato colunar; qualquer outra extensão é lida como CSV. */
+    public Resumo carregar(Path arquivo) throws IOException {
+        return arquivo.toString().toLowerCase(Locale.ROOT).endsWith(".bin") ? carregarBinario(arquivo) : carregarCsv(arquivo);
+    }
+
+    public Resumo carregarCsv(Path arquivo) throws IOException {
+        long inicioNs = System.nanoTime();
+        Resumo resumo = new Resumo();
+        List<Pedido> lote = new ArrayList<>(LOTE);
+        GeradorIds.Faixa ids = null;
+        long lidos = 0;
+
+        try (BufferedReader in = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String linha;
+            int numero = 0;
+            double[] campos = new double[4];
+            while ((linha = in.readLine()) != null) {
+                numero++;
+                linha = linha.trim();
+                if (linha.isEmpty() || linha.charAt(0) == '#') continue;
+                int virgula = linha.indexOf(',');
+                try {
+                    if (virgula < 0) throw new IllegalArgumentException("registro sem campos");
+                    String tipo = linha.substring(0, virgula).trim();
+                    if (tipo.equalsIgnoreCase("drone")) {
+                        int n = lerNumeros(linha, virgula + 1, campos, 4);
+                        if (n != 2 && n != 4) throw new IllegalArgumentException("esperado drone,capacidadeKg,alcanceKm[,x,y]");
+                        service.criarDrone(campos[0], campos[1], n == 4 ? campos[2] : 0, n == 4 ? campos[3] : 0);
+                        resumo.drones++;
+                    } else if (tipo.equalsIgnoreCase("pedido")) {
+                        int ultima = linha.lastIndexOf(',');
+                        if (lerNumeros(linha, virgula + 1, ultima, campos, 3) != 3) {
+                            throw new IllegalArgumentException("esperado pedido,x,y,pesoKg,prioridade");
+                        }
+                        Enums.Prioridade prioridade = Enums.Prioridade.valueOf(linha.substring(ultima + 1).trim().toUpperCase(Locale.ROOT));
+                        if (ids == null || !ids.temProximo()) ids = GeradorIds.PEDIDOS.reservar(LOTE);
+                        lote.add(new Pedido(ids.proximo(), campos[0], campos[1], campos[2], prioridade));
+                        lidos++;
+                        if (lote.size() == LOTE) {
+                            resumo.pedidos += service.importarPedidos(lote);
+                            lote.clear();
+                        }
+                    } else {
+                        throw new IllegalArgumentException("tipo de registro desconhecido '" + tipo + "'");
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(arquivo + ", linha " + numero + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        resumo.pedidos += service.importarPedidos(lote);
+        resumo.rejeitados = lidos - resumo.pedidos;
+        return concluir(resumo, inicioNs);
+    }
+
+    public Resumo carregarBinario(Path arquivo) throws IOException {
+        long inicioNs = System.nanoTime();
+        Resumo resumo = new Resumo();
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (canal.size() < CABECALHO_BYTES) throw new IOException("Arquivo de cenário inválido: " + arquivo);
+            ByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECALHO_BYTES);
+            if (cabecalho.getInt() != MAGICO) throw new IOException("Arquivo não é um cenário binário: " + arquivo);
+            int versao = cabecalho.getInt();
+            if (versao != VERSAO) throw new IOException("Versão de cenário não suportada: " + versao);
+            int nDrones = cabecalho.getInt();
+            int nPedidos = cabecalho.getInt();
+            if (nDrones < 0 || nPedidos < 0 || canal.size() != tamanhoArquivo(nDrones, nPedidos)) {
+                throw new IOException("Arquivo de cenário truncado ou corrompido: " + arquivo);
+            }
+
+            // Uma região mapeada por coluna: cada uma fica abaixo do limite de 2 GB de um MappedByteBuffer
+            long pos = CABECALHO_BYTES;
+            DoubleBuffer capacidade = colunaDouble(canal, pos, nDrones);
+            DoubleBuffer alcance = colunaDouble(canal, pos += 8L * nDrones, nDrones);
+            DoubleBuffer dx = colunaDouble(canal, pos += 8L * nDrones, nDrones);
+            DoubleBuffer dy = colunaDouble(canal, pos += 8L * nDrones, nDrones);
+            for (int i = 0; i < nDrones; i++) {
+                service.criarDrone(capacidade.get(i), alcance.get(i), dx.get(i), dy.get(i));
+            }
+            resumo.drones = nDrones;
+
+            DoubleBuffer px = colunaDouble(canal, pos += 8L * nDrones, nPedidos);
+            DoubleBuffer py = colunaDouble(canal, pos += 8L * nPedidos, nPedidos);
+            DoubleBuffer peso = colunaDouble(canal, pos += 8L * nPedidos, nPedidos);
+            ByteBuffer prioridade = canal.map(FileChannel.MapMode.READ_ONLY, pos += 8L * nPedidos, nPedidos);
+
+            GeradorIds.Faixa ids = nPedidos > 0 ? GeradorIds.PEDIDOS.reservar(nPedidos) : null;
+            service.reservarPedidos(nPedidos);
+            List<Pedido> lote = new ArrayList<>(Math.min(LOTE, nPedidos));
+            for (int inicio = 0; inicio < nPedidos; inicio += LOTE) {
+                int fim = Math.min(nPedidos, inicio + LOTE);
+                for (int i = inicio; i < fim; i++) {
+                    int ordinal = prioridade.get(i);
+                    if (ordinal < 0 || ordinal >= PRIORIDADES.length) {
+                        throw new IOException("Prioridade inválida (" + ordinal + ") no pedido " + i + ": " + arquivo);
+                    }
+                    lote.add(new Pedido(ids.proximo(), px.get(i), py.get(i), peso.get(i), PRIORIDADES[ordinal]));
+                }
+                resumo.pedidos += service.importarPedidos(lote);
+                lote.clear();
+            }
+            resumo.rejeitados = nPedidos - resumo.pedidos;
+        }
+        return concluir(resumo, inicioNs);
+    }
+
+    /**
+     * Grava a frota e todos os pedidos do serviço no formato binário colunar (status e ids não são gravados).
+     */
+    public void gravarBinario(Path arquivo) throws IOException {
+        List<Drone> drones = service.listarDrones();
+        List<Pedido> pedidos = service.listarPedidos();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_ESCRITA);
+            buf.putInt(MAGICO).putInt(VERSAO).putInt(drones.size()).putInt(pedidos.size());
+            escreverColuna(canal, buf, drones, Drone::getCapacidadeKg);
+            escreverColuna(canal, buf, drones, Drone::getAlcanceKm);
+            escreverColuna(canal, buf, drones, Drone::getX);
+            escreverColuna(canal, buf, drones, Drone::getY);
+            escreverColuna(canal, buf, pedidos, Pedido::getX);
+            escreverColuna(canal, buf, pedidos, Pedido::getY);
+            escreverColuna(canal, buf, pedidos, Pedido::getPesoKg);
+            for (Pedido p : pedidos) {
+                if (!buf.hasRemaining()) descarregar(canal, buf);
+                buf.put((byte) p.getPrioridade().ordinal());
+            }
+            descarregar(canal, buf);
+        }
+    }
+
+    /**
+     * Converte um cenário CSV para o formato binário (passando por um serviço vazio e silencioso).
+     */
+    public static Resumo converterCsvParaBinario(Path csv, Path bin) throws IOException {
+        DroneService temporario = new DroneService(false);
+        temporario.setSinkEventos(SinkEventos.SILENCIOSO);
+        CarregadorCenario carregador = new CarregadorCenario(temporario);
+        Resumo resumo = carregador.carregarCsv(csv);
+        carregador.gravarBinario(bin);
+        return resumo;
+    }
+
+    static long tamanhoArquivo(int drones, int pedidos) {
+        return CABECALHO_BYTES + 32L * drones + 25L * pedidos;
+    }
+
+    private Resumo concluir(Resumo resumo, long inicioNs) {
+        resumo.segundos = (System.nanoTime() - inicioNs) / 1e9;
+        service.getSinkEventos().publicar(EventoSimulacao.Tipo.CENARIO_CARREGADO, 0, null,
+                resumo.drones, resumo.pedidos, resumo.rejeitados);
+        return resumo;
+    }
+
+    private static DoubleBuffer colunaDouble(FileChannel canal, long pos, int n) throws IOException {
+        return canal.map(FileChannel.MapMode.READ_ONLY, pos, 8L * n).asDoubleBuffer();
+    }
+
+    private static <T> void escreverColuna(FileChannel canal, ByteBuffer buf, List<T> itens, ToDoubleFunction<T> valor)
+            throws IOException {
+        for (T item : itens) {
+            if (buf.remaining() < Double.BYTES) descarregar(canal, buf);
+            buf.putDouble(valor.applyAsDouble(item));
+        }
+    }
+
+    private static void descarregar(FileChannel canal, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) canal.write(buf);
+        buf.clear();
+    }
+
+    private static int lerNumeros(String linha, int de, double[] destino, int max) {
+        return lerNumeros(linha, de, linha.length(), destino, max);
+    }
+
+    /**
+     * Lê os números separados por vírgula em linha[de, ate) para 'destino'. Retorna quantos leu.
+     */
+    private static int lerNumeros(String linha, int de, int ate, double[] destino, int max) {
+        int n = 0;
+        while (de <= ate) {
+            int virgula = linha.indexOf(',', de);
+            int fim = virgula < 0 || virgula > ate ? ate : virgula;
+            if (n == max) return max + 1;
+            destino[n++] = Double.parseDouble(linha.substring(de, fim).trim());
+            de = fim + 1;
+        }
+        return n;
+    }
+}
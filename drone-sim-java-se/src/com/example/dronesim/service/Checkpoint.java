@@ -0,0 +1,322 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.EstadoVoo;
+import com.example.dronesim.model.Frota;
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.util.GeradorIds;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkpoint do estado completo de um DroneService: frota (com bateria, status, posição e cursor de rota de
+ * cada drone), todos os pedidos com status e ids, a ordem de atendimento dos pendentes, as rotas atribuídas
+ * e o relógio da simulação. Diferente do cenário binário (CarregadorCenario), que só guarda a entrada,
+ * o checkpoint volta exatamente ao ponto salvo, sem reprocessar nada.
+ *
+ * <p>Binário colunar, big-endian; a gravação passa por um FileChannel (num arquivo temporário trocado
+ * pelo definitivo só no fim, então um checkpoint pela metade nunca substitui o anterior) e a
+ * restauração lê as colunas mapeadas em memória:
+ * <pre>
+ * int MAGICO, int VERSAO, int drones (n), int pedidos (m), int pendentes (q), int paradas (r), double relogio,
+ * long marcaDiario
+ * int[n] id | double[n] capacidadeKg | alcanceKm | x | y | bateria | byte[n] status | int[n] cursorRota
+ * int[n] pedidoAtual (índice do pedido ou -1) | int[n] paradas da rota
+ * long[m] id | double[m] x | y | pesoKg | long[m] chegada | byte[m] prioridade | byte[m] status
+ * int[q] pendentes em ordem de atendimento (índices) | int[r] rotas dos drones, em sequência (índices)
+ * </pre>
+ */
+public class Checkpoint {
+    static final int MAGICO = 0x53494D43; // "SIMC"
+    static final int VERSAO = 2;
+    static final int CABECALHO_BYTES = 40;
+
+    private static final int BUFFER_ESCRITA = 1 << 20;
+    private static final Enums.Prioridade[] PRIORIDADES = Enums.Prioridade.values();
+    private static final Enums.StatusPedido[] STATUS_PEDIDO = Enums.StatusPedido.values();
+    private static final int STATUS_DRONE = Enums.StatusDrone.values().length;
+
+    private final DroneService service;
+
+    public Checkpoint(DroneService service) {
+        this.service = service;
+    }
+
+    public static class Resumo {
+        public int drones;
+        public int pedidos;
+        public int pendentes;
+        public int paradas;
+        public double relogio;
+        public long marcaDiario;
+        public long bytes;
+        public double segundos;
+
+        @Override
+        public String toString() {
+            return String.format("Checkpoint: %d drones, %d pedidos (%d pendentes, %d em rotas), relógio %.2f, %d bytes em %.3fs",
+                    drones, pedidos, pendentes, paradas, relogio, bytes, segundos);
+        }
+    }
+
+    /**
+     * Grava o estado do serviço e o relógio da simulação (na unidade de quem chama, ex.: km ou ticks).
+     * Com a simulação parada, na thread dona do serviço.
+     */
+    public Resumo gravar(Path arquivo, double relogio) throws IOException {
+        return gravar(arquivo, relogio, 0);
+    }
+
+    /**
+     * Igual a gravar(arquivo, relogio), guardando também quantos eventos do DiarioEventos o estado já
+     * contém (a reprodução do diário sobre este checkpoint pula esses eventos).
+     */
+    public Resumo gravar(Path arquivo, double relogio, long marcaDiario) throws IOException {
+        long inicioNs = System.nanoTime();
+        List<Drone> drones = service.listarDrones();
+        List<Pedido> pedidos = service.listarPedidos();
+        List<Pedido> pendentes = service.pendentesEmOrdem();
+        Map<Pedido, Integer> indice = new IdentityHashMap<>(pedidos.size() * 2);
+        for (int i = 0; i < pedidos.size(); i++) indice.put(pedidos.get(i), i);
+        List<List<Pedido>> rotas = new ArrayList<>(drones.size());
+        int paradas = 0;
+        for (Drone d : drones) {
+            List<Pedido> rota = service.getPedidosDoDrone(d);
+            rotas.add(rota);
+            paradas += rota.size();
+        }
+
+        Resumo resumo = new Resumo();
+        resumo.drones = drones.size();
+        resumo.pedidos = pedidos.size();
+        resumo.pendentes = pendentes.size();
+        resumo.paradas = paradas;
+        resumo.relogio = relogio;
+        resumo.marcaDiario = marcaDiario;
+        resumo.bytes = tamanhoArquivo(drones.size(), pedidos.size(), pendentes.size(), paradas);
+
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Escritor out = new Escritor(canal);
+            out.putInt(MAGICO).putInt(VERSAO).putInt(drones.size()).putInt(pedidos.size())
+                    .putInt(pendentes.size()).putInt(paradas).putDouble(relogio)
+                    .putLong(marcaDiario);
+
+            for (Drone d : drones) out.putInt(d.getId());
+            for (Drone d : drones) out.putDouble(d.getCapacidadeKg());
+            for (Drone d : drones) out.putDouble(d.getAlcanceKm());
+            for (Drone d : drones) out.putDouble(d.getX());
+            for (Drone d : drones) out.putDouble(d.getY());
+            for (Drone d : drones) out.putDouble(d.getBateria());
+            for (Drone d : drones) out.put((byte) d.getStatus().ordinal());
+            for (Drone d : drones) out.putInt(d.getFrota().estado().cursorRota[d.getSlot()]);
+            for (Drone d : drones) out.putInt(d.getCurrentPedido() == null ? -1 : indiceDe(indice, d.getCurrentPedido()));
+            for (List<Pedido> rota : rotas) out.putInt(rota.size());
+
+            for (Pedido p : pedidos) out.putLong(p.getId());
+            for (Pedido p : pedidos) out.putDouble(p.getX());
+            for (Pedido p : pedidos) out.putDouble(p.getY());
+            for (Pedido p : pedidos) out.putDouble(p.getPesoKg());
+            for (Pedido p : pedidos) out.putLong(p.getDataChegadaTimestamp());
+            for (Pedido p : pedidos) out.put((byte) p.getPrioridade().ordinal());
+            for (Pedido p : pedidos) out.put((byte) p.getStatus().ordinal());
+
+            for (Pedido p : pendentes) out.putInt(indiceDe(indice, p));
+            for (List<Pedido> rota : rotas) {
+                for (Pedido p : rota) out.putInt(indiceDe(indice, p));
+            }
+            out.descarregar();
+            canal.force(true);
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        resumo.segundos = (System.nanoTime() - inicioNs) / 1e9;
+        return resumo;
+    }
+
+    /**
+     * Restaura um checkpoint num serviço sem drones e sem pedidos (ex.: new DroneService(false)). Os drones e
+     * os pedidos voltam com os ids salvos, e os próximos ids gerados ficam acima deles. O relógio salvo
+     * vem no resumo.
+     */
+    public Resumo restaurar(Path arquivo) throws IOException {
+        long inicioNs = System.nanoTime();
+        if (!service.listarDrones().isEmpty() || !service.listarPedidos().isEmpty()) {
+            throw new IllegalStateException("Checkpoint só pode ser restaurado num serviço vazio.");
+        }
+        Resumo resumo = new Resumo();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (canal.size() < CABECALHO_BYTES) throw new IOException("Arquivo de checkpoint inválido: " + arquivo);
+            ByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECALHO_BYTES);
+            if (cabecalho.getInt() != MAGICO) throw new IOException("Arquivo não é um checkpoint: " + arquivo);
+            int versao = cabecalho.getInt();
+            if (versao != VERSAO) throw new IOException("Versão de checkpoint não suportada: " + versao);
+            int n = cabecalho.getInt(), m = cabecalho.getInt(), q = cabecalho.getInt(), r = cabecalho.getInt();
+            double relogio = cabecalho.getDouble();
+            long marcaDiario = cabecalho.getLong();
+            if (n < 0 || m < 0 || q < 0 || r < 0 || canal.size() != tamanhoArquivo(n, m, q, r)) {
+                throw new IOException("Arquivo de checkpoint truncado ou corrompido: " + arquivo);
+            }
+
+            // Uma região mapeada por coluna: cada uma fica abaixo do limite de 2 GB de um MappedByteBuffer
+            long pos = CABECALHO_BYTES;
+            IntBuffer droneId = colunaInt(canal, pos, n);
+            DoubleBuffer capacidade = colunaDouble(canal, pos += 4L * n, n);
+            DoubleBuffer alcance = colunaDouble(canal, pos += 8L * n, n);
+            DoubleBuffer dx = colunaDouble(canal, pos += 8L * n, n);
+            DoubleBuffer dy = colunaDouble(canal, pos += 8L * n, n);
+            DoubleBuffer bateria = colunaDouble(canal, pos += 8L * n, n);
+            ByteBuffer statusDrone = canal.map(FileChannel.MapMode.READ_ONLY, pos += 8L * n, n);
+            IntBuffer cursor = colunaInt(canal, pos += n, n);
+            IntBuffer pedidoAtual = colunaInt(canal, pos += 4L * n, n);
+            IntBuffer tamanhoRota = colunaInt(canal, pos += 4L * n, n);
+
+            LongBuffer id = colunaLong(canal, pos += 4L * n, m);
+            DoubleBuffer px = colunaDouble(canal, pos += 8L * m, m);
+            DoubleBuffer py = colunaDouble(canal, pos += 8L * m, m);
+            DoubleBuffer peso = colunaDouble(canal, pos += 8L * m, m);
+            LongBuffer chegada = colunaLong(canal, pos += 8L * m, m);
+            ByteBuffer prioridade = canal.map(FileChannel.MapMode.READ_ONLY, pos += 8L * m, m);
+            ByteBuffer status = canal.map(FileChannel.MapMode.READ_ONLY, pos += m, m);
+            IntBuffer pendentes = colunaInt(canal, pos += m, q);
+            IntBuffer paradas = colunaInt(canal, pos += 4L * q, r);
+
+            Pedido[] pedidos = new Pedido[m];
+            long maiorId = 0;
+            for (int i = 0; i < m; i++) {
+                Pedido p = new Pedido(id.get(i), px.get(i), py.get(i), peso.get(i),
+                        PRIORIDADES[ordinal(prioridade.get(i), PRIORIDADES.length, "prioridade", i, arquivo)],
+                        chegada.get(i));
+                p.setStatus(STATUS_PEDIDO[ordinal(status.get(i), STATUS_PEDIDO.length, "status", i, arquivo)]);
+                pedidos[i] = p;
+                maiorId = Math.max(maiorId, p.getId());
+            }
+            GeradorIds.PEDIDOS.avancarAlem(maiorId);
+
+            List<Pedido> filaPendentes = new ArrayList<>(q);
+            for (int k = 0; k < q; k++) filaPendentes.add(pedidos[indice(pendentes.get(k), m, arquivo)]);
+
+            Frota frota = service.getFrota();
+            Map<Drone, List<Pedido>> rotas = new LinkedHashMap<>();
+            int parada = 0;
+            for (int i = 0; i < n; i++) {
+                Drone d = service.restaurarDrone(droneId.get(i), capacidade.get(i), alcance.get(i), dx.get(i), dy.get(i));
+                EstadoVoo estado = frota.estado();
+                estado.bateria[d.getSlot()] = bateria.get(i);
+                estado.status[d.getSlot()] = (byte) ordinal(statusDrone.get(i), STATUS_DRONE, "status do drone", i, arquivo);
+                estado.cursorRota[d.getSlot()] = cursor.get(i);
+                int atual = pedidoAtual.get(i);
+                if (atual >= 0) frota.setPedidoAtual(d.getSlot(), pedidos[indice(atual, m, arquivo)]);
+                int tamanho = tamanhoRota.get(i);
+                if (tamanho < 0 || parada + tamanho > r) throw new IOException("Rotas inconsistentes no checkpoint: " + arquivo);
+                if (tamanho == 0) continue;
+                List<Pedido> rota = new ArrayList<>(tamanho);
+                for (int k = 0; k < tamanho; k++) rota.add(pedidos[indice(paradas.get(parada++), m, arquivo)]);
+                rotas.put(d, rota);
+            }
+            service.restaurar(Arrays.asList(pedidos), filaPendentes, rotas);
+
+            resumo.drones = n;
+            resumo.pedidos = m;
+            resumo.pendentes = q;
+            resumo.paradas = r;
+            resumo.relogio = relogio;
+            resumo.marcaDiario = marcaDiario;
+            resumo.bytes = canal.size();
+        }
+        resumo.segundos = (System.nanoTime() - inicioNs) / 1e9;
+        return resumo;
+    }
+
+    static long tamanhoArquivo(int drones, int pedidos, int pendentes, int paradas) {
+        return CABECALHO_BYTES + 57L * drones + 42L * pedidos + 4L * pendentes + 4L * paradas;
+    }
+
+    private static int indiceDe(Map<Pedido, Integer> indice, Pedido p) {
+        Integer i = indice.get(p);
+        if (i == null) throw new IllegalStateException("Pedido em rota fora da lista do serviço: " + p);
+        return i;
+    }
+
+    private static int indice(int i, int pedidos, Path arquivo) throws IOException {
+        if (i < 0 || i >= pedidos) throw new IOException("Índice de pedido inválido (" + i + ") no checkpoint: " + arquivo);
+        return i;
+    }
+
+    private static int ordinal(byte valor, int limite, String campo, int i, Path arquivo) throws IOException {
+        if (valor < 0 || valor >= limite) throw new IOException("Valor inválido de " + campo + " (" + valor + ") no item " + i + ": " + arquivo);
+        return valor;
+    }
+
+    private static DoubleBuffer colunaDouble(FileChannel canal, long pos, int n) throws IOException {
+        return canal.map(FileChannel.MapMode.READ_ONLY, pos, 8L * n).asDoubleBuffer();
+    }
+
+    private static LongBuffer colunaLong(FileChannel canal, long pos, int n) throws IOException {
+        return canal.map(FileChannel.MapMode.READ_ONLY, pos, 8L * n).asLongBuffer();
+    }
+
+    private static IntBuffer colunaInt(FileChannel canal, long pos, int n) throws IOException {
+        return canal.map(FileChannel.MapMode.READ_ONLY, pos, 4L * n).asIntBuffer();
+    }
+
+    /** Buffer direto de escrita que se esvazia no canal quando enche. */
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_ESCRITA);
+
+        Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        Escritor put(byte v) throws IOException {
+            garantir(Byte.BYTES);
+            buf.put(v);
+            return this;
+        }
+
+        Escritor putInt(int v) throws IOException {
+            garantir(Integer.BYTES);
+            buf.putInt(v);
+            return this;
+        }
+
+        Escritor putLong(long v) throws IOException {
+            garantir(Long.BYTES);
+            buf.putLong(v);
+            return this;
+        }
+
+        Escritor putDouble(double v) throws IOException {
+            garantir(Double.BYTES);
+            buf.putDouble(v);
+            return this;
+        }
+
+        private void garantir(int bytes) throws IOException {
+            if (buf.remaining() < bytes) descarregar();
+        }
+
+        void descarregar() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) canal.write(buf);
+            buf.clear();
+        }
+    }
+}
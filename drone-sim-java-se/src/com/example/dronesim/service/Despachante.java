@@ -0,0 +1,67 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Pedido;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Despacho em lotes dos pedidos que chegam enquanto a simulação roda.
+ * Os produtores (qualquer número de threads) só chamam DroneService.criarPedido(), que enfileira sem
+ * locks; o motor de simulação, entre dois ticks, pede ao despachante que drene a fila e aloque os
+ * pendentes aos drones que estão livres na base. Ninguém para o mundo para receber pedidos.
+ */
+public class Despachante {
+    private final DroneService service;
+    private final int intervaloTicks;
+    private volatile boolean entradaAberta = true;
+
+    private long lotes;
+    private long pedidosDespachados;
+
+    public Despachante(DroneService service, int intervaloTicks) {
+        if (intervaloTicks <= 0) throw new IllegalArgumentException("Intervalo de despacho deve ser positivo.");
+        this.service = service;
+        this.intervaloTicks = intervaloTicks;
+    }
+
+    /**
+     * Avisa que não virão mais pedidos: a simulação termina quando os drones e a fila esvaziarem.
+     */
+    public void fecharEntrada() {
+        entradaAberta = false;
+    }
+
+    public boolean isEntradaAberta() {
+        return entradaAberta;
+    }
+
+    /** A simulação deve continuar rodando à espera de pedidos? */
+    public boolean aguardando() {
+        return entradaAberta || service.temPedidosNaEntrada();
+    }
+
+    /**
+     * Se vale a pena despachar neste tick: a cada intervaloTicks, ou já se a frota está parada,
+     * e só quando existe algo na fila ou pendente.
+     */
+    public boolean deveDespachar(long tick, boolean frotaAtiva) {
+        if (frotaAtiva && tick % intervaloTicks != 0) return false;
+        return service.temPedidosNaEntrada() || service.quantidadePendentes() > 0;
+    }
+
+    /**
+     * Drena a fila e aloca os pendentes aos drones livres. Retorna só as rotas novas.
+     * Deve ser chamado pela thread da simulação (a dona do DroneService).
+     */
+    public Map<Drone, List<Pedido>> despachar(List<Drone> livres) {
+        Map<Drone, List<Pedido>> novas = service.alocarPendentes(livres);
+        lotes++;
+        for (List<Pedido> rota : novas.values()) pedidosDespachados += rota.size();
+        return novas;
+    }
+
+    public long getLotes() { return lotes; }
+    public long getPedidosDespachados() { return pedidosDespachados; }
+}
@@ -0,0 +1,310 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.util.GeoUtils;
+import com.example.dronesim.util.GeradorIds;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Despacho por regiões: o mapa é dividido entre várias bases, cada uma com a sua frota, os seus pendentes
+ * e o seu DroneService, e o planejamento em ondas de cada região roda numa tarefa própria do pool.
+ * Cada pedido vai para a região da base mais próxima, e cada serviço trabalha em coordenadas locais, com
+ * a própria base em (0,0): nada dentro de DroneService precisa saber que existem outras regiões.
+ *
+ * <p>Entre dois ciclos, com todos os serviços parados, o despacho faz na thread de quem chama:
+ * <ul>
+ *   <li>Rebalanceamento: cada região tem direito a uma parte da frota proporcional aos seus pendentes.
+ *   Regiões acima do teto dessa parte cedem drones às que estão abaixo do piso (a folga entre piso e teto
+ *   evita que um drone fique indo e voltando). Só vai um drone com alcance para voar entre as duas bases.</li>
+ *   <li>Repasse de fronteira: o que a região dona não atendeu no ciclo passa para a região vizinha (a da
+ *   segunda base mais próxima), se algum drone de lá consegue levar o pedido. NAO_ATENDIDO (nenhum drone
+ *   da dona leva) é repassado de qualquer ponto; PENDENTE (sobrou pelo horizonte) só a menos de
+ *   margemFronteiraKm da fronteira. Só a dona repassa, então um pedido muda de região no máximo uma vez.</li>
+ * </ul>
+ * Durante o planejamento as regiões não compartilham nada, então o ciclo escala com o número de regiões
+ * até o número de threads do pool.
+ */
+public class DespachoRegional {
+    private final List<Regiao> regioes = new ArrayList<>();
+    private final double margemFronteiraKm;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private ResultadoCiclo ultimoResultado;
+
+    public DespachoRegional(double margemFronteiraKm) {
+        if (margemFronteiraKm < 0) throw new IllegalArgumentException("Margem de fronteira negativa: " + margemFronteiraKm);
+        this.margemFronteiraKm = margemFronteiraKm;
+    }
+
+    /** Uma base com a sua frota e o seu serviço (em coordenadas locais: a base fica em 0,0). */
+    public static final class Regiao {
+        private final int indice;
+        private final double baseX;
+        private final double baseY;
+        private final DroneService servico = new DroneService(false);
+        private PlanoOndas ultimoPlano;
+
+        private Regiao(int indice, double baseX, double baseY) {
+            this.indice = indice;
+            this.baseX = baseX;
+            this.baseY = baseY;
+        }
+
+        public int getIndice() { return indice; }
+        public double getBaseX() { return baseX; }
+        public double getBaseY() { return baseY; }
+        public DroneService getServico() { return servico; }
+        public PlanoOndas getUltimoPlano() { return ultimoPlano; }
+
+        /** Coordenadas globais de um pedido desta região. */
+        public double globalX(Pedido p) { return baseX + p.getX(); }
+        public double globalY(Pedido p) { return baseY + p.getY(); }
+
+        @Override
+        public String toString() {
+            return String.format("Região %d (base %.1f, %.1f)", indice, baseX, baseY);
+        }
+    }
+
+    /** Totais de um ciclo de planejamento das regiões. */
+    public static class ResultadoCiclo {
+        // Plano de cada região, na ordem de getRegioes()
+        public final List<PlanoOndas> planos = new ArrayList<>();
+        public int pedidosAlocados;
+        public int viagens;
+        public int naoAtendidos;
+        public int pedidosRepassados;
+        public int dronesRemanejados;
+        public double kmRemanejamento;
+        // O maior makespan entre as regiões
+        public double makespan;
+        public double planejamentoMs;
+        public double duracaoMs;
+
+        @Override
+        public String toString() {
+            return String.format("=== CICLO REGIONAL (%d regiões) ===%n" +
+                            "Pedidos alocados: %d em %d viagens | Não atendidos: %d | Makespan: %.2fkm%n" +
+                            "Repassados na fronteira: %d | Drones remanejados: %d (%.2fkm)%n" +
+                            "Planejamento: %.2fms | Tempo total: %.2fms",
+                    planos.size(), pedidosAlocados, viagens, naoAtendidos, makespan,
+                    pedidosRepassados, dronesRemanejados, kmRemanejamento, planejamentoMs, duracaoMs);
+        }
+    }
+
+    /**
+     * Cria uma região com base em (baseX, baseY), sem drones. As regiões devem ser todas criadas antes
+     * dos primeiros pedidos.
+     */
+    public Regiao adicionarRegiao(double baseX, double baseY) {
+        Regiao r = new Regiao(regioes.size(), baseX, baseY);
+        regioes.add(r);
+        return r;
+    }
+
+    public List<Regiao> getRegioes() {
+        return Collections.unmodifiableList(regioes);
+    }
+
+    /** Pool das tarefas de planejamento por região (padrão: ForkJoinPool.commonPool()). */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Drone criarDrone(Regiao regiao, double capacidadeKg, double alcanceKm) {
+        return regiao.servico.criarDrone(capacidadeKg, alcanceKm, 0, 0);
+    }
+
+    /**
+     * Registra um pedido (coordenadas globais) na região da base mais próxima. O pedido devolvido está em
+     * coordenadas locais dessa região (ver Regiao.globalX). Pode ser chamado por várias threads, inclusive
+     * durante um ciclo, como DroneService.criarPedido. Se a região não atender o pedido perto da fronteira,
+     * o ciclo o repassa à vizinha como outro objeto (mesmo id e chegada, coordenadas locais da vizinha):
+     * para acompanhar o pedido depois, guarde o id, não a referência devolvida.
+     */
+    public Pedido criarPedido(double x, double y, double pesoKg, Enums.Prioridade prioridade) {
+        Regiao r = regiaoMaisProxima(x, y);
+        return r.servico.criarPedido(GeradorIds.PEDIDOS.proximo(), x - r.baseX, y - r.baseY, pesoKg, prioridade);
+    }
+
+    public Regiao regiaoMaisProxima(double x, double y) {
+        if (regioes.isEmpty()) throw new IllegalStateException("Nenhuma região criada.");
+        Regiao melhor = null;
+        double menor = Double.POSITIVE_INFINITY;
+        for (Regiao r : regioes) {
+            double d = GeoUtils.distanciaKm(r.baseX, r.baseY, x, y);
+            if (d < menor) {
+                menor = d;
+                melhor = r;
+            }
+        }
+        return melhor;
+    }
+
+    /**
+     * Um ciclo: rebalanceia as frotas, planeja as ondas de todas as regiões em paralelo (até o horizonte,
+     * como DroneService.planejarOndas) e repassa para as vizinhas o que ficou sem drone perto das
+     * fronteiras, para o próximo ciclo. Supõe que o plano do ciclo anterior já foi cumprido: os drones
+     * estão nas bases.
+     */
+    public ResultadoCiclo planejarCiclo(double horizonte) {
+        long inicioNs = System.nanoTime();
+        ResultadoCiclo resultado = new ResultadoCiclo();
+        for (Regiao r : regioes) r.servico.drenarEntrada();
+        rebalancear(resultado);
+
+        List<Callable<PlanoOndas>> tarefas = new ArrayList<>(regioes.size());
+        for (Regiao r : regioes) tarefas.add(() -> r.servico.planejarOndas(horizonte));
+        long planejamentoNs = System.nanoTime();
+        try {
+            // invokeAll garante a visibilidade do que cada tarefa escreveu no seu serviço
+            List<Future<PlanoOndas>> planos = pool.invokeAll(tarefas);
+            for (int k = 0; k < regioes.size(); k++) {
+                Regiao r = regioes.get(k);
+                r.ultimoPlano = planos.get(k).get();
+                resultado.planos.add(r.ultimoPlano);
+                DroneService.RelatorioAlocacao aloc = r.servico.getUltimoRelatorioAlocacao();
+                resultado.pedidosAlocados += aloc.pedidosAlocados;
+                resultado.viagens += aloc.viagens;
+                resultado.naoAtendidos += aloc.naoAtendidos;
+                resultado.makespan = Math.max(resultado.makespan, aloc.makespan);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Planejamento regional interrompido.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha no planejamento regional: " + e.getCause().getMessage(), e.getCause());
+        }
+        resultado.planejamentoMs = (System.nanoTime() - planejamentoNs) / 1_000_000.0;
+
+        repassarFronteiras(resultado);
+        resultado.duracaoMs = (System.nanoTime() - inicioNs) / 1_000_000.0;
+        ultimoResultado = resultado;
+        return resultado;
+    }
+
+    public ResultadoCiclo getUltimoResultado() {
+        return ultimoResultado;
+    }
+
+    /** Volta todos os pedidos de todas as regiões para PENDENTE e os drones para as bases. */
+    public void resetPedidos() {
+        for (Regiao r : regioes) r.servico.resetPedidos();
+    }
+
+    private void rebalancear(ResultadoCiclo resultado) {
+        int n = regioes.size();
+        int[] frota = new int[n];
+        double[] parte = new double[n];
+        int totalDrones = 0;
+        long totalPendentes = 0;
+        for (int k = 0; k < n; k++) {
+            DroneService s = regioes.get(k).servico;
+            frota[k] = s.listarDrones().size();
+            totalDrones += frota[k];
+            totalPendentes += s.quantidadePendentes();
+        }
+        if (totalPendentes == 0) return;
+        for (int k = 0; k < n; k++) parte[k] = (double) totalDrones * regioes.get(k).servico.quantidadePendentes() / totalPendentes;
+
+        // A região mais abaixo do piso recebe da mais acima do teto que tenha um drone capaz da viagem
+        boolean[] semDoadora = new boolean[n];
+        while (true) {
+            int destino = -1;
+            for (int k = 0; k < n; k++) {
+                if (semDoadora[k] || frota[k] >= Math.floor(parte[k])) continue;
+                if (destino < 0 || parte[k] - frota[k] > parte[destino] - frota[destino]) destino = k;
+            }
+            if (destino < 0) return;
+            Regiao para = regioes.get(destino);
+            int origem = -1;
+            Drone escolhido = null;
+            for (int k = 0; k < n; k++) {
+                if (k == destino || frota[k] <= Math.ceil(parte[k])) continue;
+                if (origem >= 0 && frota[k] - parte[k] <= frota[origem] - parte[origem]) continue;
+                Drone d = droneParaRemanejar(regioes.get(k), para);
+                if (d == null) continue;
+                origem = k;
+                escolhido = d;
+            }
+            if (origem < 0) {
+                semDoadora[destino] = true;
+                continue;
+            }
+            Regiao de = regioes.get(origem);
+            de.servico.transferirDrone(escolhido, para.servico);
+            frota[origem]--;
+            frota[destino]++;
+            resultado.dronesRemanejados++;
+            resultado.kmRemanejamento += GeoUtils.distanciaKm(de.baseX, de.baseY, para.baseX, para.baseY);
+        }
+    }
+
+    /** O último drone da região de origem com alcance para voar até a outra base (ou null). */
+    private static Drone droneParaRemanejar(Regiao de, Regiao para) {
+        double distancia = GeoUtils.distanciaKm(de.baseX, de.baseY, para.baseX, para.baseY);
+        List<Drone> drones = de.servico.listarDrones();
+        for (int i = drones.size() - 1; i >= 0; i--) {
+            if (drones.get(i).getAlcanceKm() >= distancia) return drones.get(i);
+        }
+        return null;
+    }
+
+    private void repassarFronteiras(ResultadoCiclo resultado) {
+        if (regioes.size() < 2) return;
+        List<List<Pedido>> recebidos = new ArrayList<>(regioes.size());
+        for (int k = 0; k < regioes.size(); k++) recebidos.add(new ArrayList<>());
+        for (Regiao r : regioes) {
+            for (Pedido p : r.servico.retirarPedidos(q -> vizinhaPara(r, q) != null)) {
+                Regiao v = vizinhaPara(r, p);
+                // Mesmo id e chegada, em coordenadas locais da vizinha e de novo PENDENTE
+                recebidos.get(v.indice).add(new Pedido(p.getId(), r.globalX(p) - v.baseX, r.globalY(p) - v.baseY,
+                        p.getPesoKg(), p.getPrioridade(), p.getDataChegadaTimestamp()));
+                if (p.getStatus() == Enums.StatusPedido.NAO_ATENDIDO) resultado.naoAtendidos--;
+                resultado.pedidosRepassados++;
+            }
+        }
+        for (Regiao v : regioes) {
+            if (!recebidos.get(v.indice).isEmpty()) v.servico.importarPedidos(recebidos.get(v.indice));
+        }
+    }
+
+    /** Região que deve receber o pedido que a região 'r' não atendeu, ou null se ele fica. */
+    private Regiao vizinhaPara(Regiao r, Pedido p) {
+        double x = r.globalX(p), y = r.globalY(p);
+        Regiao dona = null, vizinha = null;
+        double d1 = Double.POSITIVE_INFINITY, d2 = Double.POSITIVE_INFINITY;
+        for (Regiao q : regioes) {
+            double d = GeoUtils.distanciaKm(q.baseX, q.baseY, x, y);
+            if (d < d1) {
+                vizinha = dona;
+                d2 = d1;
+                dona = q;
+                d1 = d;
+            } else if (d < d2) {
+                vizinha = q;
+                d2 = d;
+            }
+        }
+        if (dona != r || vizinha == null) return null;
+        if (p.getStatus() == Enums.StatusPedido.PENDENTE) {
+            // Distância do pedido até a mediatriz entre as duas bases
+            double entreBases = GeoUtils.distanciaKm(dona.baseX, dona.baseY, vizinha.baseX, vizinha.baseY);
+            if ((d2 * d2 - d1 * d1) / (2 * entreBases) > margemFronteiraKm) return null;
+        }
+        // Também pela bateria: a vizinha não repassa de volta, então o pedido que ela não leva fica perdido lá
+        if (!RegrasVoo.vooDiretoCabe(d2, p.getPesoKg())) return null;
+        for (Drone d : vizinha.servico.listarDrones()) {
+            if (p.getPesoKg() <= d.getCapacidadeKg() && d2 <= d.getAlcanceKm() / 2) return vizinha;
+        }
+        return null;
+    }
+}
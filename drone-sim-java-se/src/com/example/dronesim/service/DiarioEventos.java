@@ -0,0 +1,548 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.util.GeradorIds;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Diário (journal) append-only das mudanças de estado de um DroneService: criação e importação de pedidos,
+ * início de alocação, pedido alocado (com a parada na rota do drone), NAO_ATENDIDO, liberado, retirado,
+ * entregue, reset e status dos drones. É um SinkEventos: basta colocá-lo no serviço (setSinkEventos), e os
+ * eventos que ele não grava seguem para o sink 'seguinte' (ex.: o console).
+ *
+ * <p>Group commit: o produtor só copia o evento para um buffer circular (o mesmo esquema sem locks do
+ * SinkAssincrono) e uma thread de fundo junta os eventos num quadro por até JANELA_COMMIT_NS (ou até o
+ * quadro encher), grava e faz um único force() por quadro. O caminho quente nunca espera um fsync; um
+ * evento fica durável em até ~10 ms, e flush() grava na hora e espera o que já foi publicado chegar ao disco.
+ *
+ * <p>reproduzir() refaz o estado de um serviço a partir de um snapshot (Checkpoint) e do diário, e
+ * compactar() grava um snapshot novo e esvazia o diário. O snapshot guarda quantos eventos do diário ele já
+ * contém, então uma queda entre as duas etapas não aplica nada duas vezes. Posição e cursor de rota dos
+ * drones só vêm do snapshot (o diário leva status e bateria).
+ *
+ * <p>Formato (big-endian):
+ * <pre>
+ * int MAGICO, int VERSAO, long sequência do primeiro evento
+ * quadros: int bytes, int crc32 dos eventos, int eventos, eventos
+ * evento: byte tipo (ordinal de EventoSimulacao.Tipo), int droneId, long pedido (id ou -1), int n1, double valor
+ *         PEDIDO_CRIADO e PEDIDO_IMPORTADO: + double x, y, pesoKg, long chegada, byte prioridade
+ * </pre>
+ * Um quadro incompleto ou com CRC errado no fim (queda no meio da gravação) é descartado.
+ */
+public class DiarioEventos implements SinkEventos {
+    static final int MAGICO = 0x44494152; // "DIAR"
+    static final int VERSAO = 1;
+    static final int CABECALHO_BYTES = 16;
+    private static final int CABECALHO_QUADRO = 12;
+    private static final int EVENTO_BYTES = 25;
+    private static final int PEDIDO_BYTES = 33;
+    private static final int QUADRO_BYTES = 1 << 18;
+    // Group commit: um quadro espera até 10 ms por mais eventos antes do force() (menos fsyncs por ciclo)
+    private static final long JANELA_COMMIT_NS = 10_000_000;
+
+    private static final Enums.Prioridade[] PRIORIDADES = Enums.Prioridade.values();
+    private static final Enums.StatusDrone[] STATUS_DRONE = Enums.StatusDrone.values();
+    private static final EventoSimulacao.Tipo[] TIPOS = EventoSimulacao.Tipo.values();
+    private static final boolean[] GRAVA = new boolean[TIPOS.length];
+
+    static {
+        for (EventoSimulacao.Tipo t : new EventoSimulacao.Tipo[]{
+                EventoSimulacao.Tipo.PEDIDO_CRIADO, EventoSimulacao.Tipo.PEDIDO_IMPORTADO,
+                EventoSimulacao.Tipo.ALOCACAO_INICIADA, EventoSimulacao.Tipo.PEDIDO_ALOCADO,
+                EventoSimulacao.Tipo.NAO_ATENDIDO, EventoSimulacao.Tipo.PEDIDO_LIBERADO,
+                EventoSimulacao.Tipo.PEDIDO_RETIRADO, EventoSimulacao.Tipo.ENTREGUE,
+                EventoSimulacao.Tipo.PEDIDO_ENTREGUE, EventoSimulacao.Tipo.RESET,
+                EventoSimulacao.Tipo.STATUS_DRONE}) {
+            GRAVA[t.ordinal()] = true;
+        }
+    }
+
+    private final SinkEventos seguinte;
+    private final Path arquivo;
+    private FileChannel canal;
+    // Sequência (desde a criação do diário) do primeiro evento publicado nesta instância
+    private final long base;
+
+    private final EventoSimulacao[] slots;
+    // sequencias[i] == posição: slot livre para o produtor; == posição + 1: evento pronto para o escritor
+    private final AtomicLongArray sequencias;
+    private final int mascara;
+    private final AtomicLong cauda = new AtomicLong();
+    // Quantidade de eventos já gravados com force() (para o flush)
+    private final AtomicLong duraveis = new AtomicLong();
+    private final AtomicLong quadros = new AtomicLong();
+    // Maior posição que um flush() espera ver no disco (o escritor grava na hora, sem esperar a janela)
+    private final AtomicLong alvoFlush = new AtomicLong();
+
+    private final ByteBuffer quadro = ByteBuffer.allocateDirect(QUADRO_BYTES);
+    private final CRC32 crc = new CRC32();
+    private final Thread escritor;
+    private volatile boolean ativo = true;
+    private volatile IOException erro;
+
+    public static class Resumo {
+        public long eventos;
+        public long ignorados;
+        public long bytesDescartados;
+        public double relogio;
+        public double segundos;
+
+        @Override
+        public String toString() {
+            return String.format("Diário: %d eventos reproduzidos (%d já no snapshot, %d bytes descartados no fim), relógio %.2f, em %.3fs",
+                    eventos, ignorados, bytesDescartados, relogio, segundos);
+        }
+    }
+
+    public DiarioEventos(Path arquivo) throws IOException {
+        this(arquivo, SinkEventos.SILENCIOSO, 1 << 16);
+    }
+
+    /**
+     * Abre o diário para acrescentar eventos (cria se não existir). Um fim corrompido de uma execução
+     * anterior é cortado antes do primeiro quadro novo.
+     */
+    public DiarioEventos(Path arquivo, SinkEventos seguinte, int capacidade) throws IOException {
+        if (Integer.bitCount(capacidade) != 1) throw new IllegalArgumentException("Capacidade deve ser potência de 2.");
+        this.seguinte = seguinte;
+        this.arquivo = arquivo;
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Leitura existente = ler(canal, arquivo);
+            if (existente == null) {
+                canal.truncate(0);
+                escreverCabecalho(canal, 0);
+                base = 0;
+            } else {
+                canal.truncate(existente.fim);
+                canal.position(existente.fim);
+                base = existente.primeiro + existente.eventos;
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        this.slots = new EventoSimulacao[capacidade];
+        this.sequencias = new AtomicLongArray(capacidade);
+        this.mascara = capacidade - 1;
+        for (int i = 0; i < capacidade; i++) {
+            slots[i] = new EventoSimulacao();
+            sequencias.set(i, i);
+        }
+        this.escritor = new Thread(this::gravarLotes, "diario-eventos");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    @Override
+    public boolean aceita(EventoSimulacao.Tipo tipo) {
+        return GRAVA[tipo.ordinal()] || seguinte.aceita(tipo);
+    }
+
+    @Override
+    public void publicar(EventoSimulacao.Tipo tipo, int droneId, Pedido pedido, int n1, int n2, double valor) {
+        seguinte.publicar(tipo, droneId, pedido, n1, n2, valor);
+        gravar(tipo, droneId, pedido, n1, n2, valor);
+    }
+
+    /** Grava tudo o que o diário grava (inclusive ENTREGUE, NAO_ATENDIDO...) e só tira o console do seguinte. */
+    @Override
+    public SinkEventos semConsole() {
+        SinkEventos console = seguinte.semConsole();
+        return new SinkEventos() {
+            @Override
+            public boolean aceita(EventoSimulacao.Tipo tipo) {
+                return GRAVA[tipo.ordinal()] || console.aceita(tipo);
+            }
+
+            @Override
+            public void publicar(EventoSimulacao.Tipo tipo, int droneId, Pedido pedido, int n1, int n2, double valor) {
+                console.publicar(tipo, droneId, pedido, n1, n2, valor);
+                gravar(tipo, droneId, pedido, n1, n2, valor);
+            }
+
+            @Override
+            public void flush() {
+                DiarioEventos.this.flush();
+            }
+        };
+    }
+
+    private void gravar(EventoSimulacao.Tipo tipo, int droneId, Pedido pedido, int n1, int n2, double valor) {
+        if (!GRAVA[tipo.ordinal()]) return;
+        long pos;
+        while (true) {
+            pos = cauda.get();
+            long dif = sequencias.get((int) (pos & mascara)) - pos;
+            if (dif == 0) {
+                if (cauda.compareAndSet(pos, pos + 1)) break;
+            } else if (dif < 0) {
+                // Buffer cheio: cede a CPU ao escritor (girando, ele pode nem chegar a rodar)
+                if (erro != null) throw new UncheckedIOException(erro);
+                LockSupport.unpark(escritor);
+                Thread.yield();
+            }
+        }
+        int idx = (int) (pos & mascara);
+        slots[idx].preencher(tipo, droneId, pedido, n1, n2, valor);
+        sequencias.lazySet(idx, pos + 1);
+    }
+
+    /** Eventos já gravados no disco (com force) por esta instância. */
+    public long eventosDuraveis() {
+        return duraveis.get();
+    }
+
+    /** Quadros gravados (cada um com um único force), para ver o tamanho médio do group commit. */
+    public long quadrosGravados() {
+        return quadros.get();
+    }
+
+    /** Espera até que tudo o que foi publicado esteja no disco. */
+    @Override
+    public void flush() {
+        long alvo = cauda.get();
+        alvoFlush.accumulateAndGet(alvo, Math::max);
+        while (duraveis.get() < alvo) {
+            if (erro != null) throw new UncheckedIOException(erro);
+            if (!escritor.isAlive()) return;
+            LockSupport.unpark(escritor);
+            LockSupport.parkNanos(50_000);
+        }
+        if (erro != null) throw new UncheckedIOException(erro);
+        seguinte.flush();
+    }
+
+    @Override
+    public void fechar() {
+        try {
+            flush();
+        } finally {
+            ativo = false;
+            LockSupport.unpark(escritor);
+            try {
+                escritor.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                synchronized (this) {
+                    canal.close();
+                }
+            } catch (IOException e) {
+                erro = e;
+            }
+            seguinte.fechar();
+        }
+        if (erro != null) throw new UncheckedIOException(erro);
+    }
+
+    /**
+     * Grava um Checkpoint do serviço (que publica neste diário) com a marca do último evento gravado e
+     * troca o diário por um vazio que começa nessa marca. Entre ciclos, na thread dona do serviço, sem
+     * publicações em andamento.
+     */
+    public Checkpoint.Resumo compactar(DroneService service, Path snapshot, double relogio) throws IOException {
+        flush();
+        synchronized (this) {
+            long marca = base + duraveis.get();
+            Checkpoint.Resumo resumo = new Checkpoint(service).gravar(snapshot, relogio, marca);
+            // Snapshot no disco: até a troca abaixo, o diário antigo continua valendo (a reprodução pula o
+            // que o snapshot já tem); a troca é atômica, então nunca fica um diário pela metade
+            Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+            FileChannel novo = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                escreverCabecalho(novo, marca);
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                novo.close();
+                throw e;
+            }
+            canal.close();
+            canal = novo;
+            return resumo;
+        }
+    }
+
+    private static void escreverCabecalho(FileChannel destino, long primeiro) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO_BYTES);
+        cabecalho.putInt(MAGICO).putInt(VERSAO).putLong(primeiro).flip();
+        destino.position(0);
+        while (cabecalho.hasRemaining()) destino.write(cabecalho);
+        destino.force(true);
+    }
+
+    private void gravarLotes() {
+        long cabeca = 0;
+        int n = 0;
+        long inicioQuadro = 0;
+        quadro.clear().position(CABECALHO_QUADRO);
+        while (true) {
+            while (quadro.remaining() >= EVENTO_BYTES + PEDIDO_BYTES) {
+                int idx = (int) (cabeca & mascara);
+                if (sequencias.get(idx) != cabeca + 1) break;
+                EventoSimulacao e = slots[idx];
+                codificar(e, quadro);
+                e.pedido = null;
+                sequencias.lazySet(idx, cabeca + slots.length); // libera o slot
+                cabeca++;
+                if (n++ == 0) inicioQuadro = System.nanoTime();
+            }
+            // Grava com quadro cheio, janela vencida, flush esperando ou no fechamento; senão junta mais eventos
+            if (n > 0 && (quadro.remaining() < EVENTO_BYTES + PEDIDO_BYTES || !ativo || alvoFlush.get() > duraveis.get()
+                    || System.nanoTime() - inicioQuadro >= JANELA_COMMIT_NS)) {
+                try {
+                    gravarQuadro(n);
+                } catch (IOException e) {
+                    erro = e;
+                    return;
+                }
+                duraveis.set(cabeca);
+                n = 0;
+                quadro.clear().position(CABECALHO_QUADRO);
+                continue;
+            }
+            if (n == 0 && !ativo) return;
+            // Dorme o resto da janela: produtor com buffer cheio, flush() e fechar() acordam antes
+            LockSupport.parkNanos(n > 0 ? JANELA_COMMIT_NS - (System.nanoTime() - inicioQuadro) : JANELA_COMMIT_NS);
+        }
+    }
+
+    private synchronized void gravarQuadro(int eventos) throws IOException {
+        int bytes = quadro.position() - CABECALHO_QUADRO;
+        quadro.flip();
+        crc.reset();
+        crc.update(quadro.duplicate().position(CABECALHO_QUADRO));
+        quadro.putInt(0, bytes).putInt(4, (int) crc.getValue()).putInt(8, eventos);
+        while (quadro.hasRemaining()) canal.write(quadro);
+        canal.force(false);
+        quadros.incrementAndGet();
+    }
+
+    private static void codificar(EventoSimulacao e, ByteBuffer out) {
+        Pedido p = e.pedido;
+        out.put((byte) e.tipo.ordinal()).putInt(e.droneId).putLong(p == null ? -1 : p.getId()).putInt(e.n1).putDouble(e.valor);
+        if (e.tipo == EventoSimulacao.Tipo.PEDIDO_CRIADO || e.tipo == EventoSimulacao.Tipo.PEDIDO_IMPORTADO) {
+            out.putDouble(p.getX()).putDouble(p.getY()).putDouble(p.getPesoKg())
+                    .putLong(p.getDataChegadaTimestamp()).put((byte) p.getPrioridade().ordinal());
+        }
+    }
+
+    // --- Reprodução ---
+
+    /**
+     * Refaz o estado num serviço vazio: restaura o snapshot (se houver) e aplica os eventos do diário que ele
+     * ainda não contém. Sem snapshot, a frota do serviço precisa ter os drones com os mesmos ids. O serviço
+     * não deve estar publicando neste diário.
+     */
+    public static Resumo reproduzir(Path diario, Path snapshot, DroneService service) throws IOException {
+        long inicioNs = System.nanoTime();
+        Resumo resumo = new Resumo();
+        long marca = 0;
+        if (snapshot != null) {
+            Checkpoint.Resumo restaurado = new Checkpoint(service).restaurar(snapshot);
+            marca = restaurado.marcaDiario;
+            resumo.relogio = restaurado.relogio;
+        }
+        try (FileChannel canal = FileChannel.open(diario, StandardOpenOption.READ)) {
+            Leitura leitura = ler(canal, diario);
+            if (leitura != null) {
+                Reprodutor r = new Reprodutor(service);
+                long sequencia = leitura.primeiro;
+                ByteBuffer buf = leitura.dados;
+                buf.position(CABECALHO_BYTES);
+                while (buf.position() < leitura.fim) {
+                    int n = buf.getInt(buf.position() + 8);
+                    buf.position(buf.position() + CABECALHO_QUADRO);
+                    for (int k = 0; k < n; k++, sequencia++) {
+                        if (sequencia < marca) {
+                            pular(buf);
+                            resumo.ignorados++;
+                        } else {
+                            r.aplicar(buf, diario);
+                            resumo.eventos++;
+                        }
+                    }
+                }
+                r.concluir();
+                resumo.bytesDescartados = canal.size() - leitura.fim;
+            }
+        }
+        resumo.segundos = (System.nanoTime() - inicioNs) / 1e9;
+        return resumo;
+    }
+
+    private static void pular(ByteBuffer buf) {
+        int tipo = buf.get(buf.position());
+        boolean comPedido = tipo == EventoSimulacao.Tipo.PEDIDO_CRIADO.ordinal()
+                || tipo == EventoSimulacao.Tipo.PEDIDO_IMPORTADO.ordinal();
+        buf.position(buf.position() + EVENTO_BYTES + (comPedido ? PEDIDO_BYTES : 0));
+    }
+
+    /** Cabeçalho e quadros válidos de um diário (null se vazio); 'fim' é o fim do último quadro íntegro. */
+    private static final class Leitura {
+        ByteBuffer dados;
+        long primeiro;
+        long eventos;
+        long fim;
+    }
+
+    private static Leitura ler(FileChannel canal, Path arquivo) throws IOException {
+        long tamanho = canal.size();
+        // Diário novo (ou cabeçalho pela metade de uma criação interrompida): sem eventos
+        if (tamanho < CABECALHO_BYTES) return null;
+        if (tamanho > Integer.MAX_VALUE) throw new IOException("Diário maior que 2 GB, compacte antes: " + arquivo);
+        ByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+        if (dados.getInt() != MAGICO) throw new IOException("Arquivo não é um diário de eventos: " + arquivo);
+        int versao = dados.getInt();
+        if (versao != VERSAO) throw new IOException("Versão de diário não suportada: " + versao);
+        Leitura l = new Leitura();
+        l.dados = dados;
+        l.primeiro = dados.getLong();
+        CRC32 crc = new CRC32();
+        int pos = CABECALHO_BYTES;
+        while (pos + CABECALHO_QUADRO <= tamanho) {
+            int bytes = dados.getInt(pos), soma = dados.getInt(pos + 4), n = dados.getInt(pos + 8);
+            if (bytes < 0 || n < 0 || pos + CABECALHO_QUADRO + (long) bytes > tamanho) break;
+            crc.reset();
+            crc.update(dados.duplicate().position(pos + CABECALHO_QUADRO).limit(pos + CABECALHO_QUADRO + bytes));
+            if ((int) crc.getValue() != soma) break;
+            pos += CABECALHO_QUADRO + bytes;
+            l.eventos += n;
+        }
+        l.fim = pos;
+        return l;
+    }
+
+    /** Aplica os eventos no serviço; rotas e retiradas em sequência são aplicadas de uma vez. */
+    private static final class Reprodutor {
+        private final DroneService service;
+        private final Map<Long, Pedido> pedidos = new HashMap<>();
+        private final Map<Integer, Drone> drones = new HashMap<>();
+        private final Map<Drone, List<Pedido>> rotas = new LinkedHashMap<>();
+        private final Set<Pedido> retirados = new HashSet<>();
+        private long maiorId;
+
+        Reprodutor(DroneService service) {
+            this.service = service;
+            for (Pedido p : service.listarPedidos()) pedidos.put(p.getId(), p);
+            for (Drone d : service.listarDrones()) drones.put(d.getId(), d);
+        }
+
+        void aplicar(ByteBuffer buf, Path arquivo) throws IOException {
+            int ordinal = buf.get();
+            if (ordinal < 0 || ordinal >= TIPOS.length) throw new IOException("Tipo de evento inválido (" + ordinal + ") no diário: " + arquivo);
+            EventoSimulacao.Tipo tipo = TIPOS[ordinal];
+            int droneId = buf.getInt();
+            long pedidoId = buf.getLong();
+            int n1 = buf.getInt();
+            double valor = buf.getDouble();
+            if (tipo != EventoSimulacao.Tipo.PEDIDO_ALOCADO) aplicarRotas();
+            if (tipo != EventoSimulacao.Tipo.PEDIDO_RETIRADO) aplicarRetiradas();
+
+            switch (tipo) {
+                case PEDIDO_CRIADO:
+                case PEDIDO_IMPORTADO: {
+                    double x = buf.getDouble(), y = buf.getDouble(), peso = buf.getDouble();
+                    long chegada = buf.getLong();
+                    int prioridade = buf.get();
+                    if (prioridade < 0 || prioridade >= PRIORIDADES.length) throw new IOException("Prioridade inválida no diário: " + arquivo);
+                    Pedido p = new Pedido(pedidoId, x, y, peso, PRIORIDADES[prioridade], chegada);
+                    service.reproduzirPedido(p);
+                    pedidos.put(pedidoId, p);
+                    maiorId = Math.max(maiorId, pedidoId);
+                    break;
+                }
+                case ALOCACAO_INICIADA:
+                    service.reproduzirInicioAlocacao();
+                    break;
+                case PEDIDO_ALOCADO: {
+                    Pedido p = pedido(pedidoId, arquivo);
+                    service.reproduzirStatus(p, Enums.StatusPedido.ALOCADO);
+                    Drone d = drone(droneId, arquivo);
+                    if (n1 == 0) rotas.put(d, new ArrayList<>());
+                    rotas.computeIfAbsent(d, x -> new ArrayList<>()).add(p);
+                    break;
+                }
+                case NAO_ATENDIDO:
+                    service.reproduzirStatus(pedido(pedidoId, arquivo), Enums.StatusPedido.NAO_ATENDIDO);
+                    break;
+                case PEDIDO_LIBERADO:
+                    service.liberarPedido(pedido(pedidoId, arquivo));
+                    break;
+                case PEDIDO_RETIRADO:
+                    retirados.add(pedido(pedidoId, arquivo));
+                    pedidos.remove(pedidoId);
+                    break;
+                case ENTREGUE:
+                case PEDIDO_ENTREGUE:
+                    service.reproduzirStatus(pedido(pedidoId, arquivo), Enums.StatusPedido.ENTREGUE);
+                    break;
+                case RESET:
+                    service.resetPedidos();
+                    break;
+                case STATUS_DRONE: {
+                    if (n1 < 0 || n1 >= STATUS_DRONE.length) throw new IOException("Status de drone inválido no diário: " + arquivo);
+                    Drone d = drone(droneId, arquivo);
+                    d.setStatus(STATUS_DRONE[n1]);
+                    d.getFrota().estado().bateria[d.getSlot()] = valor;
+                    break;
+                }
+                default:
+                    throw new IOException("Evento " + tipo + " não esperado no diário: " + arquivo);
+            }
+        }
+
+        void concluir() {
+            aplicarRotas();
+            aplicarRetiradas();
+            GeradorIds.PEDIDOS.avancarAlem(maiorId);
+        }
+
+        private void aplicarRotas() {
+            if (rotas.isEmpty()) return;
+            for (Map.Entry<Drone, List<Pedido>> e : rotas.entrySet()) service.reproduzirRota(e.getKey(), e.getValue());
+            rotas.clear();
+        }
+
+        private void aplicarRetiradas() {
+            if (retirados.isEmpty()) return;
+            service.retirarPedidos(retirados::contains);
+            retirados.clear();
+        }
+
+        private Pedido pedido(long id, Path arquivo) throws IOException {
+            Pedido p = pedidos.get(id);
+            if (p == null) throw new IOException("Pedido #" + id + " desconhecido no diário: " + arquivo);
+            return p;
+        }
+
+        private Drone drone(int id, Path arquivo) throws IOException {
+            Drone d = drones.get(id);
+            if (d == null) throw new IOException("Drone " + id + " desconhecido no diário: " + arquivo);
+            return d;
+        }
+    }
+}
@@ -1,84 +1,362 @@
 package com.example.dronesim.service;
 
 import com.example.dronesim.model.*;
+import com.example.dronesim.util.FilaPendentes;
 import com.example.dronesim.util.GeoUtils;
+import com.example.dronesim.util.GradeEspacial;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 public class DroneService {
+    // Dados dos drones em arrays primitivos; a lista guarda as fachadas na ordem de criação
+    private final Frota frota = new Frota();
     private final List<Drone> drones = new ArrayList<>();
-    private final List<Pedido> pedidos = new ArrayList<>();
-    // Mapeia o pedido para o drone que o atende (útil para relatórios)
-    private final Map<Pedido, Drone> droneDoPedido = new HashMap<>();
+    private final ArrayList<Pedido> pedidos = new ArrayList<>();
+    // Pedidos recém-criados (por qualquer thread) que ainda não entraram em 'pedidos' e no índice.
+    // Só a thread dona do serviço (menu, simulação ou despachante) drena a fila.
+    private final ConcurrentLinkedQueue<Pedido> entrada = new ConcurrentLinkedQueue<>();
+    // Rotas atribuídas: drone -> pedidos (ordem de visita) e pedido -> drone (útil para relatórios)
+    private final IndiceRotas indiceRotas = new IndiceRotas();
+    // Índice espacial apenas dos pedidos PENDENTES (atualizado na criação, alocação e reset)
+    private final GradeEspacial pendentesIndexados = new GradeEspacial(TAMANHO_CELULA_KM);
+    // Os mesmos pendentes em ordem de atendimento (prioridade, depois FIFO), mantidos junto com o índice
+    private final FilaPendentes filaPendentes = new FilaPendentes();
+    // Buffers reaproveitados entre as buscas de rota (trocados junto com o máximo de paradas)
+    private MotorBuscaRota motorBusca = new MotorBuscaRota();
+    private final List<Pedido> candidatosBuffer = new ArrayList<>();
+    // Alocação paralela: cada worker do pool usa o seu próprio motor de busca
+    private ThreadLocal<MotorBuscaRota> motorPorThread = ThreadLocal.withInitial(MotorBuscaRota::new);
+    private ForkJoinPool poolAlocacao = ForkJoinPool.commonPool();
+    private RelatorioAlocacao ultimoRelatorioAlocacao;
+    // Contadores e latências (também expostos via JMX e JFR)
+    private final MetricasSimulacao metricas = new MetricasSimulacao();
+    // Destino das mensagens de alocação/simulação (padrão: console síncrono, tudo a partir de DEBUG)
+    private SinkEventos eventos = new SinkConsole(EventoSimulacao.Nivel.DEBUG);
+
+    private static final double TAMANHO_CELULA_KM = 10.0;
+    // Acima disso nenhum pedido é aceito (nem pela criação nem pela carga de cenários)
+    private static final double PESO_MAXIMO_KG = 15.0;
+    // Alocação incremental: quantos pendentes (em ordem de prioridade) cada drone livre considera
+    private static final int JANELA_CANDIDATOS = 64;
+    // Folga numérica para os limites de poda (não pode descartar rotas viáveis)
+    private static final double TOLERANCIA_KM = 1e-9;
 
     public DroneService() {
+        this(true);
+    }
+
+    /**
+     * @param dronesPadrao false para começar sem frota (ex.: a frota vem de um arquivo de cenário)
+     */
+    public DroneService(boolean dronesPadrao) {
+        if (!dronesPadrao) return;
         // Criar drones padrão (Base: 0, 0)
-        drones.add(new Drone(10.0, 100.0, 0, 0));
-        drones.add(new Drone(12.0, 120.0, 0, 0));
-        drones.add(new Drone(8.0, 80.0, 0, 0));
-        drones.add(new Drone(15.0, 150.0, 0, 0));
-        drones.add(new Drone(9.0, 90.0, 0, 0));
+        criarDrone(10.0, 100.0, 0, 0);
+        criarDrone(12.0, 120.0, 0, 0);
+        criarDrone(8.0, 80.0, 0, 0);
+        criarDrone(15.0, 150.0, 0, 0);
+        criarDrone(9.0, 90.0, 0, 0);
     }
 
     /**
      * Reseta o status de todos os pedidos para PENDENTE e move drones para a base.
      */
     public void resetPedidos() {
+        drenarEntrada();
+        pendentesIndexados.limpar();
+        filaPendentes.limpar();
         for (Pedido p : pedidos) {
             p.setStatus(Enums.StatusPedido.PENDENTE);
+            indexarPendente(p);
         }
         for (Drone d : drones) {
             d.recarregarPosicao(); // Coloca na base (0,0)
             d.recarregar(); // Garante status IDLE e 100% de bateria
         }
-        droneDoPedido.clear();
-        System.out.println("Status de pedidos e drones resetados. Prontos para nova alocação.");
+        indiceRotas.limpar();
+        eventos.publicar(EventoSimulacao.Tipo.RESET, 0, null);
     }
 
     public Drone criarDrone(double capacidadeKg, double alcanceKm, double x, double y) {
-        Drone d = new Drone(capacidadeKg, alcanceKm, x, y);
+        Drone d = frota.adicionar(capacidadeKg, alcanceKm, x, y);
+        drones.add(d);
+        return d;
+    }
+
+    // Drone restaurado de um Checkpoint, com o id salvo
+    Drone restaurarDrone(int id, double capacidadeKg, double alcanceKm, double x, double y) {
+        Drone d = frota.adicionar(id, capacidadeKg, alcanceKm, x, y);
         drones.add(d);
         return d;
     }
 
+    /**
+     * Define o pool usado pela alocação PARALELA (padrão: ForkJoinPool.commonPool()).
+     */
+    public void setPoolAlocacao(ForkJoinPool pool) {
+        this.poolAlocacao = pool;
+    }
+
+    public int getMaxParadas() {
+        return motorBusca.getMaxParadas();
+    }
+
+    /**
+     * Máximo de pedidos por rota (padrão 3, até MotorBuscaRota.LIMITE_PARADAS). Drones de capacidade
+     * alta aproveitam rotas mais longas; a ordem de visita é exata até MotorBuscaRota.LIMITE_HELD_KARP paradas.
+     * Quando a ordem mais curta não cabe na bateria, até esse limite a busca da ordem que cabe também é exata;
+     * acima dele é heurística, e uma rota que caberia em outra ordem pode ficar de fora.
+     */
+    public void setMaxParadas(int maxParadas) {
+        this.motorBusca = new MotorBuscaRota(maxParadas);
+        this.motorPorThread = ThreadLocal.withInitial(() -> new MotorBuscaRota(maxParadas));
+    }
+
+    public MetricasSimulacao getMetricas() {
+        return metricas;
+    }
+
+    public SinkEventos getSinkEventos() {
+        return eventos;
+    }
+
+    /**
+     * Troca o destino dos eventos (ex.: SinkAssincrono com filtro de nível ou SinkEventos.SILENCIOSO).
+     */
+    public void setSinkEventos(SinkEventos eventos) {
+        this.eventos = eventos;
+    }
+
+    /**
+     * Registra um pedido. Pode ser chamado por várias threads ao mesmo tempo (inclusive durante uma
+     * simulação): o pedido entra numa fila sem locks e só passa para a lista e o índice de pendentes
+     * quando a thread dona do serviço drena a fila (listagem, reset ou alocação).
+     */
     public Pedido criarPedido(double x, double y, double pesoKg, Enums.Prioridade prioridade) {
-        if (pesoKg > 15.0) {
-            System.err.println("Pacote rejeitado. Peso (" + pesoKg + "kg) excede a capacidade máxima de qualquer drone.");
-            return null;
-        }
-        Pedido p = new Pedido(x, y, pesoKg, prioridade);
-        pedidos.add(p);
-        System.out.println("Pedido criado: " + p.getId().substring(0, 4) + "...");
+        if (rejeitarPeso(pesoKg)) return null;
+        return registrar(new Pedido(x, y, pesoKg, prioridade));
+    }
+
+    /**
+     * Igual a criarPedido(x, y, pesoKg, prioridade), com o id vindo de uma faixa reservada pelo produtor
+     * (GeradorIds.reservar), para carga em massa sem disputar o contador de ids.
+     */
+    public Pedido criarPedido(long id, double x, double y, double pesoKg, Enums.Prioridade prioridade) {
+        if (rejeitarPeso(pesoKg)) return null;
+        return registrar(new Pedido(id, x, y, pesoKg, prioridade));
+    }
+
+    private boolean rejeitarPeso(double pesoKg) {
+        if (pesoKg <= PESO_MAXIMO_KG) return false;
+        eventos.publicar(EventoSimulacao.Tipo.PEDIDO_REJEITADO, 0, pesoKg);
+        return true;
+    }
+
+    private Pedido registrar(Pedido p) {
+        entrada.offer(p);
+        eventos.publicar(EventoSimulacao.Tipo.PEDIDO_CRIADO, 0, p);
         return p;
     }
 
+    /**
+     * Move os pedidos da fila de entrada para a lista e o índice de pendentes. Retorna quantos entraram.
+     */
+    public int drenarEntrada() {
+        int n = 0;
+        Pedido p;
+        while ((p = entrada.poll()) != null) {
+            pedidos.add(p);
+            indexarPendente(p);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Carga em massa (cenários): coloca os pedidos direto na lista e no índice de pendentes, sem passar
+     * pela fila de entrada e sem publicar um evento por pedido. Pedidos acima do peso máximo são
+     * descartados em silêncio. Retorna quantos entraram. Só na thread dona do serviço.
+     */
+    public int importarPedidos(List<Pedido> lote) {
+        drenarEntrada();
+        reservarPedidos(lote.size());
+        int n = 0;
+        for (Pedido p : lote) {
+            if (p.getPesoKg() > PESO_MAXIMO_KG) continue;
+            pedidos.add(p);
+            indexarPendente(p);
+            eventos.publicar(EventoSimulacao.Tipo.PEDIDO_IMPORTADO, 0, p);
+            n++;
+        }
+        return n;
+    }
+
+    /** Reserva espaço para mais 'quantidade' pedidos quando o tamanho da carga é conhecido de antemão. */
+    public void reservarPedidos(int quantidade) {
+        pedidos.ensureCapacity(pedidos.size() + quantidade);
+        filaPendentes.reservar(quantidade);
+    }
+
+    private void indexarPendente(Pedido p) {
+        pendentesIndexados.adicionar(p);
+        filaPendentes.adicionar(p);
+    }
+
+    private void desindexarPendente(Pedido p) {
+        pendentesIndexados.remover(p);
+        filaPendentes.remover(p);
+    }
+
+    /** Há pedidos criados que ainda não foram drenados? (seguro para qualquer thread) */
+    public boolean temPedidosNaEntrada() {
+        return !entrada.isEmpty();
+    }
+
+    /** Quantidade de pedidos PENDENTES já drenados. */
+    public int quantidadePendentes() {
+        return filaPendentes.tamanho();
+    }
+
+    public Frota getFrota() {
+        return frota;
+    }
+
     public List<Drone> listarDrones() {
         return new ArrayList<>(drones);
     }
 
     public List<Pedido> listarPedidos() {
+        drenarEntrada();
         return new ArrayList<>(pedidos);
     }
 
     public List<Pedido> getPedidosDoDrone(Drone d) {
-        // Agora, lista todos os pedidos que têm esse drone no mapeamento
-        List<Pedido> list = new ArrayList<>();
-        for (Map.Entry<Pedido, Drone> e : droneDoPedido.entrySet()) {
-            if (e.getValue().getId() == d.getId()) list.add(e.getKey());
+        // Rota atual do drone, na ordem de visita
+        return new ArrayList<>(indiceRotas.rota(d.getId()));
+    }
+
+    /** Drone que está com o pedido na rota atual (ou null). */
+    public Drone getDroneDoPedido(Pedido p) {
+        return indiceRotas.droneDo(p);
+    }
+
+    /**
+     * Devolve à fila de pendentes um pedido alocado que o drone abandonou (ex.: retorno por bateria
+     * crítica), para ser realocado. Chamado pelos simuladores, na thread dona do serviço.
+     */
+    public void liberarPedido(Pedido p) {
+        if (p.getStatus() != Enums.StatusPedido.ALOCADO && p.getStatus() != Enums.StatusPedido.EM_ENTREGA) return;
+        indiceRotas.liberar(p);
+        p.setStatus(Enums.StatusPedido.PENDENTE);
+        indexarPendente(p);
+        eventos.publicar(EventoSimulacao.Tipo.PEDIDO_LIBERADO, 0, p);
+    }
+
+    /**
+     * Tira do serviço os pedidos ainda sem drone (PENDENTE ou NAO_ATENDIDO) que passam no filtro e os
+     * devolve, numa passada só pela lista (ex.: repasse para a região vizinha em DespachoRegional).
+     * Não drena a fila de entrada: só sai o que o serviço já viu. Só na thread dona do serviço.
+     */
+    public List<Pedido> retirarPedidos(Predicate<Pedido> filtro) {
+        List<Pedido> retirados = new ArrayList<>();
+        pedidos.removeIf(p -> {
+            Enums.StatusPedido status = p.getStatus();
+            if (status != Enums.StatusPedido.PENDENTE && status != Enums.StatusPedido.NAO_ATENDIDO) return false;
+            if (!filtro.test(p)) return false;
+            if (status == Enums.StatusPedido.PENDENTE) desindexarPendente(p);
+            retirados.add(p);
+            eventos.publicar(EventoSimulacao.Tipo.PEDIDO_RETIRADO, 0, p);
+            return true;
+        });
+        return retirados;
+    }
+
+    /** Pendentes na ordem de atendimento (para o Checkpoint). */
+    List<Pedido> pendentesEmOrdem() {
+        List<Pedido> ordem = new ArrayList<>(filaPendentes.tamanho());
+        filaPendentes.copiarEmOrdem(ordem);
+        return ordem;
+    }
+
+    /**
+     * Restauração de um Checkpoint num serviço sem pedidos: coloca os pedidos (já com o status salvo) na
+     * lista, indexa os pendentes na ordem de atendimento salva e refaz as rotas dos drones.
+     */
+    void restaurar(List<Pedido> todos, List<Pedido> pendentes, Map<Drone, List<Pedido>> rotas) {
+        pedidos.addAll(todos);
+        filaPendentes.reservar(pendentes.size());
+        for (Pedido p : pendentes) indexarPendente(p);
+        for (Map.Entry<Drone, List<Pedido>> e : rotas.entrySet()) indiceRotas.atribuir(e.getKey(), e.getValue());
+    }
+
+    // --- Reprodução do DiarioEventos (na thread dona do serviço, com um sink que não é o diário) ---
+
+    /** Pedido criado ou importado, como pendente. */
+    void reproduzirPedido(Pedido p) {
+        pedidos.add(p);
+        indexarPendente(p);
+    }
+
+    /** Início de alocarPedidos/planejarOndas: descarta as rotas e volta os drones para a base. */
+    void reproduzirInicioAlocacao() {
+        indiceRotas.limpar();
+        for (Drone d : drones) {
+            d.recarregarPosicao();
+            d.recarregar();
         }
-        // Garante a ordem da rota (se o drone tiver uma rota atribuída)
-        list.sort(Comparator
-                .comparingInt((Pedido p) -> p.getPrioridade().ordinal()).reversed()
-                .thenComparing(Pedido::getDataChegadaTimestamp)
-        );
-        return list;
+    }
+
+    /** Novo status de um pedido que estava no serviço (sai do índice de pendentes se deixou de ser PENDENTE). */
+    void reproduzirStatus(Pedido p, Enums.StatusPedido status) {
+        if (p.getStatus() == Enums.StatusPedido.PENDENTE && status != Enums.StatusPedido.PENDENTE) desindexarPendente(p);
+        p.setStatus(status);
+    }
+
+    /** Rota refeita de PEDIDO_ALOCADO: o drone fica com ela e vai para o primeiro pedido. */
+    void reproduzirRota(Drone d, List<Pedido> rota) {
+        indiceRotas.atribuir(d, rota);
+        d.assignPedido(rota.get(0));
     }
 
     /**
-     * Aloca pedidos em rotas de 1, 2 ou 3 pacotes para minimizar o número de viagens.
+     * Passa um drone deste serviço para outro (ex.: rebalanceamento entre regiões em DespachoRegional).
+     * O drone chega à base do destino IDLE e com a bateria trocada, sem rota. Só entre ciclos, com os dois
+     * serviços fora de alocação e de simulação, na thread dona dos dois.
+     */
+    public void transferirDrone(Drone d, DroneService destino) {
+        if (!drones.remove(d)) throw new IllegalArgumentException("Drone #" + d.getId() + " não pertence a este serviço.");
+        indiceRotas.atribuir(d, Collections.emptyList());
+        frota.transferir(d, destino.frota);
+        destino.drones.add(d);
+        d.recarregarPosicao();
+        d.recarregar();
+    }
+
+    /**
+     * Aloca pedidos em rotas de até getMaxParadas() pacotes (padrão 3) para minimizar o número de viagens.
      */
     public Map<Drone, List<Pedido>> alocarPedidos() {
+        return alocarPedidos(Enums.ModoAlocacao.SEQUENCIAL);
+    }
+
+    /**
+     * Aloca pedidos no modo escolhido. O modo PARALELO calcula as rotas candidatas de todos os
+     * drones IDLE ao mesmo tempo (ForkJoinPool) e resolve os conflitos em rodadas determinísticas.
+     * A qualidade do plano dos dois modos fica em {@link #getUltimoRelatorioAlocacao()}.
+     */
+    public Map<Drone, List<Pedido>> alocarPedidos(Enums.ModoAlocacao modo) {
+        EventosJfr.Alocacao jfr = EventosJfr.iniciarAlocacao();
+        long inicioNs = System.nanoTime();
+        long avaliadasAntes = metricas.getRotasAvaliadas(), podadasAntes = metricas.getRotasPodadas();
         Map<Drone, List<Pedido>> plan = new HashMap<>();
-        droneDoPedido.clear();
+        indiceRotas.limpar();
+        eventos.publicar(EventoSimulacao.Tipo.ALOCACAO_INICIADA, 0, null);
+        drenarEntrada();
 
         // 1. Resetar e preparar drones
         for (Drone d : drones) {
@@ -87,134 +365,474 @@ public class DroneService {
             d.recarregar(); // Garante IDLE
         }
 
-        // 2. Coletar e ordenar pedidos
-        List<Pedido> pedidosPendentes = new ArrayList<>();
-        for (Pedido p : pedidos) {
-            if (p.getStatus() == Enums.StatusPedido.PENDENTE) pedidosPendentes.add(p);
-        }
-
-        // Ordenação: Prioridade (ALTA > MEDIA > BAIXA); depois por FIFO (para otimizar o 'validarRota')
-        pedidosPendentes.sort(Comparator
-                .comparingInt((Pedido p) -> p.getPrioridade().ordinal()).reversed()
-                .thenComparing(Pedido::getDataChegadaTimestamp)
-        );
+        // 2. Pendentes: já ordenados em filaPendentes por Prioridade (ALTA > MEDIA > BAIXA) e FIFO
+        // (a busca pega a primeira combinação viável nessa ordem)
 
-        int alocados = 0;
-        int viagens = 0;
+        RelatorioAlocacao relatorio = new RelatorioAlocacao();
+        relatorio.modo = modo;
 
         // 3. Iterar sobre drones IDLE e tentar encontrar a melhor rota
+        List<Drone> dronesIdle = new ArrayList<>();
         for (Drone d : drones) {
-            if (d.getStatus() != Enums.StatusDrone.IDLE) continue;
-
-            List<Pedido> melhorRota = buscarMelhorCombinacao(d, pedidosPendentes);
-
-            if (!melhorRota.isEmpty()) {
-                // Alocar todos os pedidos da melhor rota
-                double pesoTotal = 0;
-                for (Pedido p : melhorRota) {
-                    plan.get(d).add(p);
-                    droneDoPedido.put(p, d);
-                    p.setStatus(Enums.StatusPedido.ALOCADO);
-                    pesoTotal += p.getPesoKg();
-                }
-
-                // O drone é atribuído ao PRIMEIRO pedido da rota (para iniciar a simulação)
-                d.assignPedido(melhorRota.get(0));
-                alocados += melhorRota.size();
-                viagens++;
-                System.out.printf("Drone %d alocado com rota de %d pedidos (Peso: %.1fkg).%n", d.getId(), melhorRota.size(), pesoTotal);
-
-                // Remover pedidos alocados da lista de pendentes
-                pedidosPendentes.removeAll(melhorRota);
+            if (d.getStatus() == Enums.StatusDrone.IDLE) dronesIdle.add(d);
+        }
+        if (modo == Enums.ModoAlocacao.PARALELO) {
+            alocarEmRodadas(dronesIdle, plan, relatorio);
+        } else {
+            for (Drone d : dronesIdle) {
+                RotaCandidata melhorRota = buscarMelhorCombinacao(d, motorBusca, candidatosBuffer);
+                aceitarRota(d, melhorRota, plan, relatorio);
             }
+            relatorio.rodadas = 1;
         }
 
         // 4. Marcar pedidos restantes como NÃO_ATENDIDO (se necessário)
-        for (Pedido p : pedidosPendentes) {
+        List<Pedido> restantes = new ArrayList<>(filaPendentes.tamanho());
+        filaPendentes.copiarEmOrdem(restantes);
+        for (Pedido p : restantes) {
             p.setStatus(Enums.StatusPedido.NAO_ATENDIDO);
-            System.out.println("AVISO: Pedido " + p.getId().substring(0, 4) + "... não pode ser atendido (sem drone disponível/otimização).");
+            desindexarPendente(p);
+            relatorio.naoAtendidos++;
+            eventos.publicar(EventoSimulacao.Tipo.NAO_ATENDIDO, 0, p);
         }
 
-        System.out.println("--- Alocação concluída. " + alocados + " pedidos alocados em " + viagens + " viagens. ---");
+        long duracaoNs = System.nanoTime() - inicioNs;
+        relatorio.duracaoMs = duracaoNs / 1_000_000.0;
+        relatorio.rotasAvaliadas = metricas.getRotasAvaliadas() - avaliadasAntes;
+        relatorio.rotasPodadas = metricas.getRotasPodadas() - podadasAntes;
+        ultimoRelatorioAlocacao = relatorio;
+        metricas.registrarAlocacao(duracaoNs, relatorio.pedidosAlocados);
+        registrarJfr(jfr, modo.name(), dronesIdle.size(), relatorio);
+        eventos.publicar(EventoSimulacao.Tipo.ALOCACAO_CONCLUIDA, 0, null, relatorio.pedidosAlocados, relatorio.viagens, 0.0);
         return plan;
     }
 
     /**
-     * Busca a melhor combinação de 1, 2 ou 3 pedidos para o drone.
+     * Alocação incremental, para pedidos que chegam com a simulação em andamento: drena a fila de
+     * entrada e tenta dar uma rota a cada drone livre informado (que deve estar parado na base).
+     * Diferente de alocarPedidos(), não mexe nos outros drones nem nas rotas em curso e não marca
+     * nada como NAO_ATENDIDO: o que sobrar continua pendente para o próximo lote.
+     * Com a fila crescendo sem parar, buscar entre todos os pendentes ao alcance custaria O(pendentes) por
+     * drone; por isso cada drone olha só os primeiros JANELA_CANDIDATOS pendentes ao seu alcance, na ordem
+     * de prioridade. Retorna apenas as rotas novas.
      */
-    private List<Pedido> buscarMelhorCombinacao(Drone drone, List<Pedido> disponiveis) {
-        List<Pedido> melhorRota = Collections.emptyList();
-        int maxPedidos = 0;
+    public Map<Drone, List<Pedido>> alocarPendentes(List<Drone> livres) {
+        EventosJfr.Alocacao jfr = EventosJfr.iniciarAlocacao();
+        long inicioNs = System.nanoTime();
+        long avaliadasAntes = metricas.getRotasAvaliadas(), podadasAntes = metricas.getRotasPodadas();
+        drenarEntrada();
+        Map<Drone, List<Pedido>> novas = new LinkedHashMap<>();
+        RelatorioAlocacao relatorio = new RelatorioAlocacao();
+        for (Drone d : livres) {
+            if (filaPendentes.tamanho() == 0) break;
+            d.recarregarPosicao();
+            d.recarregar(); // Troca de bateria na base
+
+            double raio = d.getAlcanceKm() / 2 + TOLERANCIA_KM;
+            candidatosBuffer.clear();
+            for (Pedido p : filaPendentes.emOrdem()) {
+                if (GeoUtils.distanciaKm(0, 0, p.getX(), p.getY()) > raio) continue;
+                candidatosBuffer.add(p);
+                if (candidatosBuffer.size() == JANELA_CANDIDATOS) break;
+            }
+            RotaCandidata rota = resolverRota(d, candidatosBuffer, motorBusca, Collections.emptyList());
+            if (rota.pedidos.isEmpty()) continue;
+            novas.put(d, new ArrayList<>());
+            aceitarRota(d, rota, novas, relatorio);
+        }
+        relatorio.rotasAvaliadas = metricas.getRotasAvaliadas() - avaliadasAntes;
+        relatorio.rotasPodadas = metricas.getRotasPodadas() - podadasAntes;
+        metricas.registrarAlocacao(System.nanoTime() - inicioNs, relatorio.pedidosAlocados);
+        registrarJfr(jfr, "INCREMENTAL", livres.size(), relatorio);
+        return novas;
+    }
 
-        // Tentativa 1: 3 pacotes (maior otimização)
-        for (int i = 0; i < disponiveis.size(); i++) {
-            for (int j = i + 1; j < disponiveis.size(); j++) {
-                for (int k = j + 1; k < disponiveis.size(); k++) {
-                    List<Pedido> rota3 = Arrays.asList(disponiveis.get(i), disponiveis.get(j), disponiveis.get(k));
-                    if (validarRota(drone, rota3)) {
-                        melhorRota = rota3;
-                        maxPedidos = 3;
-                        return melhorRota; // Encontrou 3, retorna imediatamente
-                    }
-                }
+    /**
+     * Planejamento em ondas sem limite de tempo: todo pedido que algum drone consegue levar é alocado.
+     */
+    public PlanoOndas planejarOndas() {
+        return planejarOndas(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Planejamento em ondas: cada drone faz várias viagens no mesmo ciclo, voltando à base e recarregando
+     * entre elas (RegrasVoo.TEMPO_RECARGA_POR_PONTO), em vez de uma rota só com o resto NAO_ATENDIDO.
+     * Escalonamento por lista para reduzir o makespan da frota: a próxima viagem vai sempre para o drone
+     * que fica disponível primeiro, com a melhor rota (mesma busca e ordem de prioridade da alocação
+     * incremental, numa janela de JANELA_CANDIDATOS pendentes que cabem no drone).
+     * A duração de cada viagem e a recarga seguinte seguem o modelo de bateria do SimuladorEventos
+     * (RegrasVoo.estimarViagem), então o makespan planejado é o que a simulação do plano mede.
+     * Uma viagem só entra no plano se voltar à base até o 'horizonte'; o que ficar de fora continua
+     * PENDENTE para o próximo ciclo, e só os pedidos que nenhum drone consegue levar viram NAO_ATENDIDO.
+     */
+    public PlanoOndas planejarOndas(double horizonte) {
+        EventosJfr.Alocacao jfr = EventosJfr.iniciarAlocacao();
+        long inicioNs = System.nanoTime();
+        long avaliadasAntes = metricas.getRotasAvaliadas(), podadasAntes = metricas.getRotasPodadas();
+        indiceRotas.limpar();
+        eventos.publicar(EventoSimulacao.Tipo.ALOCACAO_INICIADA, 0, null);
+        drenarEntrada();
+
+        PlanoOndas plano = new PlanoOndas(horizonte);
+        RelatorioAlocacao relatorio = new RelatorioAlocacao();
+        relatorio.modo = Enums.ModoAlocacao.SEQUENCIAL;
+        Map<Drone, List<Pedido>> rotas = new LinkedHashMap<>();
+        int[] viagensDoDrone = new int[drones.size()];
+        double[] disponivel = new double[drones.size()];
+        double[] viagem = new double[2];
+        // Drones por horário em que ficam livres na base (empate pela ordem de criação)
+        PriorityQueue<Integer> livres = new PriorityQueue<>(
+                Comparator.comparingDouble((Integer i) -> disponivel[i]).thenComparingInt(i -> i));
+        for (int i = 0; i < drones.size(); i++) {
+            Drone d = drones.get(i);
+            d.recarregarPosicao();
+            d.recarregar();
+            livres.add(i);
+        }
+
+        // NAO_ATENDIDO só o que está fora do alcance, acima da capacidade de todos os drones ou além da bateria
+        // com a própria carga; sai antes do laço para não ser revisto a cada viagem. O resto fica PENDENTE (horizonte)
+        List<Pedido> ordem = new ArrayList<>(filaPendentes.tamanho());
+        filaPendentes.copiarEmOrdem(ordem);
+        // Distâncias até a base de todos os pendentes de uma vez (kernel em lote), lidas pelo filtro de cada drone
+        int total = ordem.size();
+        double[] xs = new double[total], ys = new double[total], distBase = new double[total];
+        for (int c = 0; c < total; c++) {
+            xs[c] = ordem.get(c).getX();
+            ys[c] = ordem.get(c).getY();
+        }
+        GeoUtils.distancias(0, 0, xs, ys, 0, total, distBase);
+        int w = 0;
+        for (int c = 0; c < total; c++) {
+            Pedido p = ordem.get(c);
+            if (algumDroneLeva(p, distBase[c])) {
+                distBase[w] = distBase[c];
+                ordem.set(w++, p);
+                continue;
             }
+            p.setStatus(Enums.StatusPedido.NAO_ATENDIDO);
+            desindexarPendente(p);
+            relatorio.naoAtendidos++;
+            eventos.publicar(EventoSimulacao.Tipo.NAO_ATENDIDO, 0, p);
+        }
+        ordem.subList(w, ordem.size()).clear();
+        // Nada entra na fila durante o planejamento, só sai: o que um drone já pulou (tomado ou que
+        // não cabe nele) não volta a servir, então cada drone retoma a varredura de onde parou
+        int[] cursor = new int[drones.size()];
+
+        while (!livres.isEmpty() && filaPendentes.tamanho() > 0) {
+            int i = livres.poll();
+            Drone d = drones.get(i);
+            // Só candidatos que cabem sozinhos no drone: janela vazia = nada mais serve para ele
+            double raio = d.getAlcanceKm() / 2 + TOLERANCIA_KM;
+            int c = cursor[i];
+            while (c < ordem.size() && !serve(d, raio, ordem.get(c), distBase[c])) c++;
+            cursor[i] = c;
+            candidatosBuffer.clear();
+            for (; c < ordem.size() && candidatosBuffer.size() < JANELA_CANDIDATOS; c++) {
+                if (serve(d, raio, ordem.get(c), distBase[c])) candidatosBuffer.add(ordem.get(c));
+            }
+            RotaCandidata rota = resolverRota(d, candidatosBuffer, motorBusca, Collections.emptyList());
+            if (rota.pedidos.isEmpty()) continue;
+            RegrasVoo.estimarViagem(rota.pedidos, viagem);
+            double partida = disponivel[i];
+            if (partida + viagem[0] > horizonte) continue; // Sem tempo para mais uma viagem neste ciclo
+
+            double consumo = 100.0 - viagem[1];
+            disponivel[i] = partida + viagem[0] + consumo * RegrasVoo.TEMPO_RECARGA_POR_PONTO;
+            plano.adicionar(new PlanoOndas.Viagem(d, viagensDoDrone[i]++, rota.pedidos, rota.distanciaKm,
+                    viagem[0], consumo, partida, disponivel[i]));
+            List<Pedido> rotaDoDrone = rotas.computeIfAbsent(d, x -> new ArrayList<>());
+            for (Pedido p : rota.pedidos) {
+                p.setStatus(Enums.StatusPedido.ALOCADO);
+                desindexarPendente(p);
+                // Parada na rota do ciclo inteiro do drone (as viagens em sequência)
+                eventos.publicar(EventoSimulacao.Tipo.PEDIDO_ALOCADO, d.getId(), p, rotaDoDrone.size(), 0, 0.0);
+                rotaDoDrone.add(p);
+            }
+            relatorio.pedidosAlocados += rota.pedidos.size();
+            relatorio.viagens++;
+            relatorio.distanciaTotalKm += rota.distanciaKm;
+            eventos.publicar(EventoSimulacao.Tipo.ALOCADO, d.getId(), null, rota.pedidos.size(), 0, pesoTotal(rota.pedidos));
+            livres.add(i);
         }
 
-        // Tentativa 2: 2 pacotes
-        if (maxPedidos < 2) {
-            for (int i = 0; i < disponiveis.size(); i++) {
-                for (int j = i + 1; j < disponiveis.size(); j++) {
-                    List<Pedido> rota2 = Arrays.asList(disponiveis.get(i), disponiveis.get(j));
-                    if (validarRota(drone, rota2) && rota2.size() > maxPedidos) {
-                        melhorRota = rota2;
-                        maxPedidos = 2;
-                    }
-                }
+        for (Map.Entry<Drone, List<Pedido>> e : rotas.entrySet()) {
+            indiceRotas.atribuir(e.getKey(), e.getValue());
+            e.getKey().assignPedido(e.getValue().get(0));
+        }
+
+        long duracaoNs = System.nanoTime() - inicioNs;
+        relatorio.rodadas = 1;
+        relatorio.ondas = plano.quantidadeOndas();
+        relatorio.makespan = plano.getMakespan();
+        relatorio.duracaoMs = duracaoNs / 1_000_000.0;
+        relatorio.rotasAvaliadas = metricas.getRotasAvaliadas() - avaliadasAntes;
+        relatorio.rotasPodadas = metricas.getRotasPodadas() - podadasAntes;
+        ultimoRelatorioAlocacao = relatorio;
+        metricas.registrarAlocacao(duracaoNs, relatorio.pedidosAlocados);
+        registrarJfr(jfr, "ONDAS", drones.size(), relatorio);
+        eventos.publicar(EventoSimulacao.Tipo.ALOCACAO_CONCLUIDA, 0, null, relatorio.pedidosAlocados, relatorio.viagens, 0.0);
+        return plano;
+    }
+
+    private static boolean serve(Drone d, double raio, Pedido p, double distanciaBase) {
+        return p.getStatus() == Enums.StatusPedido.PENDENTE && p.getPesoKg() <= d.getCapacidadeKg()
+                && distanciaBase <= raio;
+    }
+
+    private boolean algumDroneLeva(Pedido p, double distancia) {
+        // Pesado demais para a bateria na distância: nenhuma rota o aceita, seja qual for o drone
+        if (!RegrasVoo.vooDiretoCabe(distancia, p.getPesoKg())) return false;
+        for (Drone d : drones) {
+            if (p.getPesoKg() <= d.getCapacidadeKg() && distancia <= d.getAlcanceKm() / 2 + TOLERANCIA_KM) return true;
+        }
+        return false;
+    }
+
+    private static double pesoTotal(List<Pedido> rota) {
+        double peso = 0;
+        for (Pedido p : rota) peso += p.getPesoKg();
+        return peso;
+    }
+
+    private void registrarJfr(EventosJfr.Alocacao jfr, String modo, int drones, RelatorioAlocacao relatorio) {
+        if (jfr == null) return;
+        jfr.end();
+        if (!jfr.shouldCommit()) return;
+        jfr.modo = modo;
+        jfr.drones = drones;
+        jfr.pedidosAlocados = relatorio.pedidosAlocados;
+        jfr.viagens = relatorio.viagens;
+        jfr.naoAtendidos = relatorio.naoAtendidos;
+        jfr.rotasAvaliadas = relatorio.rotasAvaliadas;
+        jfr.rotasPodadas = relatorio.rotasPodadas;
+        jfr.commit();
+    }
+
+    /**
+     * Todos os drones IDLE, na base e sem pedido: os candidatos naturais para alocarPendentes().
+     */
+    public List<Drone> dronesLivresNaBase() {
+        List<Drone> livres = new ArrayList<>();
+        for (Drone d : drones) {
+            if (d.getStatus() == Enums.StatusDrone.IDLE && d.getCurrentPedido() == null
+                    && d.getX() == 0 && d.getY() == 0) {
+                livres.add(d);
             }
         }
+        return livres;
+    }
 
-        // Tentativa 3: 1 pacote
-        if (maxPedidos < 1) {
-            for (Pedido p : disponiveis) {
-                List<Pedido> rota1 = Collections.singletonList(p);
-                if (validarRota(drone, rota1)) {
-                    // Como a lista já está ordenada por prioridade, o primeiro que cabe é a melhor opção "simples"
-                    melhorRota = rota1;
-                    maxPedidos = 1;
-                    break;
+    /**
+     * Alocação paralela em rodadas determinísticas. Em cada rodada, as propostas dos drones ainda sem rota
+     * são calculadas em paralelo sobre os pendentes; para não disputarem todos o mesmo pedido, cada drone
+     * ignora os pedidos que um drone anterior propôs na rodada passada. A arbitragem aceita primeiro a
+     * proposta que leva o pedido de maior prioridade (empate pela ordem do drone); as propostas em conflito
+     * são recalculadas na rodada seguinte. O resultado é reprodutível, mas pode diferir do modo SEQUENCIAL.
+     */
+    private void alocarEmRodadas(List<Drone> dronesIdle, Map<Drone, List<Pedido>> plan, RelatorioAlocacao relatorio) {
+        int n = dronesIdle.size();
+        RotaCandidata[] propostas = new RotaCandidata[n];
+        boolean[] resolvido = new boolean[n];
+        int restantes = n;
+        boolean especular = true;
+
+        while (restantes > 0) {
+            relatorio.rodadas++;
+            // Primeiro drone (ainda sem rota) que propôs cada pedido na rodada anterior
+            Map<Pedido, Integer> donoEspeculado = new HashMap<>();
+            if (especular) {
+                for (int i = 0; i < n; i++) {
+                    if (resolvido[i] || propostas[i] == null) continue;
+                    for (Pedido p : propostas[i].pedidos) donoEspeculado.putIfAbsent(p, i);
+                }
+            }
+
+            List<Callable<Void>> tarefas = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (resolvido[i]) continue;
+                if (propostas[i] != null && !propostas[i].pedidos.isEmpty() && propostas[i].livre()) continue; // Ainda vale
+                final int idx = i;
+                tarefas.add(() -> {
+                    propostas[idx] = buscarMelhorCombinacao(dronesIdle.get(idx), motorPorThread.get(),
+                            new ArrayList<>(), donoEspeculado, idx);
+                    return null;
+                });
+            }
+            // invokeAll garante a visibilidade das propostas escritas pelos workers
+            for (Future<Void> f : poolAlocacao.invokeAll(tarefas)) {
+                try {
+                    f.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Alocação paralela interrompida.", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Falha na alocação paralela: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+
+            // Arbitragem por prioridade
+            List<Integer> ordem = new ArrayList<>();
+            for (int i = 0; i < n; i++) if (!resolvido[i]) ordem.add(i);
+            ordem.sort(Comparator.comparingLong((Integer i) -> propostas[i].melhorPosicao(filaPendentes))
+                    .thenComparingInt(i -> i));
+            int resolvidosNaRodada = 0;
+            for (int i : ordem) {
+                RotaCandidata proposta = propostas[i];
+                if (proposta.pedidos.isEmpty()) {
+                    // Sem rota: definitivo só se tudo o que foi ignorado já tem dono
+                    if (!proposta.excluidosTomados()) continue;
+                } else if (!proposta.livre()) {
+                    continue; // Conflito: recalcula na próxima rodada
                 }
+                aceitarRota(dronesIdle.get(i), proposta, plan, relatorio);
+                resolvido[i] = true;
+                resolvidosNaRodada++;
             }
+            restantes -= resolvidosNaRodada;
+            // Se nada foi resolvido (só propostas vazias especulativas), a próxima rodada busca sem especular
+            especular = resolvidosNaRodada > 0;
         }
+    }
+
+    private void aceitarRota(Drone d, RotaCandidata melhorRota, Map<Drone, List<Pedido>> plan, RelatorioAlocacao relatorio) {
+        if (melhorRota.pedidos.isEmpty()) return;
+
+        // Alocar todos os pedidos da melhor rota
+        double pesoTotal = 0;
+        for (int r = 0; r < melhorRota.pedidos.size(); r++) {
+            Pedido p = melhorRota.pedidos.get(r);
+            plan.get(d).add(p);
+            p.setStatus(Enums.StatusPedido.ALOCADO);
+            desindexarPendente(p);
+            pesoTotal += p.getPesoKg();
+            eventos.publicar(EventoSimulacao.Tipo.PEDIDO_ALOCADO, d.getId(), p, r, 0, 0.0);
+        }
+
+        indiceRotas.atribuir(d, melhorRota.pedidos);
+
+        // O drone é atribuído ao PRIMEIRO pedido da rota (para iniciar a simulação)
+        d.assignPedido(melhorRota.pedidos.get(0));
+        relatorio.pedidosAlocados += melhorRota.pedidos.size();
+        relatorio.viagens++;
+        relatorio.distanciaTotalKm += melhorRota.distanciaKm;
+        eventos.publicar(EventoSimulacao.Tipo.ALOCADO, d.getId(), null, melhorRota.pedidos.size(), 0, pesoTotal);
+    }
 
-        return melhorRota;
+    /**
+     * Busca a melhor combinação de até getMaxParadas() pedidos para o drone.
+     * Os candidatos vêm do índice espacial (apenas pedidos a até alcance/2 da base) e a
+     * enumeração/poda é feita pelo MotorBuscaRota, que também escolhe a melhor ordem de visita.
+     * Só lê o índice, então pode rodar em paralelo desde que cada thread use o seu motor e buffer.
+     */
+    private RotaCandidata buscarMelhorCombinacao(Drone drone, MotorBuscaRota motor, List<Pedido> disponiveis) {
+        return buscarMelhorCombinacao(drone, motor, disponiveis, null, 0);
     }
 
     /**
-     * Verifica se o drone consegue realizar a rota (peso e distância).
-     * Rota: Base(0,0) -> P1 -> P2 -> ... -> Base(0,0)
+     * Variante especulativa: ignora os pedidos cujo dono especulado é um drone anterior a 'posicao'
+     * e registra quais foram ignorados (para validar a proposta depois).
      */
-    private boolean validarRota(Drone drone, List<Pedido> rota) {
-        // 1. Validação de Peso
-        double pesoTotal = rota.stream().mapToDouble(Pedido::getPesoKg).sum();
-        if (pesoTotal > drone.getCapacidadeKg()) {
-            return false;
+    private RotaCandidata buscarMelhorCombinacao(Drone drone, MotorBuscaRota motor, List<Pedido> disponiveis,
+                                                 Map<Pedido, Integer> donoEspeculado, int posicao) {
+        disponiveis.clear();
+        pendentesIndexados.buscarRaio(0, 0, drone.getAlcanceKm() / 2 + TOLERANCIA_KM, disponiveis);
+        List<Pedido> excluidos = Collections.emptyList();
+        if (donoEspeculado != null && !donoEspeculado.isEmpty()) {
+            excluidos = new ArrayList<>();
+            int w = 0;
+            for (Pedido p : disponiveis) {
+                Integer dono = donoEspeculado.get(p);
+                if (dono != null && dono < posicao) excluidos.add(p);
+                else disponiveis.set(w++, p);
+            }
+            disponiveis.subList(w, disponiveis.size()).clear();
+        }
+        // Mantém a ordem de prioridade/FIFO: a primeira combinação viável é a de maior prioridade
+        disponiveis.sort(Comparator.comparingLong(filaPendentes::ordem));
+        return resolverRota(drone, disponiveis, motor, excluidos);
+    }
+
+    /**
+     * Roda o motor de busca sobre candidatos já em ordem de prioridade.
+     */
+    private RotaCandidata resolverRota(Drone drone, List<Pedido> disponiveis, MotorBuscaRota motor,
+                                       List<Pedido> excluidos) {
+        motor.carregar(disponiveis);
+        int paradas = motor.buscar(drone.getCapacidadeKg(), drone.getAlcanceKm());
+        metricas.registrarBusca(motor.rotasAvaliadas(), motor.rotasPodadas());
+        List<Pedido> rota = new ArrayList<>(paradas);
+        for (int i = 0; i < paradas; i++) rota.add(disponiveis.get(motor.parada(i)));
+        return new RotaCandidata(rota, motor.distanciaMelhor(), excluidos);
+    }
+
+    private static final class RotaCandidata {
+        final List<Pedido> pedidos;
+        final double distanciaKm;
+        // Candidatos ignorados na busca especulativa (devem estar tomados para a proposta ser exata)
+        final List<Pedido> excluidos;
+
+        RotaCandidata(List<Pedido> pedidos, double distanciaKm, List<Pedido> excluidos) {
+            this.pedidos = pedidos;
+            this.distanciaKm = distanciaKm;
+            this.excluidos = excluidos;
         }
 
-        // 2. Validação de Alcance (Distância Total)
-        double distanciaTotal = 0.0;
-        double atualX = 0.0;
-        double atualY = 0.0;
+        boolean livre() {
+            for (Pedido p : pedidos) {
+                if (p.getStatus() != Enums.StatusPedido.PENDENTE) return false;
+            }
+            return true;
+        }
 
-        for (Pedido p : rota) {
-            distanciaTotal += GeoUtils.distanciaKm(atualX, atualY, p.getX(), p.getY());
-            atualX = p.getX();
-            atualY = p.getY();
+        boolean excluidosTomados() {
+            for (Pedido p : excluidos) {
+                if (p.getStatus() == Enums.StatusPedido.PENDENTE) return false;
+            }
+            return true;
         }
 
-        // Adicionar o retorno à base (último ponto para 0,0)
-        distanciaTotal += GeoUtils.distanciaKm(atualX, atualY, 0, 0);
+        /** Posição (na ordem de atendimento) do pedido mais prioritário da rota. */
+        long melhorPosicao(FilaPendentes fila) {
+            long melhor = Long.MAX_VALUE;
+            for (Pedido p : pedidos) melhor = Math.min(melhor, fila.ordem(p));
+            return melhor;
+        }
+    }
+
+    /**
+     * Qualidade e custo da última alocação (comparável entre os modos SEQUENCIAL e PARALELO).
+     */
+    public static class RelatorioAlocacao {
+        public Enums.ModoAlocacao modo;
+        public int pedidosAlocados;
+        public int viagens;
+        public int naoAtendidos;
+        public double distanciaTotalKm;
+        public int rodadas;
+        public double duracaoMs;
+        public long rotasAvaliadas;
+        public long rotasPodadas;
+        // Só no planejamento em ondas: viagens do drone mais ocupado e retorno da última viagem
+        public int ondas;
+        public double makespan;
+
+        @Override
+        public String toString() {
+            String texto = String.format("=== RELATÓRIO DE ALOCAÇÃO (%s) ===%n" +
+                            "Pedidos alocados: %d em %d viagens | Não atendidos: %d%n" +
+                            "Distância total planejada: %.2fkm | Rodadas: %d | Tempo: %.2fms%n" +
+                            "Rotas avaliadas: %d | Rotas podadas: %d",
+                    modo, pedidosAlocados, viagens, naoAtendidos, distanciaTotalKm, rodadas, duracaoMs,
+                    rotasAvaliadas, rotasPodadas);
+            if (ondas > 0) texto += String.format("%nOndas: %d | Makespan: %.2fkm", ondas, makespan);
+            return texto;
+        }
+    }
 
-        return distanciaTotal <= drone.getAlcanceKm();
+    public RelatorioAlocacao getUltimoRelatorioAlocacao() {
+        return ultimoRelatorioAlocacao;
     }
 
     public Map<Integer, Integer> entregasPorDrone(Map<Drone, List<Pedido>> plan) {
@@ -0,0 +1,183 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.Pedido;
+
+/**
+ * Evento tipado da alocação/simulação. Os caminhos quentes publicam só valores primitivos e a
+ * referência do pedido; o texto para o console é montado aqui, apenas quando alguém vai escrevê-lo.
+ * As instâncias são mutáveis para poderem ser reaproveitadas como slots do buffer circular.
+ */
+public class EventoSimulacao {
+
+    // TRACO: mudanças de estado por pedido e por drone, abaixo do DEBUG do console (para o DiarioEventos)
+    public enum Nivel { TRACO, DEBUG, INFO, AVISO, ERRO }
+
+    public enum Tipo {
+        // Pedidos e alocação
+        PEDIDO_CRIADO(Nivel.INFO),
+        PEDIDO_REJEITADO(Nivel.ERRO),
+        CENARIO_CARREGADO(Nivel.INFO),
+        RESET(Nivel.INFO),
+        ALOCADO(Nivel.INFO),
+        NAO_ATENDIDO(Nivel.AVISO),
+        ALOCACAO_CONCLUIDA(Nivel.INFO),
+        // Simulação técnica
+        SIMULACAO_INICIADA(Nivel.INFO),
+        SIMULACAO_SEM_PEDIDOS(Nivel.ERRO),
+        EM_VOO(Nivel.DEBUG),
+        RECARGA_URGENTE(Nivel.AVISO),
+        RETORNO_BASE(Nivel.DEBUG),
+        SIMULACAO_CONCLUIDA(Nivel.INFO),
+        // Simulação dinâmica
+        SIMULACAO_DINAMICA_INICIADA(Nivel.INFO),
+        CARREGANDO(Nivel.DEBUG),
+        ENTREGUE(Nivel.INFO),
+        FIM_ROTA(Nivel.DEBUG),
+        PROXIMIDADE(Nivel.DEBUG),
+        RECARGA(Nivel.AVISO),
+        CHEGOU_BASE(Nivel.DEBUG),
+        BATERIA_BAIXA(Nivel.AVISO),
+        // Mudanças de estado por pedido e por drone (para o DiarioEventos)
+        PEDIDO_IMPORTADO(Nivel.TRACO),
+        ALOCACAO_INICIADA(Nivel.TRACO),
+        PEDIDO_ALOCADO(Nivel.TRACO),
+        PEDIDO_LIBERADO(Nivel.TRACO),
+        PEDIDO_RETIRADO(Nivel.TRACO),
+        PEDIDO_ENTREGUE(Nivel.TRACO),
+        STATUS_DRONE(Nivel.TRACO);
+
+        public final Nivel nivel;
+
+        Tipo(Nivel nivel) {
+            this.nivel = nivel;
+        }
+    }
+
+    public Tipo tipo;
+    public int droneId;
+    public Pedido pedido;
+    public int n1;
+    public int n2;
+    public double valor;
+
+    public void preencher(Tipo tipo, int droneId, Pedido pedido, int n1, int n2, double valor) {
+        this.tipo = tipo;
+        this.droneId = droneId;
+        this.pedido = pedido;
+        this.n1 = n1;
+        this.n2 = n2;
+        this.valor = valor;
+    }
+
+    /** Eventos de erro vão para System.err (como antes nos println). */
+    public boolean saidaErro() {
+        return tipo == Tipo.PEDIDO_REJEITADO || tipo == Tipo.SIMULACAO_SEM_PEDIDOS;
+    }
+
+    /**
+     * Acrescenta o texto do evento (uma ou mais linhas, sem a quebra final) ao buffer.
+     */
+    public void formatar(StringBuilder sb) {
+        String nl = System.lineSeparator();
+        switch (tipo) {
+            case PEDIDO_CRIADO:
+                sb.append("Pedido criado: #").append(pedido.getId());
+                break;
+            case PEDIDO_REJEITADO:
+                sb.append("Pacote rejeitado. Peso (").append(valor).append("kg) excede a capacidade máxima de qualquer drone.");
+                break;
+            case CENARIO_CARREGADO:
+                sb.append("Cenário carregado: ").append(n1).append(" drones e ").append(n2).append(" pedidos");
+                if (valor > 0) sb.append(" (").append((long) valor).append(" rejeitados por peso)");
+                sb.append(".");
+                break;
+            case RESET:
+                sb.append("Status de pedidos e drones resetados. Prontos para nova alocação.");
+                break;
+            case ALOCADO:
+                sb.append(String.format("Drone %d alocado com rota de %d pedidos (Peso: %.1fkg).", droneId, n1, valor));
+                break;
+            case NAO_ATENDIDO:
+                sb.append("AVISO: Pedido #").append(pedido.getId()).append(" não pode ser atendido (sem drone disponível/otimização).");
+                break;
+            case ALOCACAO_CONCLUIDA:
+                sb.append("--- Alocação concluída. ").append(n1).append(" pedidos alocados em ").append(n2).append(" viagens. ---");
+                break;
+            case SIMULACAO_INICIADA:
+                sb.append("--- INICIANDO SIMULAÇÃO TÉCNICA (Rotas Otimizadas) ---").append(nl)
+                        .append("Pedidos alocados para simulação: ").append(n1);
+                break;
+            case SIMULACAO_SEM_PEDIDOS:
+                sb.append("AVISO: Nenhum pedido alocado. Verifique se criou pedidos (opção 1) e se eles são compatíveis com a capacidade/alcance dos drones.");
+                break;
+            case EM_VOO:
+                sb.append("-> Drone ").append(droneId).append(" em voo para Pedido #").append(pedido.getId())
+                        .append(" (").append(pedido.getPesoKg()).append("kg) em (")
+                        .append(pedido.getX()).append(", ").append(pedido.getY()).append(")");
+                break;
+            case RECARGA_URGENTE:
+                sb.append("   [RECARGA URGENTE] Drone ").append(droneId).append(" retornando à base (Bateria: ")
+                        .append(String.format("%.1f", valor)).append("%).").append(nl)
+                        .append("   [RECARGA CONCLUÍDA] Drone ").append(droneId).append(" retorna à missão a partir da base (0,0).");
+                break;
+            case RETORNO_BASE:
+                sb.append("-> Drone ").append(droneId).append(" finalizou entregas, retornando à base. Distância: ")
+                        .append(String.format("%.2f", valor)).append("km");
+                break;
+            case SIMULACAO_CONCLUIDA:
+                sb.append("--- SIMULAÇÃO TÉCNICA CONCLUÍDA ---").append(nl);
+                break;
+            case SIMULACAO_DINAMICA_INICIADA:
+                sb.append("--- Iniciando Simulação Dinâmica (Mapa ASCII) ---");
+                break;
+            case CARREGANDO:
+                sb.append("Drone ").append(droneId).append(" CARREGANDO pedido #").append(pedido.getId()).append("...");
+                break;
+            case ENTREGUE:
+                sb.append("Drone ").append(droneId).append(" **CHEGOU** e entregou pedido #").append(pedido.getId()).append("!");
+                break;
+            case FIM_ROTA:
+                sb.append("Drone ").append(droneId).append(" finalizou todas as entregas. **RETORNANDO à base**.");
+                break;
+            case PROXIMIDADE:
+                sb.append(">> ALERTA: Drone ").append(droneId).append(" próximo do destino. Restam ")
+                        .append(String.format("%.1f", valor)).append("km.");
+                break;
+            case RECARGA:
+                sb.append("Drone ").append(droneId).append(" chegou à base e precisa de **RECARGA**.");
+                break;
+            case CHEGOU_BASE:
+                sb.append("Drone ").append(droneId).append(" chegou na base (0,0) e está **IDLE** a espera de novo ciclo.");
+                break;
+            case BATERIA_BAIXA:
+                sb.append("ALERTA CRÍTICO: Drone ").append(droneId).append(" bateria baixa (")
+                        .append(String.format("%.1f", valor)).append("%). RETORNANDO IMEDIATAMENTE!");
+                break;
+            case PEDIDO_IMPORTADO:
+                sb.append("Pedido importado: #").append(pedido.getId());
+                break;
+            case ALOCACAO_INICIADA:
+                sb.append("Alocação iniciada: rotas anteriores descartadas.");
+                break;
+            case PEDIDO_ALOCADO:
+                sb.append("Pedido #").append(pedido.getId()).append(" na parada ").append(n1).append(" do drone ").append(droneId).append(".");
+                break;
+            case PEDIDO_LIBERADO:
+                sb.append("Pedido #").append(pedido.getId()).append(" devolvido aos pendentes.");
+                break;
+            case PEDIDO_RETIRADO:
+                sb.append("Pedido #").append(pedido.getId()).append(" retirado do serviço.");
+                break;
+            case PEDIDO_ENTREGUE:
+                sb.append("Drone ").append(droneId).append(" entregou pedido #").append(pedido.getId()).append(".");
+                break;
+            case STATUS_DRONE:
+                sb.append("Drone ").append(droneId).append(" ").append(Enums.StatusDrone.values()[n1])
+                        .append(" (Bateria: ").append(String.format("%.1f", valor)).append("%).");
+                break;
+            default:
+                sb.append(tipo);
+        }
+    }
+}
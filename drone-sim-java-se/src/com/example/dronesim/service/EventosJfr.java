@@ -0,0 +1,89 @@
+package com.example.dronesim.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Eventos JFR próprios do simulador. Aparecem em qualquer gravação (ex.: java -XX:StartFlightRecording ...
+ * ou jcmd &lt;pid&gt; JFR.start) sob a categoria "Drone Simulator", sem mudar código.
+ * Enquanto o JFR não foi iniciado no processo, os eventos nem são criados: carregar a infraestrutura
+ * do JFR custa uns 200 ms de partida, o que pesa no modo lote rodado centenas de vezes.
+ */
+public final class EventosJfr {
+    private EventosJfr() {}
+
+    // Quem chama só toca na classe do evento quando recebe uma instância (senão o JFR é carregado)
+
+    /** Início de uma alocação (null se o JFR não está ativo no processo). */
+    static Alocacao iniciarAlocacao() {
+        if (!FlightRecorder.isInitialized()) return null;
+        Alocacao evento = new Alocacao();
+        evento.begin();
+        return evento;
+    }
+
+    /** Início de um tick (null se o JFR não está ativo no processo). */
+    static Tick iniciarTick() {
+        if (!FlightRecorder.isInitialized()) return null;
+        Tick evento = new Tick();
+        evento.begin();
+        return evento;
+    }
+
+    @Name("com.example.dronesim.Alocacao")
+    @Label("Alocação de pedidos")
+    @Description("Uma passada de alocação (completa ou incremental)")
+    @Category("Drone Simulator")
+    @StackTrace(false)
+    public static final class Alocacao extends Event {
+        @Label("Modo")
+        public String modo;
+        @Label("Drones")
+        public int drones;
+        @Label("Pedidos alocados")
+        public int pedidosAlocados;
+        @Label("Viagens")
+        public int viagens;
+        @Label("Não atendidos")
+        public int naoAtendidos;
+        @Label("Rotas avaliadas")
+        public long rotasAvaliadas;
+        @Label("Rotas podadas")
+        public long rotasPodadas;
+    }
+
+    /**
+     * Um tick do motor headless ou da simulação ASCII. Só entram na gravação os ticks a partir do
+     * limite padrão (os ticks comuns duram microssegundos); use threshold=0 ms nas configurações da
+     * gravação para registrar todos.
+     */
+    @Name("com.example.dronesim.Tick")
+    @Label("Tick de simulação")
+    @Category("Drone Simulator")
+    @StackTrace(false)
+    @Threshold("1 ms")
+    public static final class Tick extends Event {
+        @Label("Tick")
+        public long tick;
+        @Label("Drones")
+        public int drones;
+        @Label("Eventos")
+        public int eventos;
+
+        /** Encerra o evento e grava, se a gravação estiver aceitando (dentro do limite). */
+        void concluir(long tick, int drones, int eventos) {
+            end();
+            if (!shouldCommit()) return;
+            this.tick = tick;
+            this.drones = drones;
+            this.eventos = eventos;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Pedido;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice das rotas atribuídas nos dois sentidos: drone -> pedidos (na ordem de visita da rota) e
+ * pedido -> drone. O lado do drone é uma tabela de hash aberta com o id primitivo como chave
+ * (sem boxing), e as duas consultas são O(1). É atualizado pela alocação e pelos simuladores
+ * (ex.: pedidos abandonados num retorno por bateria crítica).
+ */
+public class IndiceRotas {
+    // Ids de drone começam em 1: 0 marca posição livre na tabela
+    private static final int LIVRE = 0;
+
+    private int[] chaves = new int[16];
+    private int[] posicoes = new int[16];
+    private int ocupados = 0;
+
+    // Posição k: rota de um drone (a lista é reaproveitada quando o drone recebe uma rota nova)
+    private final List<List<Pedido>> rotas = new ArrayList<>();
+    private final Map<Pedido, Drone> droneDoPedido = new HashMap<>();
+
+    /**
+     * Define a rota do drone (substitui a anterior, que deixa de apontar para ele).
+     */
+    public void atribuir(Drone d, List<Pedido> rota) {
+        List<Pedido> atual = rotaMutavel(d);
+        for (Pedido p : atual) droneDoPedido.remove(p);
+        atual.clear();
+        for (Pedido p : rota) {
+            Drone anterior = droneDoPedido.put(p, d);
+            if (anterior != null && anterior != d) rotaMutavel(anterior).remove(p);
+            atual.add(p);
+        }
+    }
+
+    /**
+     * Tira o pedido da rota do drone que o tinha. Retorna esse drone (ou null).
+     */
+    public Drone liberar(Pedido p) {
+        Drone d = droneDoPedido.remove(p);
+        if (d != null) rotaMutavel(d).remove(p);
+        return d;
+    }
+
+    /** Rota do drone na ordem de visita (vazia se não tiver). Somente leitura. */
+    public List<Pedido> rota(int droneId) {
+        int k = buscar(droneId);
+        return k < 0 ? Collections.emptyList() : Collections.unmodifiableList(rotas.get(k));
+    }
+
+    /** Drone que está com o pedido (ou null). */
+    public Drone droneDo(Pedido p) {
+        return droneDoPedido.get(p);
+    }
+
+    public void limpar() {
+        for (List<Pedido> rota : rotas) rota.clear();
+        droneDoPedido.clear();
+    }
+
+    private List<Pedido> rotaMutavel(Drone d) {
+        int k = buscar(d.getId());
+        if (k >= 0) return rotas.get(k);
+        k = rotas.size();
+        rotas.add(new ArrayList<>(3));
+        inserir(d.getId(), k);
+        return rotas.get(k);
+    }
+
+    // --- Tabela aberta id -> posição (sondagem linear) ---
+
+    private int buscar(int id) {
+        int mascara = chaves.length - 1;
+        for (int i = espalhar(id) & mascara; ; i = (i + 1) & mascara) {
+            if (chaves[i] == id) return posicoes[i];
+            if (chaves[i] == LIVRE) return -1;
+        }
+    }
+
+    private void inserir(int id, int posicao) {
+        if ((ocupados + 1) * 2 > chaves.length) crescer();
+        int mascara = chaves.length - 1;
+        int i = espalhar(id) & mascara;
+        while (chaves[i] != LIVRE) i = (i + 1) & mascara;
+        chaves[i] = id;
+        posicoes[i] = posicao;
+        ocupados++;
+    }
+
+    private void crescer() {
+        int[] velhasChaves = chaves;
+        int[] velhasPosicoes = posicoes;
+        chaves = new int[velhasChaves.length * 2];
+        posicoes = new int[velhasChaves.length * 2];
+        ocupados = 0;
+        for (int i = 0; i < velhasChaves.length; i++) {
+            if (velhasChaves[i] != LIVRE) inserir(velhasChaves[i], velhasPosicoes[i]);
+        }
+    }
+
+    private static int espalhar(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.util.HistogramaLatencia;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores e histogramas de latência da alocação e dos simuladores, sempre ligados. Os caminhos
+ * quentes não tocam aqui a cada passo: o MotorBuscaRota conta em campos próprios e entrega os totais
+ * uma vez por busca, e os simuladores registram uma vez por tick ou por execução. Pode ser exposto
+ * via JMX ({@link #registrarMBean()}) para acompanhar uma execução ao vivo (JConsole, VisualVM).
+ */
+public class MetricasSimulacao implements MetricasSimulacaoMBean {
+    public static final String NOME_MBEAN = "com.example.dronesim:type=Metricas";
+
+    private final LongAdder buscasRota = new LongAdder();
+    private final LongAdder rotasAvaliadas = new LongAdder();
+    private final LongAdder rotasPodadas = new LongAdder();
+    private final LongAdder alocacoes = new LongAdder();
+    private final LongAdder pedidosAlocados = new LongAdder();
+    private final LongAdder simulacoes = new LongAdder();
+    private final LongAdder eventosSimulacao = new LongAdder();
+    private final LongAdder entregas = new LongAdder();
+    private final LongAdder recargasUrgentes = new LongAdder();
+    private final HistogramaLatencia latenciaAlocacao = new HistogramaLatencia();
+    private final HistogramaLatencia duracaoTick = new HistogramaLatencia();
+    private volatile double eventosPorSegundo;
+
+    // --- Registro (chamado pelo serviço e pelos simuladores) ---
+
+    /** Uma busca de rota (um drone): combinações avaliadas e descartadas pela poda. Thread-safe. */
+    void registrarBusca(long avaliadas, long podadas) {
+        buscasRota.increment();
+        rotasAvaliadas.add(avaliadas);
+        rotasPodadas.add(podadas);
+    }
+
+    void registrarAlocacao(long duracaoNs, int pedidos) {
+        alocacoes.increment();
+        pedidosAlocados.add(pedidos);
+        latenciaAlocacao.registrar(duracaoNs);
+    }
+
+    void registrarTick(long duracaoNs) {
+        duracaoTick.registrar(duracaoNs);
+    }
+
+    /** Fim de uma execução de simulação: eventos processados e duração (define os eventos/s). */
+    void registrarSimulacao(long eventos, long duracaoNs) {
+        simulacoes.increment();
+        eventosSimulacao.add(eventos);
+        eventosPorSegundo = duracaoNs > 0 ? eventos * 1e9 / duracaoNs : 0.0;
+    }
+
+    /** Entregas de uma execução e quantas idas à base no meio da rota (bateria baixa) ela precisou. */
+    void registrarEntregas(long feitas, long urgentes) {
+        entregas.add(feitas);
+        recargasUrgentes.add(urgentes);
+    }
+
+    /**
+     * Registra estas métricas no MBeanServer da plataforma com o nome {@link #NOME_MBEAN}
+     * (substitui um registro anterior com o mesmo nome).
+     */
+    public void registrarMBean() {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nome = new ObjectName(NOME_MBEAN);
+            if (servidor.isRegistered(nome)) servidor.unregisterMBean(nome);
+            servidor.registerMBean(this, nome);
+        } catch (JMException e) {
+            throw new IllegalStateException("Não foi possível registrar o MBean de métricas: " + e.getMessage(), e);
+        }
+    }
+
+    // --- Leitura (MBean) ---
+
+    @Override public long getBuscasRota() { return buscasRota.sum(); }
+    @Override public long getRotasAvaliadas() { return rotasAvaliadas.sum(); }
+    @Override public long getRotasPodadas() { return rotasPodadas.sum(); }
+
+    @Override public long getAlocacoes() { return alocacoes.sum(); }
+    @Override public long getPedidosAlocados() { return pedidosAlocados.sum(); }
+    @Override public double getAlocacaoLatenciaMediaMs() { return latenciaAlocacao.media() / 1e6; }
+    @Override public double getAlocacaoLatenciaP50Ms() { return latenciaAlocacao.percentil(0.50) / 1e6; }
+    @Override public double getAlocacaoLatenciaP99Ms() { return latenciaAlocacao.percentil(0.99) / 1e6; }
+    @Override public double getAlocacaoLatenciaMaxMs() { return latenciaAlocacao.maximo() / 1e6; }
+
+    @Override public long getTicks() { return duracaoTick.contagem(); }
+    @Override public double getTickDuracaoMediaUs() { return duracaoTick.media() / 1e3; }
+    @Override public double getTickDuracaoP50Us() { return duracaoTick.percentil(0.50) / 1e3; }
+    @Override public double getTickDuracaoP99Us() { return duracaoTick.percentil(0.99) / 1e3; }
+    @Override public double getTickDuracaoMaxUs() { return duracaoTick.maximo() / 1e3; }
+
+    @Override public long getSimulacoes() { return simulacoes.sum(); }
+    @Override public long getEventosSimulacao() { return eventosSimulacao.sum(); }
+    /** Eventos por segundo da última simulação concluída. */
+    @Override public double getEventosPorSegundo() { return eventosPorSegundo; }
+    @Override public long getEntregas() { return entregas.sum(); }
+    @Override public long getRecargasUrgentes() { return recargasUrgentes.sum(); }
+    @Override public double getRecargasUrgentesPorEntrega() {
+        long feitas = getEntregas();
+        return feitas > 0 ? (double) getRecargasUrgentes() / feitas : 0.0;
+    }
+
+    @Override
+    public void zerar() {
+        buscasRota.reset();
+        rotasAvaliadas.reset();
+        rotasPodadas.reset();
+        alocacoes.reset();
+        pedidosAlocados.reset();
+        simulacoes.reset();
+        eventosSimulacao.reset();
+        entregas.reset();
+        recargasUrgentes.reset();
+        latenciaAlocacao.zerar();
+        duracaoTick.zerar();
+        eventosPorSegundo = 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("=== MÉTRICAS ===%n" +
+                        "Buscas de rota: %d | Rotas avaliadas: %d | Rotas podadas: %d%n" +
+                        "Alocações: %d (%d pedidos) | Latência média: %.3fms | p50: %.3fms | p99: %.3fms | máx: %.3fms%n" +
+                        "Ticks: %d | Duração média: %.1fµs | p50: %.1fµs | p99: %.1fµs | máx: %.1fµs%n" +
+                        "Simulações: %d | Eventos: %d | Eventos/s (última): %.0f%n" +
+                        "Entregas: %d | Recargas urgentes: %d (%.3f por entrega)",
+                getBuscasRota(), getRotasAvaliadas(), getRotasPodadas(),
+                getAlocacoes(), getPedidosAlocados(), getAlocacaoLatenciaMediaMs(), getAlocacaoLatenciaP50Ms(),
+                getAlocacaoLatenciaP99Ms(), getAlocacaoLatenciaMaxMs(),
+                getTicks(), getTickDuracaoMediaUs(), getTickDuracaoP50Us(), getTickDuracaoP99Us(), getTickDuracaoMaxUs(),
+                getSimulacoes(), getEventosSimulacao(), getEventosPorSegundo(),
+                getEntregas(), getRecargasUrgentes(), getRecargasUrgentesPorEntrega());
+    }
+}
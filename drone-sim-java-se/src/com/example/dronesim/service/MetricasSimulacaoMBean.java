@@ -0,0 +1,33 @@
+package com.example.dronesim.service;
+
+/**
+ * Interface JMX (MBean padrão) das métricas de alocação e simulação. Latências de alocação em ms e
+ * de tick em µs; percentis com erro de até 12,5% (ver HistogramaLatencia).
+ */
+public interface MetricasSimulacaoMBean {
+    long getBuscasRota();
+    long getRotasAvaliadas();
+    long getRotasPodadas();
+
+    long getAlocacoes();
+    long getPedidosAlocados();
+    double getAlocacaoLatenciaMediaMs();
+    double getAlocacaoLatenciaP50Ms();
+    double getAlocacaoLatenciaP99Ms();
+    double getAlocacaoLatenciaMaxMs();
+
+    long getTicks();
+    double getTickDuracaoMediaUs();
+    double getTickDuracaoP50Us();
+    double getTickDuracaoP99Us();
+    double getTickDuracaoMaxUs();
+
+    long getSimulacoes();
+    long getEventosSimulacao();
+    double getEventosPorSegundo();
+    long getEntregas();
+    long getRecargasUrgentes();
+    double getRecargasUrgentesPorEntrega();
+
+    void zerar();
+}
@@ -0,0 +1,253 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Enums;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Rodadas Monte Carlo de um cenário aleatório, em paralelo: cada rodada monta, a partir da sua semente,
+ * um DroneService novo (frota, pedidos, filas, métricas e sink só dela, sem eventos), planeja e simula,
+ * e devolve os números do SimulationReport. Nada de estado mutável passa de uma rodada para outra (os ids
+ * de drones e pedidos saem de contadores atômicos globais, que não mudam o resultado), então as rodadas
+ * rodam em qualquer ordem e em qualquer thread e o resultado de uma semente é sempre o mesmo.
+ *
+ * <p>O resumo junta as rodadas na ordem das sementes (média, desvio padrão e intervalo de 95% da média
+ * por métrica), então também não depende do número de threads. Serve para dimensionar a frota: o mesmo
+ * cenário com N drones diferentes, comparando os intervalos.
+ *
+ * <pre>
+ * MonteCarlo.Resultado r = new MonteCarlo(MonteCarlo.uniforme(12, 500, 60.0)).executar(2000, 42);
+ * </pre>
+ */
+public class MonteCarlo {
+    /** Métricas de cada rodada, na ordem das colunas do resultado. */
+    public static final String[] METRICAS = {
+            "entregas", "naoEntregues", "makespanKm", "tempoMedioEntregaKm", "bateriaConsumida", "recargasUrgentesPorEntrega"
+    };
+
+    // t de Student (bicaudal, 95%) para 1 a 30 graus de liberdade; acima disso, a aproximação normal
+    private static final double[] T_95 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    private static final double Z_95 = 1.96;
+
+    /**
+     * Monta o cenário de uma rodada no serviço recebido (vazio, sem frota), usando só o gerador recebido
+     * como fonte de aleatoriedade. Roda em threads do pool, várias ao mesmo tempo: não pode guardar
+     * estado fora do serviço.
+     */
+    @FunctionalInterface
+    public interface Cenario {
+        void montar(DroneService servico, Random aleatorio);
+    }
+
+    private final Cenario cenario;
+    private ForkJoinPool pool;
+    private boolean ondas = true;
+    private int maxParadas = MotorBuscaRota.PARADAS_PADRAO;
+
+    public MonteCarlo(Cenario cenario) {
+        this.cenario = cenario;
+    }
+
+    /**
+     * Cenário com 'drones' drones (capacidade de 8 a 15kg, alcance de 10km por kg) e 'pedidos' pedidos
+     * uniformes num quadrado de lado 2*raioKm em volta da base, de 0.5 a 8kg e prioridade aleatória.
+     */
+    public static Cenario uniforme(int drones, int pedidos, double raioKm) {
+        if (drones < 1 || pedidos < 0 || raioKm <= 0) {
+            throw new IllegalArgumentException("Cenário inválido: " + drones + " drones, " + pedidos + " pedidos, raio " + raioKm);
+        }
+        Enums.Prioridade[] prioridades = Enums.Prioridade.values();
+        return (servico, r) -> {
+            for (int i = 0; i < drones; i++) {
+                double capacidade = 8 + r.nextInt(8);
+                servico.criarDrone(capacidade, capacidade * 10, 0, 0);
+            }
+            for (int i = 0; i < pedidos; i++) {
+                servico.criarPedido((r.nextDouble() * 2 - 1) * raioKm, (r.nextDouble() * 2 - 1) * raioKm,
+                        0.5 + r.nextDouble() * 7.5, prioridades[r.nextInt(prioridades.length)]);
+            }
+        };
+    }
+
+    /**
+     * Pool das rodadas. Sem pool definido, cada execução cria um com uma thread por núcleo
+     * (Runtime.availableProcessors) e o fecha no fim.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * true (padrão): planejamento em ondas simulado pelo motor de eventos, com o makespan da frota.
+     * false: uma rota por drone (alocação sequencial) e simulação por eventos; o resto fica sem entrega.
+     */
+    public void setOndas(boolean ondas) {
+        this.ondas = ondas;
+    }
+
+    /** Máximo de pedidos por rota em cada rodada (ver DroneService.setMaxParadas). */
+    public void setMaxParadas(int maxParadas) {
+        this.maxParadas = maxParadas;
+    }
+
+    /**
+     * Roda as sementes sementeInicial, sementeInicial + 1, ..., sementeInicial + rodadas - 1, todas em
+     * paralelo no pool, e resume as métricas.
+     */
+    public Resultado executar(int rodadas, long sementeInicial) {
+        if (rodadas < 1) throw new IllegalArgumentException("Número de rodadas deve ser positivo: " + rodadas);
+        List<Callable<double[]>> tarefas = new ArrayList<>(rodadas);
+        for (int k = 0; k < rodadas; k++) {
+            long semente = sementeInicial + k;
+            tarefas.add(() -> rodada(semente));
+        }
+        ForkJoinPool executor = pool != null ? pool : new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        long inicioNs = System.nanoTime();
+        double[][] valores = new double[rodadas][];
+        try {
+            // invokeAll só volta com todas as rodadas prontas e torna visível o que cada uma escreveu
+            List<Future<double[]>> feitas = executor.invokeAll(tarefas);
+            for (int k = 0; k < rodadas; k++) valores[k] = feitas.get(k).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rodadas Monte Carlo interrompidas.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha numa rodada Monte Carlo: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (executor != pool) executor.shutdown();
+        }
+        double segundos = (System.nanoTime() - inicioNs) / 1e9;
+        return new Resultado(valores, segundos, executor.getParallelism());
+    }
+
+    /** Uma rodada inteira, do zero, num serviço só dela. Devolve as métricas na ordem de METRICAS. */
+    double[] rodada(long semente) {
+        DroneService servico = new DroneService(false);
+        servico.setSinkEventos(SinkEventos.SILENCIOSO);
+        servico.setMaxParadas(maxParadas);
+        cenario.montar(servico, new Random(semente));
+        int pedidos = servico.listarPedidos().size();
+
+        Simulator simulador = new Simulator(servico);
+        Simulator.SimulationReport r = ondas
+                ? simulador.runSimulationOndas(servico.planejarOndas())
+                : simulador.runSimulationEventos(servico.alocarPedidos());
+        // Soma em ordem crescente: a ordem do mapa depende dos ids, que variam com as outras rodadas
+        double[] consumos = new double[r.bateriaConsumidaPorDrone.size()];
+        int d = 0;
+        for (double consumo : r.bateriaConsumidaPorDrone.values()) consumos[d++] = consumo;
+        Arrays.sort(consumos);
+        double bateria = 0.0;
+        for (double consumo : consumos) bateria += consumo;
+        return new double[]{
+                r.totalEntregas, pedidos - r.totalEntregas, r.tempoTotalSimulacao, r.tempoMedioEntrega, bateria,
+                r.recargasUrgentesPorEntrega()
+        };
+    }
+
+    /** Uma métrica sobre todas as rodadas. */
+    public static final class Estatistica {
+        public final String nome;
+        public final double media;
+        public final double desvioPadrao;
+        public final double minimo;
+        public final double maximo;
+        // Meia largura do intervalo de 95% da média (t de Student; normal acima de 30 rodadas)
+        public final double margem95;
+
+        Estatistica(String nome, double[][] valores, int coluna) {
+            int n = valores.length;
+            // Welford, na ordem das sementes: o resumo não depende da ordem em que as rodadas terminaram
+            double media = 0.0, m2 = 0.0;
+            double minimo = Double.POSITIVE_INFINITY, maximo = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < n; k++) {
+                double v = valores[k][coluna];
+                double delta = v - media;
+                media += delta / (k + 1);
+                m2 += delta * (v - media);
+                minimo = Math.min(minimo, v);
+                maximo = Math.max(maximo, v);
+            }
+            this.nome = nome;
+            this.media = media;
+            this.desvioPadrao = n > 1 ? Math.sqrt(m2 / (n - 1)) : 0.0;
+            this.minimo = minimo;
+            this.maximo = maximo;
+            this.margem95 = n > 1 ? t95(n - 1) * desvioPadrao / Math.sqrt(n) : Double.POSITIVE_INFINITY;
+        }
+
+        public double inferior95() { return media - margem95; }
+        public double superior95() { return media + margem95; }
+
+        @Override
+        public String toString() {
+            return String.format("%-27s média %12.3f ± %-10.3f IC95 [%.3f, %.3f] | dp %.3f | mín %.3f | máx %.3f",
+                    nome, media, margem95, inferior95(), superior95(), desvioPadrao, minimo, maximo);
+        }
+    }
+
+    private static double t95(int grausLiberdade) {
+        return grausLiberdade <= T_95.length ? T_95[grausLiberdade - 1] : Z_95;
+    }
+
+    /** Resumo de uma execução: uma Estatistica por métrica e os valores de cada rodada. */
+    public static final class Resultado {
+        public final int rodadas;
+        public final int threads;
+        public final double segundos;
+        private final List<Estatistica> metricas;
+        // valores[rodada][métrica], na ordem das sementes
+        private final double[][] valores;
+
+        Resultado(double[][] valores, double segundos, int threads) {
+            this.rodadas = valores.length;
+            this.threads = threads;
+            this.segundos = segundos;
+            this.valores = valores;
+            List<Estatistica> lista = new ArrayList<>(METRICAS.length);
+            for (int c = 0; c < METRICAS.length; c++) lista.add(new Estatistica(METRICAS[c], valores, c));
+            this.metricas = Collections.unmodifiableList(lista);
+        }
+
+        public List<Estatistica> getMetricas() {
+            return metricas;
+        }
+
+        /** Estatística pelo nome (um de METRICAS). */
+        public Estatistica metrica(String nome) {
+            for (Estatistica e : metricas) {
+                if (e.nome.equals(nome)) return e;
+            }
+            throw new IllegalArgumentException("Métrica desconhecida: " + nome);
+        }
+
+        /** Valor da métrica (um de METRICAS) na rodada de índice 'rodada' (semente inicial + rodada). */
+        public double valor(int rodada, String nome) {
+            return valores[rodada][metricas.indexOf(metrica(nome))];
+        }
+
+        public double rodadasPorSegundo() {
+            return segundos > 0 ? rodadas / segundos : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("=== MONTE CARLO (%d rodadas, %d threads) ===%n" +
+                    "Tempo: %.2fs | Rodadas/s: %.1f%n", rodadas, threads, segundos, rodadasPorSegundo()));
+            for (Estatistica e : metricas) sb.append(e).append(System.lineSeparator());
+            return sb.toString();
+        }
+    }
+}
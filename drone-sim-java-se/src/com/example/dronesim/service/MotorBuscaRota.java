@@ -0,0 +1,663 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.util.GeoUtils;
+
+import java.util.List;
+
+/**
+ * Motor de busca de rotas (branch-and-bound) sobre arrays primitivos.
+ * Os candidatos são carregados uma vez por busca e a enumeração das combinações
+ * (em ordem de prioridade) poda por peso acumulado e por um limite inferior da
+ * distância da rota parcial antes de descer mais um nível. Para cada combinação
+ * completa é avaliada a melhor ordem de visita.
+ *
+ * O número máximo de paradas é configurável (padrão 3). Com mais de 3 paradas a busca cresce o tamanho
+ * da rota (1, 2, ...) e para no primeiro tamanho sem rota viável. A volta de cada combinação sai primeiro
+ * da inserção mais barata (limite superior); só se ela estourar o alcance entram a árvore geradora
+ * (limite inferior) e, até LIMITE_HELD_KARP paradas, a ordem exata (Held-Karp). A tabela por bitmask
+ * dos níveis já escolhidos é compartilhada pelas combinações com o mesmo prefixo, e cada nível novo só
+ * calcula os subconjuntos que o contêm. Acima de LIMITE_HELD_KARP vale a inserção (heurística: alguma
+ * rota que caberia pode ser descartada).
+ *
+ * Além do alcance, a rota aceita precisa caber no modelo de energia dos simuladores técnicos
+ * (RegrasVoo.consumoTrecho, que cresce com a carga a bordo): a bateria chega a cada entrega acima de
+ * RegrasVoo.BATERIA_MINIMA, senão o drone desviaria para recarregar no meio da rota. O voo direto da
+ * base até cada candidato, só com o peso dele, é calculado na carga e poda quem nunca caberia; a ordem
+ * escolhida é conferida trecho a trecho com as distâncias já carregadas. Se nem ela nem o sentido inverso
+ * cabem, a bateria vira filtro da ordem: até LIMITE_HELD_KARP paradas num Held-Karp que só estende caminhos
+ * viáveis (exato para decidir se alguma ordem cabe), acima disso na inserção mais barata (heurística).
+ *
+ * Não é thread-safe: cada thread deve usar a sua própria instância (os buffers são reaproveitados).
+ */
+public class MotorBuscaRota {
+    public static final int PARADAS_PADRAO = 3;
+    public static final int LIMITE_HELD_KARP = 12;
+    public static final int LIMITE_PARADAS = 32;
+
+    // Folga numérica para a poda (o limite inferior nunca pode descartar uma rota válida)
+    private static final double TOLERANCIA_KM = 1e-9;
+    // Trabalho (passos do laço interno de Held-Karp, aproximado) de uma busca com mais de 3 paradas antes
+    // de parar de crescer a rota: provar que nenhuma rota de k paradas cabe pode exigir enumerar quase
+    // todas as combinações menores viáveis, o que explode entre candidatos leves e próximos (~ms por busca)
+    private static final long LIMITE_TRABALHO = 1_000_000;
+    // Bateria (%) que pode ser gasta até a última entrega sem cair em RegrasVoo.BATERIA_MINIMA
+    private static final double ENERGIA_ATE_ULTIMA = 100.0 - RegrasVoo.BATERIA_MINIMA;
+    // As 6 ordens de visita de 3 paradas (em níveis)
+    private static final int[][] ORDENS_3 = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+
+    private final int maxParadas;
+    // Largura da tabela de Held-Karp (0 quando não é usada)
+    private final int niveisHeldKarp;
+
+    private int n = 0;
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private double[] pesos = new double[0];
+    private double[] distBase = new double[0];
+    // Consumo do voo Base -> candidato levando só o seu peso: limite inferior da energia até ele em qualquer rota
+    private double[] energiaDireta = new double[0];
+    // menoresPesosApos[k][i]: soma dos k menores pesos entre os índices > i (k de 1 a maxParadas - 1)
+    private final double[][] menoresPesosApos;
+    // linhas[d][m] = distância do pedido escolhido no nível d até o candidato m
+    private final double[][] linhas;
+
+    private final int[] escolhidos;
+    private final int[] melhorOrdem;
+    // Ordem (em níveis) conferida no modelo de energia
+    private final int[] ordemNiveis;
+    // Melhor rota do maior tamanho viável já encontrado (busca crescente)
+    private final int[] ordemAchada;
+    private int paradasMelhor = 0;
+    private double distanciaMelhor = 0.0;
+
+    // Held-Karp: caminho[mascara * niveisHeldKarp + e] = menor caminho Base -> níveis da máscara, terminando em e.
+    // As camadas (subconjuntos cujo maior nível é l) abaixo de camadasValidas são do prefixo escolhido agora
+    private final double[] caminho;
+    private int camadasValidas = 0;
+    // Rota (em níveis) e comprimento da volta de cada tamanho: inserção mais barata ou ordem ótima
+    private final int[][] rotaNiveis;
+    private final double[] voltaNivel;
+    // Buffers da árvore geradora (limite inferior antes do Held-Karp)
+    private final double[] arvoreCusto;
+    private final boolean[] arvoreDentro;
+    // Held-Karp com a bateria como filtro (alocados no primeiro uso): distância, consumo e nível anterior do
+    // caminho guardado em cada estado, e peso de cada máscara de níveis
+    private double[] distanciaEstado;
+    private double[] energiaEstado;
+    private int[] anteriorEstado;
+    private double[] pesoMascara;
+    // Rota candidata da inserção com a bateria como filtro
+    private final int[] tentativaNiveis;
+
+    private double capacidadeKg;
+    private double alcanceKm;
+    private long trabalho;
+
+    // Contadores da última busca (lidos pelas métricas depois de cada busca, sem custo no laço)
+    private long avaliadas;
+    private long podadas;
+
+    public MotorBuscaRota() {
+        this(PARADAS_PADRAO);
+    }
+
+    /**
+     * @param maxParadas máximo de pedidos por rota (1 a LIMITE_PARADAS)
+     */
+    public MotorBuscaRota(int maxParadas) {
+        if (maxParadas < 1 || maxParadas > LIMITE_PARADAS) {
+            throw new IllegalArgumentException("Máximo de paradas deve estar entre 1 e " + LIMITE_PARADAS + ": " + maxParadas);
+        }
+        this.maxParadas = maxParadas;
+        this.niveisHeldKarp = maxParadas > PARADAS_PADRAO ? Math.min(maxParadas, LIMITE_HELD_KARP) : 0;
+        this.menoresPesosApos = new double[maxParadas][0];
+        this.linhas = new double[maxParadas][0];
+        this.escolhidos = new int[maxParadas];
+        this.melhorOrdem = new int[maxParadas];
+        this.ordemNiveis = new int[maxParadas];
+        this.ordemAchada = new int[maxParadas];
+        this.caminho = new double[niveisHeldKarp == 0 ? 0 : (1 << niveisHeldKarp) * niveisHeldKarp];
+        this.rotaNiveis = new int[niveisHeldKarp == 0 ? 0 : maxParadas][maxParadas];
+        this.voltaNivel = new double[maxParadas];
+        this.arvoreCusto = new double[maxParadas];
+        this.arvoreDentro = new boolean[maxParadas];
+        this.tentativaNiveis = new int[maxParadas];
+    }
+
+    public int getMaxParadas() { return maxParadas; }
+
+    /**
+     * Copia coordenadas, pesos e distâncias até a base dos candidatos (já ordenados por prioridade).
+     */
+    public void carregar(List<Pedido> candidatos) {
+        n = candidatos.size();
+        garantirCapacidade(n);
+        for (int i = 0; i < n; i++) {
+            Pedido p = candidatos.get(i);
+            xs[i] = p.getX();
+            ys[i] = p.getY();
+            pesos[i] = p.getPesoKg();
+        }
+        GeoUtils.distancias(0, 0, xs, ys, 0, n, distBase);
+        for (int i = 0; i < n; i++) energiaDireta[i] = RegrasVoo.consumoTrecho(distBase[i], pesos[i]);
+        // Menores pesos já vistos (de trás para frente), em ordem crescente
+        double[] menores = new double[maxParadas];
+        int vistos = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            double soma = 0.0;
+            for (int k = 1; k < maxParadas; k++) {
+                soma = k <= vistos ? soma + menores[k - 1] : Double.POSITIVE_INFINITY;
+                menoresPesosApos[k][i] = soma;
+            }
+            int pos = Math.min(vistos, maxParadas - 1);
+            while (pos > 0 && menores[pos - 1] > pesos[i]) {
+                menores[pos] = menores[pos - 1];
+                pos--;
+            }
+            if (pos < maxParadas - 1) menores[pos] = pesos[i];
+            if (vistos < maxParadas - 1) vistos++;
+        }
+    }
+
+    private void garantirCapacidade(int tamanho) {
+        if (xs.length >= tamanho) return;
+        int nova = Math.max(tamanho, xs.length * 2);
+        xs = new double[nova];
+        ys = new double[nova];
+        pesos = new double[nova];
+        distBase = new double[nova];
+        energiaDireta = new double[nova];
+        for (int d = 0; d < maxParadas; d++) {
+            menoresPesosApos[d] = new double[nova];
+            linhas[d] = new double[nova];
+        }
+    }
+
+    /**
+     * Procura a primeira combinação viável (na ordem dos candidatos) com o maior número de paradas
+     * possível. Retorna o número de paradas encontradas (0 se nenhuma).
+     * A ordem de visita escolhida fica disponível em {@link #parada(int)}.
+     */
+    public int buscar(double capacidadeKg, double alcanceKm) {
+        this.capacidadeKg = capacidadeKg;
+        this.alcanceKm = alcanceKm;
+        paradasMelhor = 0;
+        distanciaMelhor = 0.0;
+        avaliadas = 0;
+        podadas = 0;
+        if (maxParadas <= PARADAS_PADRAO) {
+            // Rotas curtas: do maior tamanho para o menor, a primeira encontrada é a resposta
+            for (int paradas = Math.min(maxParadas, n); paradas >= 1; paradas--) {
+                if (buscarCombinacao(0, 0, paradas, 0.0)) return paradasMelhor;
+            }
+            return 0;
+        }
+        // Rotas longas: tirar uma parada de uma rota viável mantém peso e volta dentro dos limites, então
+        // se nenhum tamanho k cabe, nenhum maior cabe. Subindo de tamanho, só o primeiro inviável é
+        // enumerado por inteiro (descendo, todos os inviáveis acima da resposta seriam)
+        int achadas = 0;
+        double distanciaAchada = 0.0;
+        trabalho = 0;
+        camadasValidas = 0;
+        for (int paradas = 1; paradas <= Math.min(maxParadas, n); paradas++) {
+            if (!buscarCombinacao(0, 0, paradas, 0.0)) break;
+            achadas = paradasMelhor;
+            distanciaAchada = distanciaMelhor;
+            System.arraycopy(melhorOrdem, 0, ordemAchada, 0, achadas);
+        }
+        paradasMelhor = achadas;
+        distanciaMelhor = distanciaAchada;
+        System.arraycopy(ordemAchada, 0, melhorOrdem, 0, achadas);
+        return achadas;
+    }
+
+    /** Índice (na lista carregada) da i-ésima parada da melhor rota, já na melhor ordem de visita. */
+    public int parada(int i) { return melhorOrdem[i]; }
+
+    /** Distância total (Base -> paradas -> Base) da melhor rota encontrada. */
+    public double distanciaMelhor() { return distanciaMelhor; }
+
+    /** Rotas (parciais ou completas) cuja menor volta foi calculada na última busca. */
+    public long rotasAvaliadas() { return avaliadas; }
+
+    /** Rotas descartadas na última busca, por peso, por alcance ou por bateria. */
+    public long rotasPodadas() { return podadas; }
+
+    private boolean buscarCombinacao(int nivel, int inicio, int paradas, double pesoAcumulado) {
+        int faltam = paradas - nivel - 1;
+        for (int m = inicio; m <= n - 1 - faltam; m++) {
+            // Poda por peso: a carga atual mais os menores pesos que ainda faltam escolher
+            double peso = pesoAcumulado + pesos[m];
+            double pesoMinimoRestante = faltam == 0 ? 0.0 : menoresPesosApos[faltam][m];
+            if (peso + pesoMinimoRestante > capacidadeKg) {
+                podadas++;
+                continue;
+            }
+            // Poda por energia: nenhuma rota chega a este pedido gastando menos que o voo direto com o peso dele
+            if (energiaDireta[m] >= ENERGIA_ATE_ULTIMA) {
+                podadas++;
+                continue;
+            }
+            // Rotas longas: para de crescer se a enumeração explodir (fica a rota do tamanho anterior)
+            if (paradas > PARADAS_PADRAO && trabalho > LIMITE_TRABALHO) return false;
+
+            escolhidos[nivel] = m;
+            // A tabela de Held-Karp só continua valendo para os níveis anteriores a este
+            camadasValidas = Math.min(camadasValidas, nivel);
+            // Poda por distância: a menor volta sobre as paradas já escolhidas é um limite inferior
+            double volta = menorVolta(nivel + 1);
+            avaliadas++;
+            if (faltam == 0) {
+                if (volta <= alcanceKm) {
+                    double distancia = ordemComEnergia(paradas, gravarMelhorOrdem(paradas, volta));
+                    if (distancia >= 0) {
+                        paradasMelhor = paradas;
+                        distanciaMelhor = distancia;
+                        return true;
+                    }
+                }
+                podadas++;
+                continue;
+            }
+            if (volta > alcanceKm + TOLERANCIA_KM) {
+                podadas++;
+                continue;
+            }
+
+            double[] linha = linhas[nivel];
+            GeoUtils.distancias(xs[m], ys[m], xs, ys, m + 1, n, linha);
+            if (buscarCombinacao(nivel + 1, m + 1, paradas, peso)) return true;
+            if (paradas > PARADAS_PADRAO && trabalho > LIMITE_TRABALHO) return false;
+        }
+        return false;
+    }
+
+    /**
+     * Distância Base -> paradas escolhidas -> Base que decide a poda. Até 3 paradas é a menor volta
+     * (e a ordem vai para melhorOrdem). Com rotas longas vem primeiro a inserção mais barata sobre a rota
+     * do nível anterior, uma volta real: se ela cabe no alcance, a combinação é viável e Held-Karp nem é
+     * calculado; só quando não cabe a menor volta exata decide (limite inferior, até LIMITE_HELD_KARP).
+     */
+    private double menorVolta(int tamanho) {
+        if (niveisHeldKarp == 0) return voltaCurta(tamanho);
+        int nivel = tamanho - 1;
+        double volta;
+        if (nivel == 0) {
+            rotaNiveis[0][0] = 0;
+            volta = voltaNivel[0] = 2 * distBase[escolhidos[0]];
+        } else {
+            volta = inserirMaisBarato(nivel);
+        }
+        // Até 3 paradas a inserção mais barata já é a menor volta
+        if (volta > alcanceKm + TOLERANCIA_KM && tamanho > PARADAS_PADRAO && tamanho <= niveisHeldKarp) {
+            // Limite inferior barato antes do exato: se nem ele cabe, a combinação é podada sem Held-Karp
+            double limite = umaArvore(tamanho);
+            volta = limite > alcanceKm + TOLERANCIA_KM ? limite : voltaExata(tamanho);
+        }
+        return volta;
+    }
+
+    /**
+     * Limite inferior da menor volta: árvore geradora mínima das paradas (Prim, O(tamanho²)) mais as
+     * duas ligações mais curtas com a base. Toda volta é um caminho pelas paradas mais duas ligações.
+     */
+    private double umaArvore(int tamanho) {
+        double[] custo = arvoreCusto;
+        boolean[] dentro = arvoreDentro;
+        double base1 = Double.POSITIVE_INFINITY, base2 = Double.POSITIVE_INFINITY;
+        for (int l = 0; l < tamanho; l++) {
+            custo[l] = Double.POSITIVE_INFINITY;
+            dentro[l] = false;
+            double b = distBase[escolhidos[l]];
+            if (b < base1) { base2 = base1; base1 = b; }
+            else if (b < base2) base2 = b;
+        }
+        trabalho += (long) tamanho * tamanho;
+        double total = base1 + base2;
+        custo[0] = 0.0;
+        for (int passo = 0; passo < tamanho; passo++) {
+            int proximo = -1;
+            for (int l = 0; l < tamanho; l++) {
+                if (!dentro[l] && (proximo < 0 || custo[l] < custo[proximo])) proximo = l;
+            }
+            dentro[proximo] = true;
+            total += custo[proximo];
+            for (int l = 0; l < tamanho; l++) {
+                if (!dentro[l]) custo[l] = Math.min(custo[l], entreNiveis(proximo, l));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Menor volta exata (Held-Karp) sobre os 'tamanho' primeiros níveis. Reaproveita as camadas ainda
+     * válidas do prefixo e grava a ordem ótima como rota do nível (base da inserção dos níveis seguintes).
+     */
+    private double voltaExata(int tamanho) {
+        int nivel = tamanho - 1;
+        for (int l = camadasValidas; l < tamanho; l++) camadaHeldKarp(l);
+        camadasValidas = tamanho;
+        int cheia = (1 << tamanho) - 1;
+        double volta = Double.POSITIVE_INFINITY;
+        for (int e = 0; e < tamanho; e++) {
+            volta = Math.min(volta, caminho[cheia * niveisHeldKarp + e] + distBase[escolhidos[e]]);
+        }
+        reconstruir(tamanho, rotaNiveis[nivel]);
+        voltaNivel[nivel] = volta;
+        return volta;
+    }
+
+    private double voltaCurta(int tamanho) {
+        int a = escolhidos[0];
+        if (tamanho == 1) {
+            melhorOrdem[0] = a;
+            return distBase[a] + distBase[a];
+        }
+        int b = escolhidos[1];
+        double ab = linhas[0][b];
+        if (tamanho == 2) {
+            // Com 2 paradas as duas ordens têm o mesmo comprimento
+            melhorOrdem[0] = a;
+            melhorOrdem[1] = b;
+            return distBase[a] + ab + distBase[b];
+        }
+        int c = escolhidos[2];
+        double ac = linhas[0][c];
+        double bc = linhas[1][c];
+        // As 3 voltas distintas (as demais são as mesmas no sentido inverso)
+        double abc = distBase[a] + ab + bc + distBase[c];
+        double acb = distBase[a] + ac + bc + distBase[b];
+        double bac = distBase[b] + ab + ac + distBase[c];
+        if (abc <= acb && abc <= bac) { ordem(a, b, c); return abc; }
+        if (acb <= bac) { ordem(a, c, b); return acb; }
+        ordem(b, a, c);
+        return bac;
+    }
+
+    private void ordem(int p1, int p2, int p3) {
+        melhorOrdem[0] = p1;
+        melhorOrdem[1] = p2;
+        melhorOrdem[2] = p3;
+    }
+
+    /** Distância entre os pedidos escolhidos nos níveis a e b (a != b). */
+    private double entreNiveis(int a, int b) {
+        return a < b ? linhas[a][escolhidos[b]] : linhas[b][escolhidos[a]];
+    }
+
+    /** Preenche os subconjuntos que contêm o nível novo; os demais continuam valendo do prefixo. */
+    private void camadaHeldKarp(int nivel) {
+        int largura = niveisHeldKarp;
+        int bit = 1 << nivel;
+        trabalho += (long) bit * (nivel + 1) * (nivel + 1);
+        double inicio = distBase[escolhidos[nivel]];
+        // Máscaras em ordem crescente: 'mascara sem e' (ainda com o bit novo) já foi calculada
+        for (int resto = 0; resto < bit; resto++) {
+            int mascara = resto | bit;
+            double paraNovo = resto == 0 ? inicio : Double.POSITIVE_INFINITY;
+            for (int j = 0; j < nivel; j++) {
+                if ((resto & (1 << j)) != 0) {
+                    paraNovo = Math.min(paraNovo, caminho[resto * largura + j] + entreNiveis(j, nivel));
+                }
+            }
+            caminho[mascara * largura + nivel] = paraNovo;
+            for (int e = 0; e < nivel; e++) {
+                if ((resto & (1 << e)) == 0) continue;
+                int sem = mascara & ~(1 << e);
+                double melhor = Double.POSITIVE_INFINITY;
+                for (int j = 0; j <= nivel; j++) {
+                    if ((sem & (1 << j)) != 0) melhor = Math.min(melhor, caminho[sem * largura + j] + entreNiveis(j, e));
+                }
+                caminho[mascara * largura + e] = melhor;
+            }
+        }
+    }
+
+    /** Ordem de visita (em níveis) da menor volta de Held-Karp sobre os 'tamanho' primeiros níveis. */
+    private void reconstruir(int tamanho, int[] destino) {
+        int largura = niveisHeldKarp;
+        int mascara = (1 << tamanho) - 1;
+        int fim = 0;
+        double volta = Double.POSITIVE_INFINITY;
+        for (int e = 0; e < tamanho; e++) {
+            double v = caminho[mascara * largura + e] + distBase[escolhidos[e]];
+            if (v < volta) { volta = v; fim = e; }
+        }
+        for (int pos = tamanho - 1; pos > 0; pos--) {
+            destino[pos] = fim;
+            int sem = mascara & ~(1 << fim);
+            double alvo = caminho[mascara * largura + fim];
+            int anterior = -1;
+            for (int j = 0; j < tamanho && anterior < 0; j++) {
+                // Mesma conta da camada, então o antecessor bate exatamente
+                if ((sem & (1 << j)) != 0 && caminho[sem * largura + j] + entreNiveis(j, fim) == alvo) anterior = j;
+            }
+            mascara = sem;
+            fim = anterior;
+        }
+        destino[0] = fim;
+    }
+
+    /** Volta do nível anterior com o pedido do nível novo inserido no trecho que menos a aumenta. */
+    private double inserirMaisBarato(int nivel) {
+        int[] anterior = rotaNiveis[nivel - 1];
+        trabalho += nivel + 1;
+        int melhorPos = 0;
+        double melhorAcrescimo = Double.POSITIVE_INFINITY;
+        for (int pos = 0; pos <= nivel; pos++) {
+            double acrescimo = acrescimoInsercao(anterior, nivel, pos);
+            if (acrescimo < melhorAcrescimo) {
+                melhorAcrescimo = acrescimo;
+                melhorPos = pos;
+            }
+        }
+        int[] rota = rotaNiveis[nivel];
+        System.arraycopy(anterior, 0, rota, 0, melhorPos);
+        rota[melhorPos] = nivel;
+        System.arraycopy(anterior, melhorPos, rota, melhorPos + 1, nivel - melhorPos);
+        voltaNivel[nivel] = voltaNivel[nivel - 1] + melhorAcrescimo;
+        return voltaNivel[nivel];
+    }
+
+    /** Quanto a rota (níveis 0 a nivel - 1) aumenta com o nível novo inserido antes da parada pos. */
+    private double acrescimoInsercao(int[] rota, int nivel, int pos) {
+        int novo = escolhidos[nivel];
+        // Trecho entre a parada pos - 1 e a parada pos da rota (a base nas pontas)
+        double daAnterior = pos == 0 ? distBase[novo] : entreNiveis(rota[pos - 1], nivel);
+        double paraProxima = pos == nivel ? distBase[novo] : entreNiveis(nivel, rota[pos]);
+        double trecho = pos == 0 ? distBase[escolhidos[rota[0]]]
+                : pos == nivel ? distBase[escolhidos[rota[nivel - 1]]]
+                : entreNiveis(rota[pos - 1], rota[pos]);
+        return daAnterior + paraProxima - trecho;
+    }
+
+    /**
+     * Confere a ordem de melhorOrdem no modelo de energia. Se ela não cabe, tenta o sentido inverso (mesma
+     * distância, outra sequência de cargas); com 3 paradas, a ordem mais curta entre as 6 que cabem no
+     * alcance e na bateria, e com mais, a bateria como filtro da ordem (Held-Karp ou inserção).
+     * Devolve a distância da ordem que ficou em melhorOrdem, ou -1 se nenhuma cabe.
+     */
+    private double ordemComEnergia(int paradas, double distancia) {
+        int[] niveis = ordemNiveis;
+        for (int i = 0; i < paradas; i++) niveis[i] = nivelDe(melhorOrdem[i], paradas);
+        if (energiaCabe(niveis, paradas)) return distancia;
+        if (paradas == PARADAS_PADRAO) {
+            double melhor = -1;
+            for (int[] ordem : ORDENS_3) {
+                double d = distBase[escolhidos[ordem[0]]] + entreNiveis(ordem[0], ordem[1])
+                        + entreNiveis(ordem[1], ordem[2]) + distBase[escolhidos[ordem[2]]];
+                if (d > alcanceKm || (melhor >= 0 && d >= melhor) || !energiaCabe(ordem, paradas)) continue;
+                melhor = d;
+                System.arraycopy(ordem, 0, niveis, 0, paradas);
+            }
+            if (melhor >= 0) gravarNiveis(niveis, paradas);
+            return melhor;
+        }
+        for (int i = 0, j = paradas - 1; i < j; i++, j--) {
+            int t = niveis[i];
+            niveis[i] = niveis[j];
+            niveis[j] = t;
+        }
+        if (energiaCabe(niveis, paradas)) {
+            gravarNiveis(niveis, paradas);
+            return distancia;
+        }
+        if (paradas < PARADAS_PADRAO) return -1;
+        if (paradas > niveisHeldKarp) return insercaoComEnergia(paradas);
+        distancia = heldKarpComEnergia(paradas, false);
+        return distancia >= 0 ? distancia : heldKarpComEnergia(paradas, true);
+    }
+
+    /**
+     * Held-Karp que só estende caminhos que chegam à próxima entrega abaixo de ENERGIA_ATE_ULTIMA (a carga de
+     * cada trecho é o peso dos níveis fora da máscara). Cada estado guarda o caminho viável mais curto ou,
+     * com menorConsumo, o de menor consumo: como o consumo acumulado só cresce, este decide exatamente se
+     * alguma ordem cabe na bateria. Grava a ordem mais curta que fecha a volta e devolve a distância, ou -1.
+     */
+    private double heldKarpComEnergia(int tamanho, boolean menorConsumo) {
+        int largura = niveisHeldKarp;
+        if (energiaEstado == null) {
+            int estados = (1 << largura) * largura;
+            distanciaEstado = new double[estados];
+            energiaEstado = new double[estados];
+            anteriorEstado = new int[estados];
+            pesoMascara = new double[1 << largura];
+        }
+        int cheia = (1 << tamanho) - 1;
+        double total = 0.0;
+        for (int l = 0; l < tamanho; l++) total += pesos[escolhidos[l]];
+        trabalho += (long) (cheia + 1) * tamanho * tamanho;
+        pesoMascara[0] = 0.0;
+        for (int mascara = 1; mascara <= cheia; mascara++) {
+            pesoMascara[mascara] = pesoMascara[mascara & (mascara - 1)] + pesos[escolhidos[Integer.numberOfTrailingZeros(mascara)]];
+            for (int e = 0; e < tamanho; e++) {
+                if ((mascara & (1 << e)) == 0) continue;
+                int sem = mascara & ~(1 << e);
+                double melhorDistancia = Double.POSITIVE_INFINITY, melhorEnergia = Double.POSITIVE_INFINITY;
+                int melhorAnterior = -1;
+                if (sem == 0) {
+                    double energia = RegrasVoo.consumoTrecho(distBase[escolhidos[e]], total);
+                    if (energia < ENERGIA_ATE_ULTIMA) {
+                        melhorDistancia = distBase[escolhidos[e]];
+                        melhorEnergia = energia;
+                    }
+                }
+                double carga = total - pesoMascara[sem];
+                for (int j = 0; sem != 0 && j < tamanho; j++) {
+                    int de = sem * largura + j;
+                    if ((sem & (1 << j)) == 0 || distanciaEstado[de] == Double.POSITIVE_INFINITY) continue;
+                    double trecho = entreNiveis(j, e);
+                    double energia = energiaEstado[de] + RegrasVoo.consumoTrecho(trecho, carga);
+                    if (energia >= ENERGIA_ATE_ULTIMA) continue;
+                    double distancia = distanciaEstado[de] + trecho;
+                    if (menorConsumo ? energia < melhorEnergia : distancia < melhorDistancia) {
+                        melhorDistancia = distancia;
+                        melhorEnergia = energia;
+                        melhorAnterior = j;
+                    }
+                }
+                int estado = mascara * largura + e;
+                distanciaEstado[estado] = melhorDistancia;
+                energiaEstado[estado] = melhorEnergia;
+                anteriorEstado[estado] = melhorAnterior;
+            }
+        }
+        int fim = -1;
+        double volta = Double.POSITIVE_INFINITY;
+        for (int e = 0; e < tamanho; e++) {
+            int estado = cheia * largura + e;
+            double v = distanciaEstado[estado] + distBase[escolhidos[e]];
+            if (v < volta && v <= alcanceKm
+                    && energiaEstado[estado] + distBase[escolhidos[e]] * RegrasVoo.CONSUMO_POR_KM <= 100.0) {
+                volta = v;
+                fim = e;
+            }
+        }
+        if (fim < 0) return -1;
+        int[] niveis = ordemNiveis;
+        for (int pos = tamanho - 1, mascara = cheia; pos >= 0; pos--) {
+            niveis[pos] = fim;
+            int anterior = anteriorEstado[mascara * largura + fim];
+            mascara &= ~(1 << fim);
+            fim = anterior;
+        }
+        // A carga da tabela é total menos a máscara; a conferência refaz a conta na ordem dos simuladores
+        if (!energiaCabe(niveis, tamanho)) return -1;
+        gravarNiveis(niveis, tamanho);
+        return volta;
+    }
+
+    /**
+     * Acima de LIMITE_HELD_KARP: inserção mais barata nível a nível, aceitando só as posições em que a rota
+     * parcial cabe na bateria (paradas a mais nunca reduzem o consumo até as entregas já feitas).
+     * Heurística: pode descartar uma ordem que caberia. Devolve a distância da ordem gravada, ou -1.
+     */
+    private double insercaoComEnergia(int paradas) {
+        int[] rota = ordemNiveis, tentativa = tentativaNiveis;
+        rota[0] = 0;
+        double volta = 2 * distBase[escolhidos[0]];
+        for (int nivel = 1; nivel < paradas; nivel++) {
+            trabalho += (long) (nivel + 1) * (nivel + 1);
+            int melhorPos = -1;
+            double melhorAcrescimo = Double.POSITIVE_INFINITY;
+            for (int pos = 0; pos <= nivel; pos++) {
+                double acrescimo = acrescimoInsercao(rota, nivel, pos);
+                if (acrescimo >= melhorAcrescimo) continue;
+                System.arraycopy(rota, 0, tentativa, 0, pos);
+                tentativa[pos] = nivel;
+                System.arraycopy(rota, pos, tentativa, pos + 1, nivel - pos);
+                if (!energiaCabe(tentativa, nivel + 1)) continue;
+                melhorAcrescimo = acrescimo;
+                melhorPos = pos;
+            }
+            if (melhorPos < 0) return -1;
+            System.arraycopy(rota, melhorPos, rota, melhorPos + 1, nivel - melhorPos);
+            rota[melhorPos] = nivel;
+            volta += melhorAcrescimo;
+        }
+        if (volta > alcanceKm) return -1;
+        gravarNiveis(rota, paradas);
+        return volta;
+    }
+
+    /**
+     * Mesma conta do SimuladorEventos sobre as distâncias carregadas: cada trecho gasta consumoTrecho com a
+     * carga ainda a bordo; a bateria tem de chegar a cada entrega acima do mínimo e à base (sem carga) com sobra.
+     */
+    private boolean energiaCabe(int[] niveis, int paradas) {
+        double carga = 0.0;
+        for (int i = 0; i < paradas; i++) carga += pesos[escolhidos[niveis[i]]];
+        double energia = 0.0;
+        for (int i = 0; i < paradas; i++) {
+            double trecho = i == 0 ? distBase[escolhidos[niveis[0]]] : entreNiveis(niveis[i - 1], niveis[i]);
+            energia += RegrasVoo.consumoTrecho(trecho, carga);
+            if (energia >= ENERGIA_ATE_ULTIMA) return false;
+            carga -= pesos[escolhidos[niveis[i]]];
+        }
+        return energia + distBase[escolhidos[niveis[paradas - 1]]] * RegrasVoo.CONSUMO_POR_KM <= 100.0;
+    }
+
+    /** Nível em que o candidato foi escolhido. */
+    private int nivelDe(int candidato, int paradas) {
+        for (int l = 0; l < paradas; l++) {
+            if (escolhidos[l] == candidato) return l;
+        }
+        throw new IllegalStateException("Candidato fora da rota: " + candidato);
+    }
+
+    private void gravarNiveis(int[] niveis, int paradas) {
+        for (int i = 0; i < paradas; i++) melhorOrdem[i] = escolhidos[niveis[i]];
+    }
+
+    /** Grava a ordem de visita da rota aceita em melhorOrdem e devolve a sua distância. */
+    private double gravarMelhorOrdem(int paradas, double volta) {
+        if (niveisHeldKarp == 0) return volta; // voltaCurta já gravou
+        // Mesma ordem das rotas curtas do padrão; até LIMITE_HELD_KARP, a ordem ótima
+        if (paradas <= PARADAS_PADRAO) return voltaCurta(paradas);
+        if (paradas <= niveisHeldKarp) volta = voltaExata(paradas);
+        int[] niveis = rotaNiveis[paradas - 1];
+        for (int i = 0; i < paradas; i++) melhorOrdem[i] = escolhidos[niveis[i]];
+        return volta;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.EstadoVoo;
+import com.example.dronesim.model.Frota;
+import com.example.dronesim.model.Pedido;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Motor de ticks sem console (headless) para testes de carga com frotas grandes.
+ * Cada tick é dividido em fases:
+ *  1. leitura: o estado atual fica congelado no buffer 'atual';
+ *  2. cálculo: movimento e bateria de todos os drones em paralelo, por partições, gravando no buffer 'proximo';
+ *  3. commit: troca os buffers e aplica os eventos (pedidos entregues, recargas...) em ordem, numa única thread.
+ * As regras de movimento/recarga são as mesmas da simulação com mapa ASCII (RegrasVoo), sem sleep nem saída.
+ * Com um {@link Despachante}, os pedidos que chegam durante a execução são alocados em lotes, após o
+ * commit, aos drones parados na base, e as rotas novas entram no plano sem interromper os demais.
+ */
+public class MotorTickParalelo {
+    // Número de entradas do plano abaixo do qual uma partição não é mais dividida
+    private static final int LIMIAR_PARTICAO = 4096;
+
+    private final DroneService droneService;
+    private final ForkJoinPool pool;
+
+    public MotorTickParalelo(DroneService service) {
+        this(service, ForkJoinPool.commonPool());
+    }
+
+    public MotorTickParalelo(DroneService service, ForkJoinPool pool) {
+        this.droneService = service;
+        this.pool = pool;
+    }
+
+    public static class RelatorioTicks {
+        public int drones;
+        public long ticks;
+        public double segundos;
+        public double ticksPorSegundo;
+        public long entregas;
+        public long recargas;
+        public long retornosBateriaCritica;
+        public long pedidosLiberados;
+        public long lotesDespachados;
+        public long pedidosDespachados;
+        public long eventos;
+
+        @Override
+        public String toString() {
+            String s = String.format("=== RELATÓRIO DE TICKS (headless) ===%n" +
+                            "Drones: %d | Ticks: %d | Tempo: %.3fs | Ticks/s: %.1f%n" +
+                            "Entregas: %d | Recargas: %d | Retornos por bateria crítica: %d (pedidos liberados: %d)",
+                    drones, ticks, segundos, ticksPorSegundo, entregas, recargas, retornosBateriaCritica, pedidosLiberados);
+            if (lotesDespachados > 0) {
+                s += String.format("%nLotes despachados: %d | Pedidos despachados: %d", lotesDespachados, pedidosDespachados);
+            }
+            return s;
+        }
+    }
+
+    /**
+     * Roda até todos os drones ficarem ociosos ou até maxTicks. O estado final é gravado de volta na frota.
+     */
+    public RelatorioTicks executar(Map<Drone, List<Pedido>> plan, long maxTicks) {
+        return executar(plan, maxTicks, null);
+    }
+
+    /**
+     * Igual a executar(plan, maxTicks), recebendo pedidos durante a execução pelo despachante.
+     * Com a entrada do despachante aberta, a execução só termina em maxTicks.
+     */
+    public RelatorioTicks executar(Map<Drone, List<Pedido>> plan, long maxTicks, Despachante despachante) {
+        Frota frota = droneService.getFrota();
+        PlanoCompacto plano = PlanoCompacto.de(frota, plan);
+        EstadoVoo estadoFrota = frota.estado();
+        int n = plano.entradas();
+        // Plano vivo (recebe as rotas novas) e entrada do plano de cada slot (-1: drone fora do plano)
+        Map<Drone, List<Pedido>> planoVivo = despachante != null ? new LinkedHashMap<>(plan) : plan;
+        int[] entradaDoSlot = despachante != null ? entradasPorSlot(plano) : null;
+
+        // Fase de leitura usa 'atual'; 'proximo' começa como cópia para os slots fora do plano
+        EstadoVoo atual = new EstadoVoo(estadoFrota.capacidade());
+        EstadoVoo proximo = new EstadoVoo(estadoFrota.capacidade());
+        for (int k = 0; k < n; k++) estadoFrota.cursorRota[plano.slot(k)] = 0;
+        estadoFrota.copiarPara(atual, 0, frota.tamanho());
+        estadoFrota.copiarPara(proximo, 0, frota.tamanho());
+        int[] eventos = new int[n];
+        RegrasVoo.Alvos alvos = new RegrasVoo.Alvos(n);
+
+        RelatorioTicks relatorio = new RelatorioTicks();
+        relatorio.drones = n;
+        MetricasSimulacao metricas = droneService.getMetricas();
+        long inicioNs = System.nanoTime();
+
+        boolean ativos = n > 0;
+        while ((ativos || (despachante != null && despachante.aguardando())) && relatorio.ticks < maxTicks) {
+            EventosJfr.Tick jfr = EventosJfr.iniciarTick();
+            long inicioTickNs = System.nanoTime();
+            long eventosAntes = relatorio.eventos;
+            if (n > 0) {
+                pool.invoke(new Calculo(plano, atual, proximo, alvos, eventos, 0, n));
+                EstadoVoo trocar = atual;
+                atual = proximo;
+                proximo = trocar;
+                ativos = commit(plano, eventos, atual, relatorio);
+            }
+            relatorio.ticks++;
+            // Duração do tick sem o despacho (esse entra na latência de alocação)
+            metricas.registrarTick(System.nanoTime() - inicioTickNs);
+            if (jfr != null) jfr.concluir(relatorio.ticks, n, (int) (relatorio.eventos - eventosAntes));
+
+            if (despachante != null && despachante.deveDespachar(relatorio.ticks, ativos)) {
+                List<Drone> livres = dronesLivres(plano, entradaDoSlot, atual);
+                if (livres.isEmpty()) continue;
+                // O serviço lê/escreve os drones pelo estado da frota: sincroniza só os slots livres
+                for (Drone d : livres) atual.copiarPara(estadoFrota, d.getSlot(), d.getSlot() + 1);
+                Map<Drone, List<Pedido>> novas = despachante.despachar(livres);
+                for (Drone d : novas.keySet()) estadoFrota.cursorRota[d.getSlot()] = 0;
+                for (Drone d : livres) {
+                    estadoFrota.copiarPara(atual, d.getSlot(), d.getSlot() + 1);
+                    estadoFrota.copiarPara(proximo, d.getSlot(), d.getSlot() + 1);
+                }
+                relatorio.lotesDespachados++;
+                if (novas.isEmpty()) continue;
+
+                for (Map.Entry<Drone, List<Pedido>> e : novas.entrySet()) {
+                    relatorio.pedidosDespachados += e.getValue().size();
+                    planoVivo.put(e.getKey(), e.getValue());
+                }
+                plano = PlanoCompacto.de(frota, planoVivo);
+                entradaDoSlot = entradasPorSlot(plano);
+                if (plano.entradas() != n) {
+                    n = plano.entradas();
+                    eventos = new int[n];
+                    alvos = new RegrasVoo.Alvos(n);
+                }
+                ativos = true;
+            }
+        }
+        relatorio.drones = n;
+
+        long duracaoNs = System.nanoTime() - inicioNs;
+        metricas.registrarSimulacao(relatorio.eventos, duracaoNs);
+        metricas.registrarEntregas(relatorio.entregas, relatorio.retornosBateriaCritica);
+        relatorio.segundos = duracaoNs / 1e9;
+        relatorio.ticksPorSegundo = relatorio.segundos > 0 ? relatorio.ticks / relatorio.segundos : 0;
+        atual.copiarPara(estadoFrota, 0, frota.tamanho());
+        return relatorio;
+    }
+
+    private static int[] entradasPorSlot(PlanoCompacto plano) {
+        int[] entradaDoSlot = new int[plano.getFrota().tamanho()];
+        Arrays.fill(entradaDoSlot, -1);
+        for (int k = 0; k < plano.entradas(); k++) entradaDoSlot[plano.slot(k)] = k;
+        return entradaDoSlot;
+    }
+
+    /**
+     * Drones IDLE na base, sem pedido e com a rota do plano (se houver) concluída.
+     */
+    private static List<Drone> dronesLivres(PlanoCompacto plano, int[] entradaDoSlot, EstadoVoo estado) {
+        Frota frota = plano.getFrota();
+        byte idle = (byte) Enums.StatusDrone.IDLE.ordinal();
+        List<Drone> livres = new ArrayList<>();
+        for (int i = 0; i < frota.tamanho(); i++) {
+            if (estado.status[i] != idle || estado.x[i] != 0 || estado.y[i] != 0) continue;
+            if (frota.getPedidoAtual(i) != null) continue;
+            int k = entradaDoSlot[i];
+            if (k >= 0 && estado.cursorRota[i] < plano.tamanhoRota(k)) continue;
+            livres.add(frota.drone(i));
+        }
+        return livres;
+    }
+
+    /**
+     * Aplica os eventos do tick na ordem do plano. Retorna se algum drone continua ativo.
+     */
+    private boolean commit(PlanoCompacto plano, int[] eventos, EstadoVoo estado, RelatorioTicks relatorio) {
+        Frota frota = plano.getFrota();
+        SinkEventos sink = droneService.getSinkEventos();
+        boolean ativos = false;
+        for (int k = 0; k < eventos.length; k++) {
+            int ev = eventos[k];
+            if ((ev & RegrasVoo.ATIVO) != 0) ativos = true;
+            if ((ev & ~(RegrasVoo.ATIVO | RegrasVoo.OCIOSO)) == 0) continue;
+            relatorio.eventos += Integer.bitCount(ev & ~(RegrasVoo.ATIVO | RegrasVoo.OCIOSO));
+
+            int i = plano.slot(k);
+            int cursor = estado.cursorRota[i];
+            if ((ev & RegrasVoo.CARREGANDO) != 0) {
+                Pedido next = plano.pedido(k, cursor);
+                frota.setPedidoAtual(i, next);
+                next.setStatus(Enums.StatusPedido.ALOCADO);
+            }
+            if ((ev & RegrasVoo.ENTREGA) != 0) {
+                Pedido entregue = plano.pedido(k, cursor - 1);
+                entregue.setStatus(Enums.StatusPedido.ENTREGUE);
+                sink.publicar(EventoSimulacao.Tipo.PEDIDO_ENTREGUE, frota.getId(i), entregue);
+                frota.setPedidoAtual(i, null);
+                relatorio.entregas++;
+            }
+            if ((ev & RegrasVoo.RECARGA) != 0) {
+                frota.setPedidoAtual(i, null);
+                relatorio.recargas++;
+            }
+            if ((ev & RegrasVoo.BATERIA_CRITICA) != 0) {
+                frota.setPedidoAtual(i, null);
+                relatorio.retornosBateriaCritica++;
+                // Rota abandonada: os pedidos não entregues voltam para a fila (e para o despachante)
+                for (int r = cursor; r < plano.tamanhoRota(k); r++) {
+                    droneService.liberarPedido(plano.pedido(k, r));
+                    relatorio.pedidosLiberados++;
+                }
+            }
+            if ((ev & RegrasVoo.MUDA_STATUS) != 0) {
+                sink.publicar(EventoSimulacao.Tipo.STATUS_DRONE, frota.getId(i), null, estado.status[i], 0, estado.bateria[i]);
+            }
+        }
+        return ativos;
+    }
+
+    /**
+     * Fase de cálculo: divide as entradas do plano em partições e avança cada drone lendo 'atual'
+     * e gravando em 'proximo' (cada entrada só escreve no slot do próprio drone).
+     */
+    private static final class Calculo extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PlanoCompacto plano;
+        private final EstadoVoo atual;
+        private final EstadoVoo proximo;
+        private final RegrasVoo.Alvos alvos;
+        private final int[] eventos;
+        private final int de;
+        private final int ate;
+
+        Calculo(PlanoCompacto plano, EstadoVoo atual, EstadoVoo proximo, RegrasVoo.Alvos alvos, int[] eventos,
+                int de, int ate) {
+            this.plano = plano;
+            this.atual = atual;
+            this.proximo = proximo;
+            this.alvos = alvos;
+            this.eventos = eventos;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de <= LIMIAR_PARTICAO) {
+                // Distâncias até os alvos da partição em lote (SIMD), depois o passo de cada drone
+                RegrasVoo.avancarBloco(plano, de, ate, atual, proximo, alvos, eventos);
+                return;
+            }
+            int meio = (de + ate) >>> 1;
+            invokeAll(new Calculo(plano, atual, proximo, alvos, eventos, de, meio),
+                    new Calculo(plano, atual, proximo, alvos, eventos, meio, ate));
+        }
+    }
+}
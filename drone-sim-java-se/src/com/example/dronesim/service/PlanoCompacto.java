@@ -0,0 +1,111 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Frota;
+import com.example.dronesim.model.Pedido;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plano de rotas em layout compacto para os motores de simulação.
+ * A entrada k do plano é o drone no slot {@code slots[k]} da frota; a sua rota ocupa as posições
+ * [inicioRota[k], inicioRota[k + 1]) dos arrays de pedidos e de coordenadas dos alvos.
+ * Num plano em ondas o mesmo slot aparece em várias entradas, uma por viagem, encadeadas por proxima[k].
+ */
+public class PlanoCompacto {
+    final Frota frota;
+    final int entradas;
+    final int[] slots;
+    final int[] inicioRota;
+    final Pedido[] pedidos;
+    final double[] alvoX;
+    final double[] alvoY;
+    // Próxima viagem do mesmo drone (-1 = nenhuma) e se a entrada é a primeira viagem do drone
+    final int[] proxima;
+    final boolean[] primeira;
+
+    private PlanoCompacto(Frota frota, int entradas, int totalPedidos) {
+        this.frota = frota;
+        this.entradas = entradas;
+        this.slots = new int[entradas];
+        this.inicioRota = new int[entradas + 1];
+        this.pedidos = new Pedido[totalPedidos];
+        this.alvoX = new double[totalPedidos];
+        this.alvoY = new double[totalPedidos];
+        this.proxima = new int[entradas];
+        this.primeira = new boolean[entradas];
+        Arrays.fill(proxima, -1);
+        Arrays.fill(primeira, true);
+    }
+
+    /**
+     * Converte o plano do DroneService. Todos os drones do plano devem pertencer à frota informada.
+     */
+    public static PlanoCompacto de(Frota frota, Map<Drone, List<Pedido>> plan) {
+        int total = 0;
+        for (List<Pedido> rota : plan.values()) total += rota.size();
+
+        PlanoCompacto plano = new PlanoCompacto(frota, plan.size(), total);
+        int k = 0;
+        int pos = 0;
+        for (Map.Entry<Drone, List<Pedido>> e : plan.entrySet()) {
+            Drone d = e.getKey();
+            if (d.getFrota() != frota) {
+                throw new IllegalArgumentException("Drone " + d.getId() + " não pertence à frota simulada.");
+            }
+            pos = plano.preencher(k++, d, e.getValue(), pos);
+        }
+        plano.inicioRota[k] = pos;
+        return plano;
+    }
+
+    /**
+     * Converte um plano em ondas: uma entrada por viagem, na ordem do plano, encadeada à próxima
+     * viagem do mesmo drone.
+     */
+    public static PlanoCompacto de(Frota frota, PlanoOndas ondas) {
+        List<PlanoOndas.Viagem> viagens = ondas.getViagens();
+        PlanoCompacto plano = new PlanoCompacto(frota, viagens.size(), ondas.quantidadePedidos());
+        // Última entrada vista de cada slot
+        int[] ultima = new int[frota.tamanho()];
+        Arrays.fill(ultima, -1);
+        int pos = 0;
+        for (int k = 0; k < viagens.size(); k++) {
+            Drone d = viagens.get(k).drone;
+            if (d.getFrota() != frota) {
+                throw new IllegalArgumentException("Drone " + d.getId() + " não pertence à frota simulada.");
+            }
+            pos = plano.preencher(k, d, viagens.get(k).pedidos, pos);
+            int anterior = ultima[d.getSlot()];
+            if (anterior >= 0) {
+                plano.proxima[anterior] = k;
+                plano.primeira[k] = false;
+            }
+            ultima[d.getSlot()] = k;
+        }
+        plano.inicioRota[viagens.size()] = pos;
+        return plano;
+    }
+
+    private int preencher(int k, Drone d, List<Pedido> rota, int pos) {
+        slots[k] = d.getSlot();
+        inicioRota[k] = pos;
+        for (Pedido p : rota) {
+            pedidos[pos] = p;
+            alvoX[pos] = p.getX();
+            alvoY[pos] = p.getY();
+            pos++;
+        }
+        return pos;
+    }
+
+    public Frota getFrota() { return frota; }
+    public int entradas() { return entradas; }
+    public int slot(int k) { return slots[k]; }
+    public int tamanhoRota(int k) { return inicioRota[k + 1] - inicioRota[k]; }
+    public Pedido pedido(int k, int i) { return pedidos[inicioRota[k] + i]; }
+    public int proximaViagem(int k) { return proxima[k]; }
+    public boolean primeiraViagem(int k) { return primeira[k]; }
+}
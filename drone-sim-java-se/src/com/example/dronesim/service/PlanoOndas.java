@@ -0,0 +1,119 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Pedido;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plano de várias viagens por drone num mesmo ciclo de planejamento (ver {@link DroneService#planejarOndas()}).
+ * Cada viagem sai da base com o drone recarregado e volta à base; a onda de uma viagem é a sua posição
+ * entre as viagens do mesmo drone (0 = primeira). Os tempos estão na unidade dos simuladores (1 km voado).
+ */
+public class PlanoOndas {
+    private final List<Viagem> viagens = new ArrayList<>();
+    private final double horizonte;
+    private int ondas = 0;
+    private double makespan = 0.0;
+
+    PlanoOndas(double horizonte) {
+        this.horizonte = horizonte;
+    }
+
+    public static class Viagem {
+        public final Drone drone;
+        public final int onda;
+        public final List<Pedido> pedidos;
+        public final double distanciaKm;
+        // Tempo até voltar à base (maior que a distância se houver recarga urgente no caminho)
+        public final double duracao;
+        // Bateria (%) a repor na base depois da viagem
+        public final double consumo;
+        public final double partida;
+        public final double retorno;
+        // Quando o drone está recarregado na base e pode sair de novo
+        public final double disponivel;
+
+        Viagem(Drone drone, int onda, List<Pedido> pedidos, double distanciaKm, double duracao, double consumo,
+               double partida, double disponivel) {
+            this.drone = drone;
+            this.onda = onda;
+            this.pedidos = Collections.unmodifiableList(pedidos);
+            this.distanciaKm = distanciaKm;
+            this.duracao = duracao;
+            this.consumo = consumo;
+            this.partida = partida;
+            this.retorno = partida + duracao;
+            this.disponivel = disponivel;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Drone %d, onda %d: %d pedido(s), %.2fkm, saída %.2f, retorno %.2f",
+                    drone.getId(), onda, pedidos.size(), distanciaKm, partida, retorno);
+        }
+    }
+
+    void adicionar(Viagem v) {
+        viagens.add(v);
+        ondas = Math.max(ondas, v.onda + 1);
+        makespan = Math.max(makespan, v.retorno);
+    }
+
+    /** Viagens na ordem em que foram planejadas (horário de saída não decrescente). */
+    public List<Viagem> getViagens() {
+        return Collections.unmodifiableList(viagens);
+    }
+
+    /** Maior número de viagens de um mesmo drone. */
+    public int quantidadeOndas() {
+        return ondas;
+    }
+
+    /** Retorno à base da última viagem do plano. */
+    public double getMakespan() {
+        return makespan;
+    }
+
+    /** Limite de tempo do ciclo (infinito quando não há limite). */
+    public double getHorizonte() {
+        return horizonte;
+    }
+
+    public int quantidadePedidos() {
+        int n = 0;
+        for (Viagem v : viagens) n += v.pedidos.size();
+        return n;
+    }
+
+    /**
+     * A onda 'indice' no formato de plano dos simuladores (uma rota por drone), para quem quiser
+     * simular onda a onda com os motores de uma viagem só.
+     */
+    public Map<Drone, List<Pedido>> onda(int indice) {
+        Map<Drone, List<Pedido>> plan = new LinkedHashMap<>();
+        for (Viagem v : viagens) {
+            if (v.onda == indice) plan.put(v.drone, new ArrayList<>(v.pedidos));
+        }
+        return plan;
+    }
+
+    /** Todos os pedidos de cada drone, viagem após viagem, na ordem de visita. */
+    public Map<Drone, List<Pedido>> porDrone() {
+        Map<Drone, List<Pedido>> plan = new LinkedHashMap<>();
+        for (Viagem v : viagens) plan.computeIfAbsent(v.drone, d -> new ArrayList<>()).addAll(v.pedidos);
+        return plan;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("=== PLANO EM ONDAS ===%n" +
+                        "Viagens: %d | Pedidos: %d | Ondas: %d | Makespan: %.2fkm%s",
+                viagens.size(), quantidadePedidos(), ondas, makespan,
+                Double.isInfinite(horizonte) ? "" : String.format(" | Horizonte: %.2fkm", horizonte));
+    }
+}
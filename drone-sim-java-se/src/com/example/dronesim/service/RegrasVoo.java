@@ -0,0 +1,259 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.EstadoVoo;
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.util.GeoUtils;
+
+import java.util.List;
+
+/**
+ * Regras de um passo (tick) da simulação dinâmica para um drone: carregamento, movimento de
+ * 1 unidade por eixo, entrega, retorno/recarga na base e retorno por bateria crítica.
+ *
+ * O passo só lê e escreve o slot do próprio drone nos arrays de estado e não tem efeitos colaterais:
+ * o que aconteceu é devolvido como uma máscara de eventos, para quem chamou atualizar pedidos,
+ * mapa e console. Assim o mesmo passo serve ao modo com mapa ASCII e aos motores sem console.
+ */
+public final class RegrasVoo {
+    // Eventos (bits) devolvidos por avancar()
+    public static final int OCIOSO = 1;              // IDLE na base sem mais pedidos na rota (não é desenhado)
+    public static final int ATIVO = 1 << 1;          // ainda há trabalho para este drone
+    public static final int CARREGANDO = 1 << 2;     // começou a carregar o pedido do cursor
+    public static final int ENTREGA = 1 << 3;        // entregou o pedido (cursor - 1)
+    public static final int FIM_ROTA = 1 << 4;       // última entrega feita, retornando à base
+    public static final int PROXIMO = 1 << 5;        // a menos de 5km do destino
+    public static final int CHEGOU_BASE = 1 << 6;    // chegou à base e ficou IDLE
+    public static final int RECARGA = 1 << 7;        // chegou à base com bateria baixa e recarregou
+    public static final int BATERIA_CRITICA = 1 << 8;// abandonou a rota para voltar à base
+    // Eventos que deixam o drone num status novo (publicado como STATUS_DRONE pelos motores)
+    public static final int MUDA_STATUS = CARREGANDO | ENTREGA | FIM_ROTA | CHEGOU_BASE | RECARGA | BATERIA_CRITICA;
+    // Interno: andou rumo ao pedido sem chegar; vira PROXIMO (ou nada) pela distância depois do passo
+    private static final int APROXIMOU = 1 << 9;
+
+    public static final double BATERIA_MINIMA = 20.0;
+    // Modelo de energia dos simuladores técnicos e do planejamento: % de bateria por km e por kg a bordo por km
+    public static final double CONSUMO_POR_KM = 0.5;
+    public static final double CONSUMO_POR_KG_KM = 0.1;
+    public static final double CONSUMO_POR_PASSO = 0.5;
+    public static final double DISTANCIA_ALERTA_KM = 5.0;
+    // Recarga na base entre viagens do plano em ondas: tempo (km) por ponto percentual; 30 para uma carga completa
+    public static final double TEMPO_RECARGA_POR_PONTO = 0.3;
+
+    private static final byte IDLE = (byte) Enums.StatusDrone.IDLE.ordinal();
+    private static final byte EM_VOO = (byte) Enums.StatusDrone.EM_VOO.ordinal();
+    private static final byte RETORNANDO = (byte) Enums.StatusDrone.RETORNANDO.ordinal();
+    private static final byte EM_CARREGAMENTO = (byte) Enums.StatusDrone.CARREGANDO.ordinal();
+
+    private RegrasVoo() {}
+
+    /**
+     * Avança um passo o drone da entrada k do plano, lendo o estado em 'de' e gravando em 'para'
+     * (podem ser o mesmo buffer para atualização in-place).
+     */
+    public static int avancar(PlanoCompacto plano, int k, EstadoVoo de, EstadoVoo para) {
+        int i = plano.slots[k];
+        int pos = alvo(plano, k, de, i);
+        double distanciaAlvo = pos < 0 ? GeoUtils.distanciaKm(de.x[i], de.y[i], 0, 0)
+                : GeoUtils.distanciaKm(de.x[i], de.y[i], plano.alvoX[pos], plano.alvoY[pos]);
+        int eventos = avancar(plano, k, de, para, distanciaAlvo);
+        if ((eventos & APROXIMOU) == 0) return eventos;
+        // O cursor não muda num passo sem chegada: o alvo depois do passo é o mesmo de antes
+        return proximo(eventos, GeoUtils.distanciaKm(para.x[i], para.y[i], plano.alvoX[pos], plano.alvoY[pos]));
+    }
+
+    /**
+     * Avança as entradas [inicio, fim) do plano (de 'de' para 'para', buffers diferentes). As distâncias até
+     * o alvo de cada drone, que decidem a chegada, saem todas de uma vez pelo kernel em lote de GeoUtils
+     * (SIMD quando disponível); o resto do passo é o mesmo de avancar(), entrada por entrada. As distâncias
+     * depois do passo, que decidem PROXIMO, saem numa segunda chamada ao kernel, sobre as posições novas.
+     */
+    public static void avancarBloco(PlanoCompacto plano, int inicio, int fim, EstadoVoo de, EstadoVoo para,
+                                    Alvos alvos, int[] eventos) {
+        for (int k = inicio; k < fim; k++) {
+            int i = plano.slots[k];
+            int pos = alvo(plano, k, de, i);
+            alvos.x[k] = de.x[i];
+            alvos.y[k] = de.y[i];
+            alvos.alvoX[k] = pos < 0 ? 0 : plano.alvoX[pos];
+            alvos.alvoY[k] = pos < 0 ? 0 : plano.alvoY[pos];
+        }
+        GeoUtils.distanciasPares(alvos.x, alvos.y, alvos.alvoX, alvos.alvoY, inicio, fim, alvos.distancia);
+        int aproximaram = 0;
+        for (int k = inicio; k < fim; k++) {
+            eventos[k] = avancar(plano, k, de, para, alvos.distancia[k]);
+            if ((eventos[k] & APROXIMOU) == 0) continue;
+            int i = plano.slots[k];
+            alvos.x[k] = para.x[i];
+            alvos.y[k] = para.y[i];
+            aproximaram++;
+        }
+        if (aproximaram == 0) return;
+        // O bloco inteiro de novo: as entradas que não andaram rumo a um pedido só são ignoradas abaixo
+        GeoUtils.distanciasPares(alvos.x, alvos.y, alvos.alvoX, alvos.alvoY, inicio, fim, alvos.distancia);
+        for (int k = inicio; k < fim; k++) {
+            if ((eventos[k] & APROXIMOU) != 0) eventos[k] = proximo(eventos[k], alvos.distancia[k]);
+        }
+    }
+
+    private static int proximo(int eventos, double distanciaRestante) {
+        eventos &= ~APROXIMOU;
+        if (distanciaRestante < DISTANCIA_ALERTA_KM && distanciaRestante > 1.0) eventos |= PROXIMO;
+        return eventos;
+    }
+
+    /** Buffers de avancarBloco, uma posição por entrada do plano (blocos disjuntos podem rodar em paralelo). */
+    public static final class Alvos {
+        final double[] x;
+        final double[] y;
+        final double[] alvoX;
+        final double[] alvoY;
+        final double[] distancia;
+
+        public Alvos(int entradas) {
+            x = new double[entradas];
+            y = new double[entradas];
+            alvoX = new double[entradas];
+            alvoY = new double[entradas];
+            distancia = new double[entradas];
+        }
+    }
+
+    /** Posição do pedido-alvo do drone neste passo, ou -1 se o alvo é a base (ou se ele não voa no passo). */
+    private static int alvo(PlanoCompacto plano, int k, EstadoVoo de, int i) {
+        byte status = de.status[i];
+        // EM_CARREGAMENTO decola e já testa a chegada no mesmo passo
+        if (status != EM_VOO && status != EM_CARREGAMENTO) return -1;
+        return plano.inicioRota[k] + de.cursorRota[i];
+    }
+
+    private static int avancar(PlanoCompacto plano, int k, EstadoVoo de, EstadoVoo para, double distanciaAlvo) {
+        int i = plano.slots[k];
+        int inicio = plano.inicioRota[k];
+        int tamanhoRota = plano.inicioRota[k + 1] - inicio;
+
+        double x = de.x[i];
+        double y = de.y[i];
+        double bateria = de.bateria[i];
+        byte status = de.status[i];
+        int cursor = de.cursorRota[i];
+        int eventos = 0;
+
+        if (status == IDLE) {
+            // Sem mais pedidos na rota: o drone fica parado na base
+            if (cursor >= tamanhoRota) {
+                gravar(para, i, x, y, bateria, status, cursor);
+                return OCIOSO;
+            }
+            status = EM_CARREGAMENTO;
+            eventos |= CARREGANDO;
+        } else if (status == EM_CARREGAMENTO) {
+            status = EM_VOO; // Inicia voo
+        }
+
+        if (status == EM_VOO) {
+            double alvoX = plano.alvoX[inicio + cursor];
+            double alvoY = plano.alvoY[inicio + cursor];
+            eventos |= ATIVO;
+
+            if (distanciaAlvo <= 1.0) {
+                x = alvoX;
+                y = alvoY;
+                cursor++;
+                eventos |= ENTREGA;
+                if (cursor >= tamanhoRota) {
+                    status = RETORNANDO;
+                    eventos |= FIM_ROTA;
+                } else {
+                    status = IDLE; // Fica IDLE na entrega para carregar o próximo
+                }
+            } else {
+                x += passo(x, alvoX);
+                y += passo(y, alvoY);
+                eventos |= APROXIMOU;
+                bateria = Math.max(0, bateria - CONSUMO_POR_PASSO);
+            }
+        } else if (status == RETORNANDO) {
+            eventos |= ATIVO;
+            if (distanciaAlvo <= 1.0) {
+                x = 0;
+                y = 0;
+                cursor = tamanhoRota; // Marca o fim da rota
+                if (bateria <= BATERIA_MINIMA) {
+                    bateria = 100.0;
+                    eventos |= RECARGA;
+                } else {
+                    eventos |= CHEGOU_BASE;
+                }
+                status = IDLE;
+            } else {
+                x += passo(x, 0);
+                y += passo(y, 0);
+                bateria = Math.max(0, bateria - CONSUMO_POR_PASSO);
+            }
+        }
+
+        // Recarga: voltar à base se a bateria estiver baixa
+        if (bateria <= BATERIA_MINIMA && status != RETORNANDO && status != IDLE) {
+            status = RETORNANDO;
+            eventos |= BATERIA_CRITICA;
+        }
+        if (status != IDLE) eventos |= ATIVO;
+
+        gravar(para, i, x, y, bateria, status, cursor);
+        return eventos;
+    }
+
+    /**
+     * Viagem Base -> pedidos (na ordem) -> Base pelo modelo do SimuladorEventos, sem montar a simulação:
+     * 0.5% de bateria por km mais 0.1% por kg a bordo (volta sem carga) e, se chegar a um pedido com
+     * BATERIA_MINIMA ou menos, ida à base para recarregar e volta ao mesmo pedido.
+     * Grava em resultado[0] o tempo (km voados) e em resultado[1] a bateria ao chegar à base.
+     */
+    public static void estimarViagem(List<Pedido> rota, double[] resultado) {
+        double carga = 0.0;
+        for (Pedido p : rota) carga += p.getPesoKg();
+        double bateria = 100.0, tempo = 0.0;
+        double x = 0, y = 0;
+        for (Pedido p : rota) {
+            double trecho = GeoUtils.distanciaKm(x, y, p.getX(), p.getY());
+            bateria = Math.max(0, bateria - consumoTrecho(trecho, carga));
+            tempo += trecho;
+            x = p.getX();
+            y = p.getY();
+            if (bateria <= BATERIA_MINIMA) {
+                tempo += 2 * GeoUtils.distanciaKm(x, y, 0, 0);
+                bateria = 100.0;
+            }
+            carga -= p.getPesoKg();
+        }
+        double volta = GeoUtils.distanciaKm(x, y, 0, 0);
+        resultado[0] = tempo + volta;
+        resultado[1] = Math.max(0, bateria - volta * CONSUMO_POR_KM);
+    }
+
+    /** Bateria (%) gasta num trecho de 'km' com 'cargaKg' a bordo. */
+    public static double consumoTrecho(double km, double cargaKg) {
+        return km * (CONSUMO_POR_KM + cargaKg * CONSUMO_POR_KG_KM);
+    }
+
+    /**
+     * true se o voo direto da base até uma entrega a 'km' com 'cargaKg' a bordo chega acima de BATERIA_MINIMA
+     * (mesmo corte do MotorBuscaRota). Senão nenhuma rota leva o pedido sem parar para recarregar.
+     */
+    public static boolean vooDiretoCabe(double km, double cargaKg) {
+        return consumoTrecho(km, cargaKg) < 100.0 - BATERIA_MINIMA;
+    }
+
+    private static double passo(double atual, double alvo) {
+        return alvo > atual ? 1 : (alvo < atual ? -1 : 0);
+    }
+
+    private static void gravar(EstadoVoo para, int i, double x, double y, double bateria, byte status, int cursor) {
+        para.x[i] = x;
+        para.y[i] = y;
+        para.bateria[i] = bateria;
+        para.status[i] = status;
+        para.cursorRota[i] = cursor;
+    }
+}
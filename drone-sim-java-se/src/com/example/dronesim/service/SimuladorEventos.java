@@ -0,0 +1,315 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Drone;
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.EstadoVoo;
+import com.example.dronesim.model.Frota;
+import com.example.dronesim.model.Pedido;
+import com.example.dronesim.util.GeoUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulação por eventos discretos: em vez de mover os drones passo a passo, uma fila ordenada por
+ * tempo salta direto de um evento para o próximo (chegada, recarga urgente, retomada, volta à base).
+ * Os tempos de chegada são calculados analiticamente pela distância (1 km por unidade de tempo) e as
+ * regras de bateria/recarga são as mesmas da simulação técnica, então o relatório é o mesmo de
+ * {@link Simulator#runSimulation(Map)}, com a duração total simulada (makespan) como extra.
+ */
+public class SimuladorEventos {
+    private static final int CHEGADA = 0;          // chegou ao pedido do cursor
+    private static final int RECARGA_URGENTE = 1;  // chegou à base no meio da rota para recarregar
+    private static final int RETOMADA = 2;         // voltou ao pedido depois da recarga e entrega
+    private static final int FIM = 3;              // voltou à base no fim da rota
+    private static final int PARTIDA = 4;          // recarregado na base, sai para a próxima viagem (plano em ondas)
+
+    private final DroneService droneService;
+    private SinkEventos eventos = SinkEventos.SILENCIOSO;
+    private Frota frota;
+
+    // Estado por entrada do plano
+    private double[] carga = new double[0];
+    private double[] consumo = new double[0];
+    private int[] recargas = new int[0];
+
+    private final FilaEventos fila = new FilaEventos();
+    private double relogio;
+    private long totalEntregas;
+    private long recargasUrgentes;
+    private double totalTempo;
+
+    public SimuladorEventos(DroneService service) {
+        this.droneService = service;
+    }
+
+    public Simulator.SimulationReport executar(Map<Drone, List<Pedido>> plan) {
+        return executar(PlanoCompacto.de(droneService.getFrota(), plan), plan);
+    }
+
+    /**
+     * Simula um plano em ondas: cada drone faz as suas viagens em sequência e, entre uma e outra,
+     * recarrega na base até 100% (RegrasVoo.TEMPO_RECARGA_POR_PONTO por ponto de bateria).
+     * O relatório soma consumo e recargas de todas as viagens de cada drone.
+     */
+    public Simulator.SimulationReport executar(PlanoOndas ondas) {
+        return executar(PlanoCompacto.de(droneService.getFrota(), ondas), ondas.porDrone());
+    }
+
+    private Simulator.SimulationReport executar(PlanoCompacto plano, Map<Drone, List<Pedido>> plan) {
+        long inicioNs = System.nanoTime();
+        eventos = droneService.getSinkEventos();
+        frota = plano.getFrota();
+        EstadoVoo estado = frota.estado();
+        int n = plano.entradas();
+        if (carga.length < n) {
+            carga = new double[n];
+            consumo = new double[n];
+            recargas = new int[n];
+        }
+        fila.limpar();
+        relogio = 0.0;
+        totalEntregas = 0;
+        recargasUrgentes = 0;
+        totalTempo = 0.0;
+
+        // Partida: todos os drones com rota saem da base em t=0 com 100% de bateria
+        for (int k = 0; k < n; k++) {
+            consumo[k] = 0.0;
+            recargas[k] = 0;
+            if (plano.tamanhoRota(k) == 0 || !plano.primeiraViagem(k)) continue;
+            partir(plano, k, estado);
+        }
+
+        long processados = 0;
+        while (!fila.vazia()) {
+            processados++;
+            relogio = fila.tempoTopo();
+            int k = fila.entradaTopo();
+            int tipo = fila.tipoTopo();
+            fila.removerTopo();
+            processar(plano, k, tipo, estado);
+        }
+
+        Simulator.SimulationReport report = new Simulator.SimulationReport();
+        report.plano = plan;
+        for (int k = 0; k < n; k++) {
+            if (plano.tamanhoRota(k) == 0) continue;
+            int id = frota.getId(plano.slot(k));
+            report.bateriaConsumidaPorDrone.merge(id, consumo[k], Double::sum);
+            report.recargasPorDrone.merge(id, recargas[k], Integer::sum);
+        }
+        report.totalEntregas = totalEntregas;
+        report.recargasUrgentes = recargasUrgentes;
+        report.tempoMedioEntrega = totalEntregas > 0 ? totalTempo / totalEntregas : 0;
+        report.droneMaisEficiente = droneService.droneMaisEficiente(plan);
+        report.tempoTotalSimulacao = relogio;
+        droneService.getMetricas().registrarSimulacao(processados, System.nanoTime() - inicioNs);
+        droneService.getMetricas().registrarEntregas(totalEntregas, recargasUrgentes);
+        return report;
+    }
+
+    /** Sai da base com 100% de bateria para a rota da entrada k. */
+    private void partir(PlanoCompacto plano, int k, EstadoVoo estado) {
+        int i = plano.slot(k);
+        Drone drone = plano.getFrota().drone(i);
+        drone.recarregar();
+        drone.recarregarPosicao();
+        mudarStatus(estado, i, Enums.StatusDrone.EM_VOO);
+        estado.cursorRota[i] = 0;
+        double pesoTotal = 0.0;
+        for (int r = 0; r < plano.tamanhoRota(k); r++) pesoTotal += plano.pedido(k, r).getPesoKg();
+        carga[k] = pesoTotal;
+        fila.agendar(relogio + distanciaAte(plano, k, estado, i, 0), k, CHEGADA);
+    }
+
+    private void processar(PlanoCompacto plano, int k, int tipo, EstadoVoo estado) {
+        int i = plano.slot(k);
+        int cursor = estado.cursorRota[i];
+
+        switch (tipo) {
+            case CHEGADA: {
+                // Consumo (simplificado): 0.5% por km + 0.1% por kg de carga
+                double trecho = distanciaAte(plano, k, estado, i, cursor);
+                double consumoTrecho = RegrasVoo.consumoTrecho(trecho, carga[k]);
+                estado.bateria[i] = Math.max(0, estado.bateria[i] - consumoTrecho);
+                consumo[k] += consumoTrecho;
+                totalTempo += trecho;
+                posicionar(plano, k, estado, i, cursor);
+
+                if (estado.bateria[i] <= RegrasVoo.BATERIA_MINIMA) {
+                    // Volta à base para recarregar e depois retoma a entrega do mesmo pedido
+                    mudarStatus(estado, i, Enums.StatusDrone.RETORNANDO);
+                    fila.agendar(relogio + GeoUtils.distanciaKm(estado.x[i], estado.y[i], 0, 0), k, RECARGA_URGENTE);
+                } else {
+                    entregar(plano, k, estado, i, cursor);
+                }
+                break;
+            }
+            case RECARGA_URGENTE: {
+                Pedido p = plano.pedido(k, cursor);
+                estado.bateria[i] = 100.0;
+                mudarStatus(estado, i, Enums.StatusDrone.EM_VOO);
+                estado.x[i] = 0;
+                estado.y[i] = 0;
+                recargas[k]++;
+                recargasUrgentes++;
+                fila.agendar(relogio + GeoUtils.distanciaKm(0, 0, p.getX(), p.getY()), k, RETOMADA);
+                break;
+            }
+            case RETOMADA: {
+                posicionar(plano, k, estado, i, cursor);
+                entregar(plano, k, estado, i, cursor);
+                break;
+            }
+            case FIM: {
+                // Retorno à base sem carga
+                double distanciaBase = GeoUtils.distanciaKm(estado.x[i], estado.y[i], 0, 0);
+                double consumoBase = distanciaBase * RegrasVoo.CONSUMO_POR_KM;
+                estado.bateria[i] = Math.max(0, estado.bateria[i] - consumoBase);
+                consumo[k] += consumoBase;
+                totalTempo += distanciaBase;
+                estado.x[i] = 0;
+                estado.y[i] = 0;
+                int proxima = plano.proximaViagem(k);
+                if (proxima >= 0) {
+                    // Próxima viagem do plano em ondas: recarga completa na base antes de sair
+                    recargas[proxima]++;
+                    mudarStatus(estado, i, Enums.StatusDrone.RECARREGANDO);
+                    double tempoRecarga = (100.0 - estado.bateria[i]) * RegrasVoo.TEMPO_RECARGA_POR_PONTO;
+                    fila.agendar(relogio + tempoRecarga, proxima, PARTIDA);
+                    break;
+                }
+                if (estado.bateria[i] <= RegrasVoo.BATERIA_MINIMA) {
+                    estado.bateria[i] = 100.0; // Recarga final se necessário
+                    recargas[k]++;
+                }
+                mudarStatus(estado, i, Enums.StatusDrone.IDLE);
+                plano.getFrota().setPedidoAtual(i, null);
+                break;
+            }
+            case PARTIDA:
+                partir(plano, k, estado);
+                break;
+            default:
+                throw new IllegalStateException("Tipo de evento desconhecido: " + tipo);
+        }
+    }
+
+    private void entregar(PlanoCompacto plano, int k, EstadoVoo estado, int i, int cursor) {
+        Pedido p = plano.pedido(k, cursor);
+        p.setStatus(Enums.StatusPedido.ENTREGUE);
+        eventos.publicar(EventoSimulacao.Tipo.PEDIDO_ENTREGUE, frota.getId(i), p);
+        totalEntregas++;
+        carga[k] -= p.getPesoKg(); // A carga diminui após a entrega
+        estado.cursorRota[i] = cursor + 1;
+        mudarStatus(estado, i, Enums.StatusDrone.EM_VOO);
+
+        if (cursor + 1 < plano.tamanhoRota(k)) {
+            fila.agendar(relogio + distanciaAte(plano, k, estado, i, cursor + 1), k, CHEGADA);
+        } else {
+            mudarStatus(estado, i, Enums.StatusDrone.RETORNANDO);
+            fila.agendar(relogio + GeoUtils.distanciaKm(estado.x[i], estado.y[i], 0, 0), k, FIM);
+        }
+    }
+
+    private void mudarStatus(EstadoVoo estado, int i, Enums.StatusDrone status) {
+        if (estado.status[i] == status.ordinal()) return; // Ex.: EM_VOO de uma entrega para a próxima
+        estado.status[i] = (byte) status.ordinal();
+        eventos.publicar(EventoSimulacao.Tipo.STATUS_DRONE, frota.getId(i), null, status.ordinal(), 0, estado.bateria[i]);
+    }
+
+    private static double distanciaAte(PlanoCompacto plano, int k, EstadoVoo estado, int i, int parada) {
+        int pos = plano.inicioRota[k] + parada;
+        return GeoUtils.distanciaKm(estado.x[i], estado.y[i], plano.alvoX[pos], plano.alvoY[pos]);
+    }
+
+    private static void posicionar(PlanoCompacto plano, int k, EstadoVoo estado, int i, int parada) {
+        int pos = plano.inicioRota[k] + parada;
+        estado.x[i] = plano.alvoX[pos];
+        estado.y[i] = plano.alvoY[pos];
+    }
+
+    /**
+     * Heap binário de eventos em arrays primitivos, ordenado por tempo e, no empate, pela ordem de agendamento.
+     */
+    private static final class FilaEventos {
+        private double[] tempos = new double[64];
+        private long[] sequencias = new long[64];
+        private int[] entradas = new int[64];
+        private int[] tipos = new int[64];
+        private int tamanho = 0;
+        private long proximaSequencia = 0;
+
+        void limpar() {
+            tamanho = 0;
+            proximaSequencia = 0;
+        }
+
+        boolean vazia() { return tamanho == 0; }
+        double tempoTopo() { return tempos[0]; }
+        int entradaTopo() { return entradas[0]; }
+        int tipoTopo() { return tipos[0]; }
+
+        void agendar(double tempo, int entrada, int tipo) {
+            if (tamanho == tempos.length) {
+                int nova = tamanho * 2;
+                tempos = Arrays.copyOf(tempos, nova);
+                sequencias = Arrays.copyOf(sequencias, nova);
+                entradas = Arrays.copyOf(entradas, nova);
+                tipos = Arrays.copyOf(tipos, nova);
+            }
+            int pos = tamanho++;
+            gravar(pos, tempo, proximaSequencia++, entrada, tipo);
+            subir(pos);
+        }
+
+        void removerTopo() {
+            tamanho--;
+            if (tamanho == 0) return;
+            gravar(0, tempos[tamanho], sequencias[tamanho], entradas[tamanho], tipos[tamanho]);
+            descer(0);
+        }
+
+        private boolean antes(int a, int b) {
+            return tempos[a] < tempos[b] || (tempos[a] == tempos[b] && sequencias[a] < sequencias[b]);
+        }
+
+        private void subir(int pos) {
+            while (pos > 0) {
+                int pai = (pos - 1) >>> 1;
+                if (!antes(pos, pai)) break;
+                trocar(pos, pai);
+                pos = pai;
+            }
+        }
+
+        private void descer(int pos) {
+            while (true) {
+                int menor = pos;
+                int esq = 2 * pos + 1;
+                int dir = esq + 1;
+                if (esq < tamanho && antes(esq, menor)) menor = esq;
+                if (dir < tamanho && antes(dir, menor)) menor = dir;
+                if (menor == pos) return;
+                trocar(pos, menor);
+                pos = menor;
+            }
+        }
+
+        private void gravar(int pos, double tempo, long seq, int entrada, int tipo) {
+            tempos[pos] = tempo;
+            sequencias[pos] = seq;
+            entradas[pos] = entrada;
+            tipos[pos] = tipo;
+        }
+
+        private void trocar(int a, int b) {
+            double t = tempos[a]; tempos[a] = tempos[b]; tempos[b] = t;
+            long s = sequencias[a]; sequencias[a] = sequencias[b]; sequencias[b] = s;
+            int e = entradas[a]; entradas[a] = entradas[b]; entradas[b] = e;
+            int ti = tipos[a]; tipos[a] = tipos[b]; tipos[b] = ti;
+        }
+    }
+}
@@ -20,6 +20,15 @@ public class Simulator {
         public Drone droneMaisEficiente;
         public Map<Integer, Double> bateriaConsumidaPorDrone = new HashMap<>();
         public Map<Integer, Integer> recargasPorDrone = new HashMap<>();
+        // Duração total simulada (makespan, em km voados), preenchida pelo motor de eventos
+        public double tempoTotalSimulacao;
+        // Idas à base no meio da rota por bateria baixa (as recargas no fim da viagem não contam)
+        public long recargasUrgentes;
+
+        /** Desvios de recarga por entrega; 0 quando o planejamento respeita o modelo de energia. */
+        public double recargasUrgentesPorEntrega() {
+            return totalEntregas > 0 ? (double) recargasUrgentes / totalEntregas : 0.0;
+        }
 
         @Override
         public String toString() {
@@ -27,7 +36,11 @@ public class Simulator {
             sb.append("=== RELATÓRIO TÉCNICO ===\n")
                     .append("Total de entregas: ").append(totalEntregas).append("\n");
             if (totalEntregas > 0) {
-                sb.append("Tempo médio por entrega (km): ").append(String.format("%.2f", tempoMedioEntrega)).append("\n");
+                sb.append("Tempo médio por entrega (km): ").append(String.format("%.2f", tempoMedioEntrega)).append("\n")
+                        .append("Recargas urgentes por entrega: ").append(String.format("%.3f", recargasUrgentesPorEntrega())).append("\n");
+            }
+            if (tempoTotalSimulacao > 0) {
+                sb.append("Duração total simulada (km): ").append(String.format("%.2f", tempoTotalSimulacao)).append("\n");
             }
             sb.append("Drone mais eficiente: ").append(droneMaisEficiente).append("\n")
                     .append("Bateria consumida por drone:\n");
@@ -45,18 +58,21 @@ public class Simulator {
      * Simulação técnica SEQUENCIAL ponto a ponto com relatório detalhado.
      */
     public SimulationReport runSimulation(Map<Drone, List<Pedido>> plan) {
+        long inicioNs = System.nanoTime();
         SimulationReport report = new SimulationReport();
         report.plano = plan;
 
         long totalEntregas = 0;
+        long eventosSimulados = 0; // Entregas, recargas urgentes e retornos à base
+        long recargasUrgentes = 0;
         double totalTempo = 0.0; // Usamos a distância como proxy de tempo (em km)
 
         long allocatedCount = plan.values().stream().mapToLong(List::size).sum();
-        System.out.println("--- INICIANDO SIMULAÇÃO TÉCNICA (Rotas Otimizadas) ---");
-        System.out.println("Pedidos alocados para simulação: " + allocatedCount);
+        SinkEventos eventos = droneService.getSinkEventos();
+        eventos.publicar(EventoSimulacao.Tipo.SIMULACAO_INICIADA, 0, null, (int) allocatedCount, 0, 0.0);
 
         if (allocatedCount == 0) {
-            System.err.println("AVISO: Nenhum pedido alocado. Verifique se criou pedidos (opção 1) e se eles são compatíveis com a capacidade/alcance dos drones.");
+            eventos.publicar(EventoSimulacao.Tipo.SIMULACAO_SEM_PEDIDOS, 0, null);
         }
 
         for (Map.Entry<Drone, List<Pedido>> entry : plan.entrySet()) {
@@ -72,6 +88,7 @@ public class Simulator {
             // Inicia na base (0,0) e com 100%
             drone.recarregar();
             drone.setStatus(Enums.StatusDrone.CARREGANDO);
+            publicarStatus(eventos, drone);
 
             double atualX = 0.0;
             double atualY = 0.0;
@@ -81,38 +98,38 @@ public class Simulator {
             // SIMULAÇÃO DA ROTA (PONTO A PONTO)
             for (Pedido p : pedidosRota) {
 
-                System.out.println("-> Drone " + drone.getId() + " em voo para Pedido " + p.getId().substring(0, 4) + " (" + p.getPesoKg() + "kg) em (" + p.getX() + ", " + p.getY() + ")");
+                eventos.publicar(EventoSimulacao.Tipo.EM_VOO, drone.getId(), p);
 
                 // 1. Distância até o próximo pedido
                 double distanciaTrecho = GeoUtils.distanciaKm(atualX, atualY, p.getX(), p.getY());
 
                 // Consumo (simplificado): 0.5% por km + 0.1% por kg de carga
-                double consumoTrecho = distanciaTrecho * (0.5 + pesoTotalCarga * 0.1);
+                double consumoTrecho = RegrasVoo.consumoTrecho(distanciaTrecho, pesoTotalCarga);
                 drone.consumirBateria(consumoTrecho);
                 consumoTotalSimulacao += consumoTrecho;
                 totalTempo += distanciaTrecho;
 
                 // 2. Verifica se precisa recarregar APÓS a chegada ao ponto
-                if (drone.getBateria() <= 20) {
-                    System.out.println("   [RECARGA URGENTE] Drone " + drone.getId() + " retornando à base (Bateria: " + String.format("%.1f", drone.getBateria()) + "%).");
+                if (drone.getBateria() <= RegrasVoo.BATERIA_MINIMA) {
+                    eventos.publicar(EventoSimulacao.Tipo.RECARGA_URGENTE, drone.getId(), drone.getBateria());
 
                     // Simula o retorno e recarga
                     double distRetorno = GeoUtils.distanciaKm(p.getX(), p.getY(), 0, 0);
-                    drone.consumirBateria(distRetorno * (0.5 + pesoTotalCarga * 0.1));
+                    drone.consumirBateria(RegrasVoo.consumoTrecho(distRetorno, pesoTotalCarga));
 
                     drone.recarregar();
                     atualX = 0.0;
                     atualY = 0.0;
                     recargas++;
-
+                    recargasUrgentes++;
                     // AVISO: Após a recarga, a simulação recomeçaria o trecho
-                    System.out.println("   [RECARGA CONCLUÍDA] Drone " + drone.getId() + " retorna à missão a partir da base (0,0).");
                 }
 
                 // 3. Entrega do pedido
                 atualX = p.getX(); // Drone assume a posição da entrega
                 atualY = p.getY();
                 p.setStatus(Enums.StatusPedido.ENTREGUE);
+                eventos.publicar(EventoSimulacao.Tipo.PEDIDO_ENTREGUE, drone.getId(), p);
                 totalEntregas++;
 
                 pesoTotalCarga -= p.getPesoKg(); // A carga diminui após a entrega
@@ -121,9 +138,9 @@ public class Simulator {
 
             // 4. Retorna à base (distância final do último ponto (atualX, atualY) até (0,0))
             double distanciaBase = GeoUtils.distanciaKm(atualX, atualY, 0, 0);
-            System.out.println("-> Drone " + drone.getId() + " finalizou entregas, retornando à base. Distância: " + String.format("%.2f", distanciaBase) + "km");
+            eventos.publicar(EventoSimulacao.Tipo.RETORNO_BASE, drone.getId(), distanciaBase);
 
-            double consumoBase = distanciaBase * 0.5;
+            double consumoBase = distanciaBase * RegrasVoo.CONSUMO_POR_KM;
             drone.consumirBateria(consumoBase);
             consumoTotalSimulacao += consumoBase;
             totalTempo += distanciaBase;
@@ -136,155 +153,198 @@ public class Simulator {
                 drone.recarregarPosicao();
                 drone.setStatus(Enums.StatusDrone.IDLE);
             }
+            publicarStatus(eventos, drone);
 
             // Guarda estatísticas
+            eventosSimulados += pedidosRota.size() + recargas + 1;
             report.bateriaConsumidaPorDrone.put(drone.getId(), consumoTotalSimulacao);
             report.recargasPorDrone.put(drone.getId(), recargas);
         }
-        System.out.println("--- SIMULAÇÃO TÉCNICA CONCLUÍDA ---\n");
+        eventos.publicar(EventoSimulacao.Tipo.SIMULACAO_CONCLUIDA, 0, null);
 
 
         report.totalEntregas = totalEntregas;
+        report.recargasUrgentes = recargasUrgentes;
         report.tempoMedioEntrega = totalEntregas > 0 ? totalTempo / totalEntregas : 0;
         report.droneMaisEficiente = droneService.droneMaisEficiente(plan);
+        droneService.getMetricas().registrarSimulacao(eventosSimulados, System.nanoTime() - inicioNs);
+        droneService.getMetricas().registrarEntregas(totalEntregas, recargasUrgentes);
 
         return report;
     }
 
+    /**
+     * Simulação técnica por eventos discretos (sem passos nem console): mesmo relatório de
+     * {@link #runSimulation(Map)}, calculado saltando de evento em evento.
+     */
+    public SimulationReport runSimulationEventos(Map<Drone, List<Pedido>> plan) {
+        return new SimuladorEventos(droneService).executar(plan);
+    }
+
+    /**
+     * Simulação por eventos de um plano em ondas (várias viagens por drone, com recarga entre elas).
+     * A duração total simulada é o makespan da frota.
+     */
+    public SimulationReport runSimulationOndas(PlanoOndas plano) {
+        return new SimuladorEventos(droneService).executar(plano);
+    }
+
+    /**
+     * Simulação dinâmica sem console nem sleep (headless), com o cálculo de cada tick em paralelo.
+     * Usa as mesmas regras de {@link #runSimulationAscii(Map, int)}; serve para testes de carga.
+     */
+    public MotorTickParalelo.RelatorioTicks runSimulationHeadless(Map<Drone, List<Pedido>> plan, long maxTicks) {
+        return new MotorTickParalelo(droneService).executar(plan, maxTicks);
+    }
+
     /**
      * Simulação dinâmica com mapa ASCII, alertas e recarga (atualizado para rotas).
+     * Percorre a frota pelos arrays primitivos (EstadoVoo) usando as regras de RegrasVoo.
      */
     public void runSimulationAscii(Map<Drone, List<Pedido>> plan, int stepMillis) {
+        runSimulationAscii(plan, stepMillis, new AsciiMap(20, 20));
+    }
+
+    /**
+     * Visualização ao vivo com o mapa em modo delta (ANSI) quando modoDelta: o quadro fica parado na tela
+     * e a cada passo só as células que mudaram são redesenhadas.
+     */
+    public void runSimulationAscii(Map<Drone, List<Pedido>> plan, int stepMillis, boolean modoDelta) {
         AsciiMap mapa = new AsciiMap(20, 20);
+        mapa.setModoDelta(modoDelta);
+        runSimulationAscii(plan, stepMillis, mapa);
+    }
+
+    /**
+     * Mesma simulação, desenhando num mapa já configurado (ex.: tamanho maior ou modo delta ANSI).
+     * O delta depende das posições absolutas na tela, então no modo delta nada pode ir para o console no
+     * meio: o sink do serviço é esvaziado (flush) e trocado pela sua vista semConsole() enquanto o mapa
+     * é desenhado (o diário de eventos, se houver, continua gravando), e volta no fim.
+     */
+    public void runSimulationAscii(Map<Drone, List<Pedido>> plan, int stepMillis, AsciiMap mapa) {
+        if (!mapa.isModoDelta()) {
+            desenharSimulacaoAscii(plan, stepMillis, mapa);
+            return;
+        }
+        SinkEventos eventos = droneService.getSinkEventos();
+        eventos.flush();
+        droneService.setSinkEventos(eventos.semConsole());
+        try {
+            desenharSimulacaoAscii(plan, stepMillis, mapa);
+        } finally {
+            droneService.setSinkEventos(eventos);
+        }
+    }
+
+    private void desenharSimulacaoAscii(Map<Drone, List<Pedido>> plan, int stepMillis, AsciiMap mapa) {
+        Frota frota = droneService.getFrota();
+        PlanoCompacto plano = PlanoCompacto.de(frota, plan);
+        EstadoVoo estado = frota.estado();
 
-        // Novo: Mapa para rastrear o estado da rota (qual pedido o drone está indo buscar/entregar)
-        Map<Drone, Integer> nextPedidoIndex = new HashMap<>();
-        plan.keySet().forEach(d -> nextPedidoIndex.put(d, 0));
+        // Cursor da rota (qual pedido o drone está indo buscar/entregar) começa no primeiro pedido
+        for (int k = 0; k < plano.entradas(); k++) estado.cursorRota[plano.slot(k)] = 0;
 
         boolean dronesAtivos = true;
 
-        System.out.println("--- Iniciando Simulação Dinâmica (Mapa ASCII) ---");
+        SinkEventos eventos = droneService.getSinkEventos();
+        eventos.publicar(EventoSimulacao.Tipo.SIMULACAO_DINAMICA_INICIADA, 0, null);
+        MetricasSimulacao metricas = droneService.getMetricas();
+        long inicioNs = System.nanoTime();
+        long tick = 0;
+        long totalEventos = 0;
 
         while (dronesAtivos) {
+            EventosJfr.Tick jfr = EventosJfr.iniciarTick();
+            long inicioTickNs = System.nanoTime();
+            int eventosNoTick = 0;
             dronesAtivos = false;
             mapa.clear();
 
-            for (Map.Entry<Drone, List<Pedido>> entry : plan.entrySet()) {
-                Drone drone = entry.getKey();
-                List<Pedido> pedidosRota = entry.getValue();
-
-                int currentPedidoIndex = nextPedidoIndex.get(drone);
+            for (int k = 0; k < plano.entradas(); k++) {
+                int ocorridos = RegrasVoo.avancar(plano, k, estado, estado);
+                if ((ocorridos & RegrasVoo.OCIOSO) != 0) continue;
+                if ((ocorridos & RegrasVoo.ATIVO) != 0) dronesAtivos = true;
 
-                // Lógica para determinar a próxima AÇÃO:
-                if (drone.getStatus() == Enums.StatusDrone.IDLE) {
-                    // Se não houver mais pedidos na rota, o drone está na base IDLE
-                    if (currentPedidoIndex >= pedidosRota.size()) {
-                        continue;
-                    }
-
-                    Pedido next = pedidosRota.get(currentPedidoIndex);
-                    // O drone sempre volta IDLE se houver mais pedidos
-                    drone.assignPedido(next); // currentPedido = next, Status = CARREGANDO
-                    System.out.println("Drone " + drone.getId() + " CARREGANDO pedido " + next.getId().substring(0, 4) + "...");
-
-                } else if (drone.getStatus() == Enums.StatusDrone.CARREGANDO) {
-                    drone.setStatus(Enums.StatusDrone.EM_VOO); // Inicia voo
-                }
-
-                // ----------------------------------------------------
-                // Lógica de Movimento e Simulação
-                // ----------------------------------------------------
-                if (drone.getStatus() == Enums.StatusDrone.EM_VOO) {
-                    Pedido p = drone.getCurrentPedido(); // O pedido atual na rota
-
-                    if (p != null) {
-                        dronesAtivos = true;
-
-                        // Movimento: 1 unidade por passo (simulação)
-                        double dx = p.getX() > drone.getX() ? 1 : (p.getX() < drone.getX() ? -1 : 0);
-                        double dy = p.getY() > drone.getY() ? 1 : (p.getY() < drone.getY() ? -1 : 0);
-
-                        // Verifica se chegou ao pedido
-                        if (GeoUtils.distanciaKm(drone.getX(), drone.getY(), p.getX(), p.getY()) <= 1.0) {
-                            drone.setX(p.getX());
-                            drone.setY(p.getY());
-
-                            System.out.println("Drone " + drone.getId() + " **CHEGOU** e entregou pedido " + p.getId().substring(0, 4) + "!");
-                            p.setStatus(Enums.StatusPedido.ENTREGUE);
-                            drone.finishPedido(); // currentPedido = null
-
-                            // Avança para o próximo pedido na rota
-                            nextPedidoIndex.put(drone, currentPedidoIndex + 1);
-
-                            // Verifica se há mais pedidos na rota
-                            if (currentPedidoIndex + 1 >= pedidosRota.size()) {
-                                System.out.println("Drone " + drone.getId() + " finalizou todas as entregas. **RETORNANDO à base**.");
-                                drone.setStatus(Enums.StatusDrone.RETORNANDO);
-                            } else {
-                                drone.setStatus(Enums.StatusDrone.IDLE); // Fica IDLE na entrega para carregar o próximo
-                            }
-                        } else {
-                            // Move o drone (simulação de 1km/passo)
-                            drone.setX(drone.getX() + dx);
-                            drone.setY(drone.getY() + dy);
-
-                            double distRem = GeoUtils.distanciaKm(drone.getX(), drone.getY(), p.getX(), p.getY());
-
-                            // Alertas de Proximidade
-                            if (distRem < 5.0 && distRem > 1.0) {
-                                System.out.println(">> ALERTA: Drone " + drone.getId() + " próximo do destino. Restam " + String.format("%.1f", distRem) + "km.");
-                            }
-
-                            drone.consumirBateria(0.5); // Simulação de consumo
-                        }
-                    }
-
-                } else if (drone.getStatus() == Enums.StatusDrone.RETORNANDO) {
-                    dronesAtivos = true;
-
-                    // Movimento de retorno à base (0, 0)
-                    double dx = 0 > drone.getX() ? 1 : (0 < drone.getX() ? -1 : 0);
-                    double dy = 0 > drone.getY() ? 1 : (0 < drone.getY() ? -1 : 0);
-
-                    if (GeoUtils.distanciaKm(drone.getX(), drone.getY(), 0, 0) <= 1.0) {
-                        drone.recarregarPosicao();
-                        nextPedidoIndex.put(drone, pedidosRota.size()); // Marca o fim da rota
-
-                        if (drone.getBateria() <= 20) {
-                            System.out.println("Drone " + drone.getId() + " chegou à base e precisa de **RECARGA**.");
-                            drone.recarregar();
-                        } else {
-                            System.out.println("Drone " + drone.getId() + " chegou na base (0,0) e está **IDLE** a espera de novo ciclo.");
-                            drone.setStatus(Enums.StatusDrone.IDLE);
-                        }
-                    } else {
-                        // Move o drone
-                        drone.setX(drone.getX() + dx);
-                        drone.setY(drone.getY() + dy);
-                        drone.consumirBateria(0.5);
-                    }
-                }
-
-
-                // Lógica de Recarga (voltar à base se a bateria estiver baixa)
-                if (drone.getBateria() <= 20 && drone.getStatus() != Enums.StatusDrone.RETORNANDO && drone.getStatus() != Enums.StatusDrone.IDLE) {
-                    System.out.println("ALERTA CRÍTICO: Drone " + drone.getId() + " bateria baixa (" + String.format("%.1f", drone.getBateria()) + "%). RETORNANDO IMEDIATAMENTE!");
-                    drone.setStatus(Enums.StatusDrone.RETORNANDO);
-                    drone.finishPedido();
-                }
+                int i = plano.slot(k);
+                aplicarEventos(plano, k, ocorridos);
+                eventosNoTick += Integer.bitCount(ocorridos & ~(RegrasVoo.ATIVO | RegrasVoo.OCIOSO));
 
                 // Renderização no Mapa
-                mapa.setDrone(drone.getX(), drone.getY(), drone.getId(), drone.getStatus());
-                for (Pedido ped : pedidosRota) {
+                mapa.setDrone(estado.x[i], estado.y[i], frota.getId(i), frota.getStatus(i));
+                for (int r = 0; r < plano.tamanhoRota(k); r++) {
+                    Pedido ped = plano.pedido(k, r);
                     if (ped.getStatus() != Enums.StatusPedido.NAO_ATENDIDO) {
                         mapa.setPedido(ped.getX(), ped.getY(), ped.getStatus());
                     }
                 }
-                if (drone.getStatus() != Enums.StatusDrone.IDLE) dronesAtivos = true;
             }
 
+            // Duração do passo sem o desenho e a pausa
+            metricas.registrarTick(System.nanoTime() - inicioTickNs);
+            tick++;
+            if (jfr != null) jfr.concluir(tick, plano.entradas(), eventosNoTick);
+            totalEventos += eventosNoTick;
+
+            // Mensagens do passo saem antes do quadro, como antes
+            eventos.flush();
             mapa.render();
             try { Thread.sleep(stepMillis); } catch (InterruptedException ignored) {}
         }
+        metricas.registrarSimulacao(totalEventos, System.nanoTime() - inicioNs);
+    }
+
+    /**
+     * Aplica nos pedidos e no console os eventos de um passo do drone da entrada k.
+     */
+    private void aplicarEventos(PlanoCompacto plano, int k, int ocorridos) {
+        SinkEventos eventos = droneService.getSinkEventos();
+        Frota frota = plano.getFrota();
+        EstadoVoo estado = frota.estado();
+        int i = plano.slot(k);
+        int id = frota.getId(i);
+        int cursor = estado.cursorRota[i];
+
+        if ((ocorridos & RegrasVoo.CARREGANDO) != 0) {
+            Pedido next = plano.pedido(k, cursor);
+            frota.setPedidoAtual(i, next);
+            next.setStatus(Enums.StatusPedido.ALOCADO);
+            eventos.publicar(EventoSimulacao.Tipo.CARREGANDO, id, next);
+        }
+        if ((ocorridos & RegrasVoo.ENTREGA) != 0) {
+            Pedido p = plano.pedido(k, cursor - 1);
+            eventos.publicar(EventoSimulacao.Tipo.ENTREGUE, id, p);
+            p.setStatus(Enums.StatusPedido.ENTREGUE);
+            frota.setPedidoAtual(i, null);
+        }
+        if ((ocorridos & RegrasVoo.FIM_ROTA) != 0) {
+            eventos.publicar(EventoSimulacao.Tipo.FIM_ROTA, id, null);
+        }
+        if ((ocorridos & RegrasVoo.PROXIMO) != 0) {
+            if (eventos.aceita(EventoSimulacao.Tipo.PROXIMIDADE)) {
+                Pedido p = plano.pedido(k, cursor);
+                double distRem = GeoUtils.distanciaKm(estado.x[i], estado.y[i], p.getX(), p.getY());
+                eventos.publicar(EventoSimulacao.Tipo.PROXIMIDADE, id, distRem);
+            }
+        }
+        if ((ocorridos & RegrasVoo.RECARGA) != 0) {
+            eventos.publicar(EventoSimulacao.Tipo.RECARGA, id, null);
+            frota.setPedidoAtual(i, null);
+        }
+        if ((ocorridos & RegrasVoo.CHEGOU_BASE) != 0) {
+            eventos.publicar(EventoSimulacao.Tipo.CHEGOU_BASE, id, null);
+        }
+        if ((ocorridos & RegrasVoo.BATERIA_CRITICA) != 0) {
+            eventos.publicar(EventoSimulacao.Tipo.BATERIA_BAIXA, id, estado.bateria[i]);
+            frota.setPedidoAtual(i, null);
+            // A rota é abandonada: os pedidos não entregues voltam para a fila de pendentes
+            for (int r = cursor; r < plano.tamanhoRota(k); r++) droneService.liberarPedido(plano.pedido(k, r));
+        }
+        if ((ocorridos & RegrasVoo.MUDA_STATUS) != 0) {
+            eventos.publicar(EventoSimulacao.Tipo.STATUS_DRONE, id, null, estado.status[i], 0, estado.bateria[i]);
+        }
+    }
+
+    private static void publicarStatus(SinkEventos eventos, Drone drone) {
+        eventos.publicar(EventoSimulacao.Tipo.STATUS_DRONE, drone.getId(), null, drone.getStatus().ordinal(), 0, drone.getBateria());
     }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Pedido;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sink assíncrono: os produtores gravam o evento num buffer circular sem locks (vários produtores,
+ * um consumidor) e uma thread de fundo formata e escreve no console em lotes.
+ * Se o buffer encher, o produtor espera o escritor liberar espaço (nenhum evento é perdido).
+ */
+public class SinkAssincrono implements SinkEventos {
+    private static final int TAMANHO_LOTE = 256;
+
+    private final EventoSimulacao.Nivel nivelMinimo;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private final EventoSimulacao[] slots;
+    // sequencias[i] == posição: slot livre para o produtor; == posição + 1: evento pronto para o consumidor
+    private final AtomicLongArray sequencias;
+    private final int mascara;
+    private final AtomicLong cauda = new AtomicLong();
+    // Quantidade de eventos já escritos no console (para o flush)
+    private final AtomicLong escritos = new AtomicLong();
+
+    private final Thread escritor;
+    private volatile boolean ativo = true;
+
+    public SinkAssincrono(EventoSimulacao.Nivel nivelMinimo) {
+        this(nivelMinimo, 8192, System.out, System.err);
+    }
+
+    public SinkAssincrono(EventoSimulacao.Nivel nivelMinimo, int capacidade, PrintStream out, PrintStream err) {
+        if (Integer.bitCount(capacidade) != 1) throw new IllegalArgumentException("Capacidade deve ser potência de 2.");
+        this.nivelMinimo = nivelMinimo;
+        this.out = out;
+        this.err = err;
+        this.slots = new EventoSimulacao[capacidade];
+        this.sequencias = new AtomicLongArray(capacidade);
+        this.mascara = capacidade - 1;
+        for (int i = 0; i < capacidade; i++) {
+            slots[i] = new EventoSimulacao();
+            sequencias.set(i, i);
+        }
+        this.escritor = new Thread(this::drenar, "sink-eventos");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    @Override
+    public boolean aceita(EventoSimulacao.Tipo tipo) {
+        return tipo.nivel.ordinal() >= nivelMinimo.ordinal();
+    }
+
+    @Override
+    public void publicar(EventoSimulacao.Tipo tipo, int droneId, Pedido pedido, int n1, int n2, double valor) {
+        if (!aceita(tipo)) return;
+        long pos;
+        while (true) {
+            pos = cauda.get();
+            long dif = sequencias.get((int) (pos & mascara)) - pos;
+            if (dif == 0) {
+                if (cauda.compareAndSet(pos, pos + 1)) break;
+            } else if (dif < 0) {
+                // Buffer cheio: espera o escritor
+                LockSupport.unpark(escritor);
+                Thread.onSpinWait();
+            }
+        }
+        int idx = (int) (pos & mascara);
+        slots[idx].preencher(tipo, droneId, pedido, n1, n2, valor);
+        sequencias.lazySet(idx, pos + 1);
+    }
+
+    private void drenar() {
+        StringBuilder lote = new StringBuilder(TAMANHO_LOTE * 80);
+        PrintStream destinoLote = out;
+        long cabeca = 0;
+        while (true) {
+            int idx = (int) (cabeca & mascara);
+            if (sequencias.get(idx) == cabeca + 1) {
+                EventoSimulacao e = slots[idx];
+                PrintStream destino = e.saidaErro() ? err : out;
+                if (destino != destinoLote && lote.length() > 0) {
+                    destinoLote.print(lote);
+                    destinoLote.flush();
+                    lote.setLength(0);
+                }
+                destinoLote = destino;
+                e.formatar(lote);
+                lote.append(System.lineSeparator());
+                e.pedido = null;
+                sequencias.lazySet(idx, cabeca + slots.length); // libera o slot
+                cabeca++;
+                if ((cabeca & (TAMANHO_LOTE - 1)) != 0) continue;
+            }
+            // Lote cheio ou fila vazia: escreve o que acumulou
+            if (lote.length() > 0) {
+                destinoLote.print(lote);
+                destinoLote.flush();
+                lote.setLength(0);
+            }
+            escritos.set(cabeca);
+            if (sequencias.get((int) (cabeca & mascara)) != cabeca + 1) {
+                if (!ativo) return;
+                LockSupport.parkNanos(100_000);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        long alvo = cauda.get();
+        while (escritos.get() < alvo) {
+            if (!escritor.isAlive()) return;
+            LockSupport.unpark(escritor);
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    @Override
+    public void fechar() {
+        flush();
+        ativo = false;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Pedido;
+
+import java.io.PrintStream;
+
+/**
+ * Escreve os eventos no console na hora, na thread que publicou (comportamento original dos println).
+ */
+public class SinkConsole implements SinkEventos {
+    private final EventoSimulacao.Nivel nivelMinimo;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final EventoSimulacao evento = new EventoSimulacao();
+    private final StringBuilder sb = new StringBuilder(160);
+
+    public SinkConsole(EventoSimulacao.Nivel nivelMinimo) {
+        this(nivelMinimo, System.out, System.err);
+    }
+
+    public SinkConsole(EventoSimulacao.Nivel nivelMinimo, PrintStream out, PrintStream err) {
+        this.nivelMinimo = nivelMinimo;
+        this.out = out;
+        this.err = err;
+    }
+
+    @Override
+    public boolean aceita(EventoSimulacao.Tipo tipo) {
+        return tipo.nivel.ordinal() >= nivelMinimo.ordinal();
+    }
+
+    @Override
+    public synchronized void publicar(EventoSimulacao.Tipo tipo, int droneId, Pedido pedido, int n1, int n2, double valor) {
+        if (!aceita(tipo)) return;
+        evento.preencher(tipo, droneId, pedido, n1, n2, valor);
+        sb.setLength(0);
+        evento.formatar(sb);
+        (evento.saidaErro() ? err : out).println(sb);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.dronesim.service;
+
+import com.example.dronesim.model.Pedido;
+
+/**
+ * Destino dos eventos de alocação e simulação (console, silencioso, assíncrono...).
+ * publicar() recebe só primitivos e a referência do pedido, para que os caminhos quentes não montem
+ * texto nem aloquem nada quando o evento vai ser descartado pelo filtro de nível.
+ */
+public interface SinkEventos {
+
+    /** Descarta tudo (modo silencioso). */
+    SinkEventos SILENCIOSO = new SinkEventos() {
+        @Override
+        public boolean aceita(EventoSimulacao.Tipo tipo) { return false; }
+
+        @Override
+        public void publicar(EventoSimulacao.Tipo tipo, int droneId, Pedido pedido, int n1, int n2, double valor) {}
+    };
+
+    boolean aceita(EventoSimulacao.Tipo tipo);
+
+    void publicar(EventoSimulacao.Tipo tipo, int droneId, Pedido pedido, int n1, int n2, double valor);
+
+    default void publicar(EventoSimulacao.Tipo tipo, int droneId, Pedido pedido) {
+        publicar(tipo, droneId, pedido, 0, 0, 0.0);
+    }
+
+    default void publicar(EventoSimulacao.Tipo tipo, int droneId, double valor) {
+        publicar(tipo, droneId, null, 0, 0, valor);
+    }
+
+    /**
+     * Vista deste sink sem a saída de console (DEBUG e acima), para quando a tela não pode receber texto
+     * (ex.: mapa em modo delta). Os eventos TRACO continuam chegando aqui; um sink que grava também
+     * eventos de nível maior (DiarioEventos) sobrescreve para não perdê-los.
+     */
+    default SinkEventos semConsole() {
+        SinkEventos destino = this;
+        return new SinkEventos() {
+            @Override
+            public boolean aceita(EventoSimulacao.Tipo tipo) {
+                return tipo.nivel == EventoSimulacao.Nivel.TRACO && destino.aceita(tipo);
+            }
+
+            @Override
+            public void publicar(EventoSimulacao.Tipo tipo, int droneId, Pedido pedido, int n1, int n2, double valor) {
+                if (aceita(tipo)) destino.publicar(tipo, droneId, pedido, n1, n2, valor);
+            }
+
+            @Override
+            public void flush() {
+                destino.flush();
+            }
+        };
+    }
+
+    /** Espera até que tudo o que foi publicado tenha sido escrito. */
+    default void flush() {}
+
+    /** Libera recursos (ex.: thread de escrita). */
+    default void fechar() {}
+}
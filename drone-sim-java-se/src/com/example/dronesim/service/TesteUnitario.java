@@ -1,12 +1,33 @@
 package com.example.dronesim.service;
 
+import com.example.dronesim.ExecucaoLote;
 import com.example.dronesim.model.Drone;
 import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.EstadoVoo;
 import com.example.dronesim.model.Pedido;
+import com.example.dronesim.util.AsciiMap;
+import com.example.dronesim.util.FilaPendentes;
 import com.example.dronesim.util.GeoUtils;
+import com.example.dronesim.util.GeradorIds;
+import com.example.dronesim.util.GradeEspacial;
+import com.example.dronesim.util.HistogramaLatencia;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Classe para execução de Testes Unitários estritamente em Java Puro (Java SE).
@@ -26,6 +47,8 @@ public class TesteUnitario {
 
     // --- Assertions Manuais ---
     private void assertTrue(boolean condition, String message) {
+        // Mensagens do serviço publicadas até aqui saem antes do resultado
+        service.getSinkEventos().flush();
         testesExecutados++;
         if (!condition) {
             testesFalhos++;
@@ -100,6 +123,846 @@ public class TesteUnitario {
         assertTrue(pedidoC.getStatus() == Enums.StatusPedido.NAO_ATENDIDO, "Pedido C deve ser rejeitado por alcance.");
     }
 
+    public void testGradeEspacial() {
+        System.out.println("\n-- Teste: GradeEspacial.buscarRaio --");
+        GradeEspacial grade = new GradeEspacial(10.0);
+        Pedido perto = new Pedido(3, 4, 1.0, Enums.Prioridade.BAIXA);      // 5km da base
+        Pedido limite = new Pedido(-30, 40, 1.0, Enums.Prioridade.BAIXA);  // 50km da base
+        Pedido longe = new Pedido(60, 0, 1.0, Enums.Prioridade.BAIXA);     // 60km da base
+        grade.adicionar(perto);
+        grade.adicionar(limite);
+        grade.adicionar(longe);
+
+        List<Pedido> encontrados = new ArrayList<>();
+        grade.buscarRaio(0, 0, 50.0, encontrados);
+        assertTrue(encontrados.size() == 2 && encontrados.contains(perto) && encontrados.contains(limite),
+                "Busca no raio de 50km deve retornar apenas os 2 pedidos dentro do raio.");
+
+        grade.remover(perto);
+        encontrados.clear();
+        grade.buscarRaio(0, 0, 50.0, encontrados);
+        assertTrue(encontrados.size() == 1 && grade.tamanho() == 2, "Pedido removido não deve mais ser retornado pela grade.");
+    }
+
+    public void testFilaPendentesOrdem() {
+        System.out.println("\n-- Teste: FilaPendentes (prioridade + FIFO) --");
+        FilaPendentes fila = new FilaPendentes();
+        Pedido baixa = new Pedido(1, 1, 1.0, Enums.Prioridade.BAIXA);
+        Pedido alta1 = new Pedido(2, 2, 1.0, Enums.Prioridade.ALTA);
+        Pedido media = new Pedido(3, 3, 1.0, Enums.Prioridade.MEDIA);
+        Pedido alta2 = new Pedido(4, 4, 1.0, Enums.Prioridade.ALTA);
+        fila.adicionar(baixa);
+        fila.adicionar(alta1);
+        fila.adicionar(media);
+        fila.adicionar(alta2);
+        fila.adicionar(alta1); // Repetido: ignorado
+
+        List<Pedido> ordem = new ArrayList<>();
+        for (Pedido p : fila.emOrdem()) ordem.add(p);
+        assertTrue(ordem.equals(List.of(alta1, alta2, media, baixa)), "A fila deve seguir prioridade e depois ordem de chegada.");
+        assertTrue(fila.ordem(alta2) < fila.ordem(media), "A chave de ordenação deve respeitar a mesma ordem.");
+
+        assertTrue(fila.remover(alta1) && !fila.contem(alta1), "Remoção deve tirar o pedido da fila.");
+        assertEquals(3, fila.tamanho(), DELTA, "A fila deve ficar com 3 pedidos.");
+        assertTrue(fila.emOrdem().iterator().next() == alta2, "Depois da remoção, o próximo é o segundo pedido ALTA.");
+    }
+
+    public void testMotorBuscaRotaMelhorOrdem() {
+        System.out.println("\n-- Teste: MotorBuscaRota (melhor ordem de visita) --");
+        // Na ordem da lista (A -> B -> C) a rota tem ~54km; na ordem A -> C -> B tem ~48km
+        List<Pedido> candidatos = new ArrayList<>();
+        candidatos.add(new Pedido(10, 0, 1.0, Enums.Prioridade.ALTA));  // A
+        candidatos.add(new Pedido(10, 10, 1.0, Enums.Prioridade.ALTA)); // B
+        candidatos.add(new Pedido(20, 0, 1.0, Enums.Prioridade.ALTA));  // C
+
+        MotorBuscaRota motor = new MotorBuscaRota();
+        motor.carregar(candidatos);
+        int paradas = motor.buscar(10.0, 50.0);
+        assertEquals(3, paradas, DELTA, "Os 3 pedidos devem caber em uma rota com a ordem de visita correta.");
+        assertTrue(motor.distanciaMelhor() <= 50.0, "A rota escolhida deve respeitar o alcance do drone.");
+
+        int paradasPeso = motor.buscar(2.5, 50.0);
+        assertEquals(2, paradasPeso, DELTA, "Com capacidade de 2.5kg apenas 2 pedidos devem caber.");
+    }
+
+    public void testMotorBuscaRotaHeldKarp() {
+        System.out.println("\n-- Teste: MotorBuscaRota com mais de 3 paradas (Held-Karp) --");
+        // Hexágono de lado 10 centrado em (20, 0), listado em zigue-zague; a volta ótima contorna o
+        // hexágono: 10 (base -> primeiro vértice) + 50 (cinco lados) + ~17.32 (volta) = ~77.32km
+        double h = 10 * Math.sqrt(3) / 2;
+        double[][] vertices = {{10, 0}, {30, 0}, {15, h}, {25, -h}, {25, h}, {15, -h}};
+        List<Pedido> candidatos = new ArrayList<>();
+        for (double[] v : vertices) candidatos.add(new Pedido(v[0], v[1], 1.0, Enums.Prioridade.ALTA));
+
+        MotorBuscaRota padrao = new MotorBuscaRota();
+        padrao.carregar(candidatos);
+        assertEquals(3, padrao.buscar(10.0, 80.0), DELTA, "Com o motor padrão a rota para em 3 paradas.");
+
+        MotorBuscaRota motor = new MotorBuscaRota(6);
+        motor.carregar(candidatos);
+        assertEquals(6, motor.buscar(10.0, 80.0), DELTA, "Com 6 paradas os 6 pedidos devem caber na volta ótima.");
+        assertEquals(50 + 10 + Math.sqrt(15 * 15 + h * h), motor.distanciaMelhor(), DELTA,
+                "A distância deve ser a da volta ótima pelo contorno do hexágono.");
+        boolean[] visitado = new boolean[6];
+        for (int i = 0; i < 6; i++) visitado[motor.parada(i)] = true;
+        boolean todos = true;
+        for (boolean v : visitado) todos &= v;
+        assertTrue(todos, "A ordem de visita deve passar uma vez por cada pedido.");
+        assertEquals(5, motor.buscar(5.0, 80.0), DELTA, "Com 5kg de capacidade cabem só 5 pedidos.");
+    }
+
+    public void testSimuladorEventosMesmoRelatorio() {
+        System.out.println("\n-- Teste: Simulação por eventos x simulação técnica --");
+        service.resetPedidos();
+        service.criarPedido(30, 30, 6.0, Enums.Prioridade.ALTA);
+        service.criarPedido(-20, 35, 2.0, Enums.Prioridade.MEDIA);
+        service.criarPedido(10, -40, 4.0, Enums.Prioridade.BAIXA);
+        Simulator simulator = new Simulator(service);
+
+        Simulator.SimulationReport tecnico = simulator.runSimulation(service.alocarPedidos());
+        service.resetPedidos();
+        Simulator.SimulationReport eventos = simulator.runSimulationEventos(service.alocarPedidos());
+
+        assertEquals(tecnico.totalEntregas, eventos.totalEntregas, DELTA, "Os dois motores devem entregar o mesmo número de pedidos.");
+        assertEquals(tecnico.tempoMedioEntrega, eventos.tempoMedioEntrega, DELTA, "O tempo médio por entrega deve ser o mesmo nos dois motores.");
+        assertTrue(tecnico.bateriaConsumidaPorDrone.keySet().equals(eventos.bateriaConsumidaPorDrone.keySet()),
+                "Os dois motores devem reportar consumo para os mesmos drones.");
+        for (Integer id : tecnico.bateriaConsumidaPorDrone.keySet()) {
+            assertEquals(tecnico.bateriaConsumidaPorDrone.get(id), eventos.bateriaConsumidaPorDrone.get(id), DELTA,
+                    "Consumo de bateria do drone " + id + " deve ser o mesmo nos dois motores.");
+        }
+        assertTrue(eventos.tempoTotalSimulacao > 0, "O motor de eventos deve reportar a duração total simulada.");
+    }
+
+    public void testAsciiMapDelta() {
+        System.out.println("\n-- Teste: AsciiMap (quadro completo e modo delta) --");
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        AsciiMap mapa = new AsciiMap(5, 4, new PrintStream(buffer, true));
+        mapa.setDrone(2, 1, 1, Enums.StatusDrone.EM_VOO);
+        mapa.setPedido(3, 3, Enums.StatusPedido.PENDENTE);
+        mapa.render();
+        // Mesma saída do desenho antigo, célula a célula com print/println
+        ByteArrayOutputStream antigo = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(antigo, true);
+        char[][] esperado = {{'B', '.', '.', '.', '.'}, {'.', '.', '>', '.', '.'}, {'.', '.', '.', '.', '.'}, {'.', '.', '.', 'P', '.'}};
+        out.println("----------------------------------------");
+        for (char[] linha : esperado) {
+            for (char c : linha) out.print(c + " ");
+            out.println();
+        }
+        out.println("Base=B | Pedido=P | Entregue=E | Drone parado=D | Indo=> | Voltando=< | Recarregando=R");
+        assertTrue(buffer.toString().equals(antigo.toString()), "O quadro completo é igual ao desenho célula a célula.");
+
+        buffer.reset();
+        mapa.setModoDelta(true);
+        mapa.render();
+        assertTrue(buffer.toString().equals("\u001B[2J\u001B[H" + antigo), "O primeiro quadro delta limpa a tela e desenha tudo.");
+        buffer.reset();
+        mapa.clear();
+        mapa.setDrone(3, 1, 1, Enums.StatusDrone.EM_VOO);
+        mapa.setPedido(3, 3, Enums.StatusPedido.PENDENTE);
+        mapa.render();
+        // Só as duas células da linha y=1 (linha 3 da tela) mudaram, depois o cursor volta para baixo da legenda
+        assertTrue(buffer.toString().equals("\u001B[3;5H.\u001B[3;7H>\u001B[7;1H"), "O quadro delta só redesenha as células alteradas.");
+    }
+
+    public void testMotorTickMesmasRegras() {
+        System.out.println("\n-- Teste: Motor de ticks headless x simulação com mapa ASCII --");
+        for (long semente = 1; semente <= 3; semente++) {
+            DroneService ascii = cenarioTicks(semente);
+            DroneService headless = cenarioTicks(semente);
+            // O mapa escreve num buffer descartado, sem pausa entre os passos
+            new Simulator(ascii).runSimulationAscii(ascii.alocarPedidos(), 0,
+                    new AsciiMap(20, 20, new PrintStream(new ByteArrayOutputStream())));
+            MotorTickParalelo.RelatorioTicks r = new Simulator(headless).runSimulationHeadless(headless.alocarPedidos(), 1_000_000);
+
+            EstadoVoo a = ascii.getFrota().estado();
+            EstadoVoo h = headless.getFrota().estado();
+            boolean iguais = ascii.getFrota().tamanho() == headless.getFrota().tamanho();
+            for (int i = 0; iguais && i < ascii.getFrota().tamanho(); i++) {
+                iguais = a.x[i] == h.x[i] && a.y[i] == h.y[i] && a.bateria[i] == h.bateria[i] && a.status[i] == h.status[i];
+            }
+            assertTrue(iguais, "Semente " + semente + ": posição, bateria e status finais de cada drone iguais nos dois motores.");
+            assertEquals(entregues(ascii), r.entregas, DELTA, "Semente " + semente + ": mesmo número de entregas.");
+            assertEquals(entregues(ascii), entregues(headless), DELTA, "Semente " + semente + ": mesmos pedidos ENTREGUE.");
+        }
+    }
+
+    /** Frota e pedidos aleatórios, sem eventos no console (bateria curta para passar por recargas). */
+    private static DroneService cenarioTicks(long semente) {
+        DroneService s = new DroneService(false);
+        s.setSinkEventos(SinkEventos.SILENCIOSO);
+        Random r = new Random(semente);
+        for (int i = 0; i < 6; i++) s.criarDrone(8 + r.nextInt(8), 60 + r.nextInt(60), 0, 0);
+        for (int i = 0; i < 40; i++) {
+            s.criarPedido(r.nextInt(41) - 20, r.nextInt(41) - 20, 0.5 + r.nextDouble() * 6, Enums.Prioridade.MEDIA);
+        }
+        return s;
+    }
+
+    private static int entregues(DroneService s) {
+        int n = 0;
+        for (Pedido p : s.listarPedidos()) if (p.getStatus() == Enums.StatusPedido.ENTREGUE) n++;
+        return n;
+    }
+
+    public void testSinkAssincronoFiltraNivel() {
+        System.out.println("\n-- Teste: SinkAssincrono (filtro de nível) --");
+        java.io.ByteArrayOutputStream saida = new java.io.ByteArrayOutputStream();
+        java.io.PrintStream ps = new java.io.PrintStream(saida, true);
+        SinkAssincrono sink = new SinkAssincrono(EventoSimulacao.Nivel.AVISO, 16, ps, ps);
+
+        assertTrue(!sink.aceita(EventoSimulacao.Tipo.PROXIMIDADE), "Eventos DEBUG não devem ser aceitos com nível mínimo AVISO.");
+        // Mais eventos que a capacidade do buffer: o produtor deve esperar o escritor, sem perder nada
+        for (int i = 0; i < 100; i++) {
+            sink.publicar(EventoSimulacao.Tipo.PROXIMIDADE, 1, 2.0);
+            sink.publicar(EventoSimulacao.Tipo.BATERIA_BAIXA, i, 15.0);
+        }
+        sink.fechar();
+
+        String[] linhas = saida.toString().trim().split("\\R");
+        assertEquals(100, linhas.length, DELTA, "Somente os 100 eventos de bateria baixa devem ser escritos.");
+        assertTrue(linhas[99].contains(": Drone 99 bateria baixa"), "Os eventos devem sair na ordem de publicação.");
+    }
+
+    public void testCriarPedidoConcorrente() throws InterruptedException {
+        System.out.println("\n-- Teste: criarPedido concorrente + alocação incremental --");
+        DroneService local = new DroneService();
+        local.setSinkEventos(SinkEventos.SILENCIOSO);
+        Thread[] produtores = new Thread[4];
+        for (int t = 0; t < produtores.length; t++) {
+            produtores[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) local.criarPedido(i % 20, 5, 1.0, Enums.Prioridade.MEDIA);
+            });
+            produtores[t].start();
+        }
+        for (Thread t : produtores) t.join();
+
+        assertTrue(local.temPedidosNaEntrada(), "Os pedidos devem ficar na fila de entrada até serem drenados.");
+        assertEquals(4000, local.listarPedidos().size(), DELTA, "Nenhum pedido criado em paralelo pode se perder.");
+
+        Map<Drone, List<Pedido>> novas = local.alocarPendentes(local.dronesLivresNaBase());
+        assertEquals(5, novas.size(), DELTA, "Os 5 drones livres devem receber rota na alocação incremental.");
+        assertEquals(4000 - 15, local.quantidadePendentes(), DELTA, "O que não coube continua PENDENTE (sem NAO_ATENDIDO).");
+    }
+
+    public void testAlocacaoParalela() {
+        System.out.println("\n-- Teste: Alocação PARALELA (arbitragem das propostas) --");
+        ForkJoinPool umaThread = new ForkJoinPool(1);
+        ForkJoinPool varias = new ForkJoinPool(8);
+        for (long semente = 1; semente <= 3; semente++) {
+            // Muitos drones disputando os mesmos pedidos perto da base: a primeira rodada tem conflitos
+            DroneService a = cenarioAlocacao(semente);
+            a.setPoolAlocacao(umaThread);
+            Map<Drone, List<Pedido>> planoA = a.alocarPedidos(Enums.ModoAlocacao.PARALELO);
+            DroneService.RelatorioAlocacao relA = a.getUltimoRelatorioAlocacao();
+            DroneService b = cenarioAlocacao(semente);
+            b.setPoolAlocacao(varias);
+            Map<Drone, List<Pedido>> planoB = b.alocarPedidos(Enums.ModoAlocacao.PARALELO);
+
+            Set<Pedido> vistos = new HashSet<>();
+            boolean unicos = true;
+            for (List<Pedido> rota : planoB.values()) {
+                for (Pedido p : rota) unicos &= vistos.add(p) && p.getStatus() == Enums.StatusPedido.ALOCADO;
+            }
+            assertTrue(unicos, "Semente " + semente + ": nenhum pedido em duas rotas, todos ALOCADO.");
+            assertTrue(rotasPorIndice(a, planoA).equals(rotasPorIndice(b, planoB)),
+                    "Semente " + semente + ": o plano é o mesmo com 1 e com 8 threads.");
+            assertTrue(relA.rodadas > 1, "Semente " + semente + ": houve conflito e mais de uma rodada.");
+            conferirRelatorio(a, planoA, relA, Enums.ModoAlocacao.PARALELO);
+
+            DroneService c = cenarioAlocacao(semente);
+            Map<Drone, List<Pedido>> planoC = c.alocarPedidos(Enums.ModoAlocacao.SEQUENCIAL);
+            DroneService.RelatorioAlocacao relC = c.getUltimoRelatorioAlocacao();
+            assertEquals(1, relC.rodadas, DELTA, "Semente " + semente + ": SEQUENCIAL faz uma rodada só.");
+            conferirRelatorio(c, planoC, relC, Enums.ModoAlocacao.SEQUENCIAL);
+            // Os planos diferem, mas a qualidade é comparável: no máximo uma viagem por drone e quase os mesmos pedidos
+            assertTrue(relA.viagens <= 60 && relC.viagens <= 60
+                            && Math.abs(relA.pedidosAlocados - relC.pedidosAlocados) <= 0.05 * relC.pedidosAlocados,
+                    "Semente " + semente + ": PARALELO aloca quase o mesmo que o SEQUENCIAL.");
+        }
+        umaThread.shutdown();
+        varias.shutdown();
+    }
+
+    /** 60 drones e 800 pedidos aleatórios (alguns longe demais ou pesados demais para a frota). */
+    private static DroneService cenarioAlocacao(long semente) {
+        DroneService s = new DroneService(false);
+        s.setSinkEventos(SinkEventos.SILENCIOSO);
+        Random r = new Random(semente);
+        for (int i = 0; i < 60; i++) {
+            double capacidade = 5 + r.nextInt(8);
+            s.criarDrone(capacidade, capacidade * 10, 0, 0);
+        }
+        Enums.Prioridade[] prioridades = Enums.Prioridade.values();
+        for (int i = 0; i < 800; i++) {
+            s.criarPedido((r.nextDouble() * 2 - 1) * 70, (r.nextDouble() * 2 - 1) * 70, 0.5 + r.nextDouble() * 13,
+                    prioridades[r.nextInt(prioridades.length)]);
+        }
+        return s;
+    }
+
+    /** Rota de cada drone (na ordem da frota) como índices dos pedidos na ordem de criação. */
+    private static List<List<Integer>> rotasPorIndice(DroneService s, Map<Drone, List<Pedido>> plano) {
+        Map<Pedido, Integer> indice = new HashMap<>();
+        for (Pedido p : s.listarPedidos()) indice.put(p, indice.size());
+        List<List<Integer>> rotas = new ArrayList<>();
+        for (Drone d : s.listarDrones()) {
+            List<Integer> rota = new ArrayList<>();
+            for (Pedido p : plano.get(d)) rota.add(indice.get(p));
+            rotas.add(rota);
+        }
+        return rotas;
+    }
+
+    private void conferirRelatorio(DroneService s, Map<Drone, List<Pedido>> plano, DroneService.RelatorioAlocacao rel,
+                                   Enums.ModoAlocacao modo) {
+        int alocados = 0, viagens = 0, naoAtendidos = 0;
+        for (List<Pedido> rota : plano.values()) {
+            alocados += rota.size();
+            if (!rota.isEmpty()) viagens++;
+        }
+        for (Pedido p : s.listarPedidos()) if (p.getStatus() == Enums.StatusPedido.NAO_ATENDIDO) naoAtendidos++;
+        assertTrue(rel.modo == modo && rel.pedidosAlocados == alocados && rel.viagens == viagens
+                        && rel.naoAtendidos == naoAtendidos && alocados + naoAtendidos == s.listarPedidos().size()
+                        && rel.distanciaTotalKm > 0,
+                modo + ": relatório com modo, alocados, viagens e não atendidos do plano.");
+    }
+
+    public void testIndiceRotasELiberacao() {
+        System.out.println("\n-- Teste: índice drone->rota e liberação por bateria crítica --");
+        DroneService local = new DroneService();
+        local.setSinkEventos(SinkEventos.SILENCIOSO);
+        local.criarPedido(30, 0, 1.0, Enums.Prioridade.ALTA);
+        local.criarPedido(30, 5, 1.0, Enums.Prioridade.ALTA);
+        Map<Drone, List<Pedido>> plan = local.alocarPedidos();
+
+        Drone drone = null;
+        for (Map.Entry<Drone, List<Pedido>> e : plan.entrySet()) {
+            if (!e.getValue().isEmpty()) drone = e.getKey();
+        }
+        assertNotNull(drone, "Um drone deve receber a rota com os 2 pedidos.");
+        if (drone == null) return;
+        List<Pedido> rota = plan.get(drone);
+        assertTrue(local.getPedidosDoDrone(drone).equals(rota), "O índice deve devolver a rota na ordem de visita.");
+        assertTrue(local.getDroneDoPedido(rota.get(1)) == drone, "O índice deve responder qual drone tem o pedido.");
+
+        // Bateria quase no limite: o drone abandona a rota no caminho e os pedidos voltam a ser pendentes
+        drone.consumirBateria(drone.getBateria() - 25.0);
+        new MotorTickParalelo(local).executar(plan, 10_000);
+        assertTrue(rota.get(0).getStatus() == Enums.StatusPedido.PENDENTE, "Pedido abandonado deve voltar a PENDENTE.");
+        assertNull(local.getDroneDoPedido(rota.get(0)), "Pedido abandonado não pode continuar com o drone.");
+        assertEquals(2, local.quantidadePendentes(), DELTA, "Os 2 pedidos devem voltar para a fila de pendentes.");
+    }
+
+    public void testGeradorIdsFaixas() {
+        System.out.println("\n-- Teste: GeradorIds (faixas por produtor) --");
+        GeradorIds gerador = new GeradorIds(100);
+        GeradorIds.Faixa a = gerador.reservar(3);
+        GeradorIds.Faixa b = gerador.reservar(2);
+        assertEquals(100, a.proximo(), DELTA, "A primeira faixa começa no primeiro id.");
+        assertEquals(103, b.proximo(), DELTA, "A segunda faixa começa depois da primeira.");
+        assertEquals(105, gerador.proximo(), DELTA, "O contador continua depois das faixas reservadas.");
+        b.proximo();
+        assertTrue(!b.temProximo(), "A faixa deve acabar após 'tamanho' ids.");
+
+        Pedido p1 = new Pedido(0, 0, 1.0, Enums.Prioridade.BAIXA);
+        Pedido p2 = new Pedido(0, 0, 1.0, Enums.Prioridade.BAIXA);
+        assertTrue(p2.getId() > p1.getId(), "Ids de pedidos devem ser sequenciais.");
+    }
+
+    public void testCarregadorCenario() throws IOException {
+        System.out.println("\n-- Teste: CarregadorCenario (CSV -> binário -> serviço) --");
+        Path csv = Files.createTempFile("cenario", ".csv");
+        Path bin = Files.createTempFile("cenario", ".bin");
+        try {
+            Files.write(csv, Arrays.asList(
+                    "# cenário de teste",
+                    "drone,10,100",
+                    "drone,12,120,1.5,-2",
+                    "pedido,3,4,2.5,ALTA",
+                    "pedido,-1,2,20,BAIXA",
+                    "pedido,5,5,1,media"), StandardCharsets.UTF_8);
+
+            DroneService origem = new DroneService(false);
+            origem.setSinkEventos(SinkEventos.SILENCIOSO);
+            CarregadorCenario.Resumo r = new CarregadorCenario(origem).carregarCsv(csv);
+            assertTrue(r.drones == 2 && r.pedidos == 2 && r.rejeitados == 1, "CSV: 2 drones, 2 pedidos e 1 rejeitado por peso.");
+            assertEquals(2, origem.quantidadePendentes(), DELTA, "Pedidos do CSV entram direto como pendentes.");
+
+            new CarregadorCenario(origem).gravarBinario(bin);
+            DroneService destino = new DroneService(false);
+            destino.setSinkEventos(SinkEventos.SILENCIOSO);
+            new CarregadorCenario(destino).carregarBinario(bin);
+
+            List<Drone> drones = destino.listarDrones();
+            List<Pedido> pedidos = destino.listarPedidos();
+            assertTrue(drones.size() == 2 && drones.get(1).getCapacidadeKg() == 12 && drones.get(1).getY() == -2,
+                    "Binário deve trazer a mesma frota (capacidade e posição).");
+            assertTrue(pedidos.size() == 2 && pedidos.get(0).getPesoKg() == 2.5
+                            && pedidos.get(1).getPrioridade() == Enums.Prioridade.MEDIA,
+                    "Binário deve trazer os mesmos pedidos, na mesma ordem.");
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(bin);
+        }
+    }
+
+    public void testExecucaoLote() throws IOException {
+        System.out.println("\n-- Teste: ExecucaoLote (modo lote, relatório JSON) --");
+        Path csv = Files.createTempFile("lote", ".csv");
+        try {
+            Files.write(csv, Arrays.asList("drone,10,100", "pedido,1,1,2,ALTA", "pedido,2,-3,1,BAIXA"), StandardCharsets.UTF_8);
+            ExecucaoLote.Opcoes opcoes = ExecucaoLote.Opcoes.ler(new String[] {
+                    "--cenario", csv.toString(), "--motor", "eventos", "--execucoes", "2"});
+            assertTrue(opcoes.motor == Enums.MotorSimulacao.EVENTOS && opcoes.execucoes == 2, "Opções do modo lote lidas da linha de comando.");
+            String json = ExecucaoLote.executar(opcoes);
+            assertTrue(json.contains("\"execucao\": 2") && json.contains("\"totalEntregas\": 2"),
+                    "Relatório JSON deve trazer as duas execuções com 2 entregas.");
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+        boolean rejeitou = false;
+        try {
+            ExecucaoLote.Opcoes.ler(new String[] {"--execucoes", "zero"});
+        } catch (IllegalArgumentException e) {
+            rejeitou = true;
+        }
+        assertTrue(rejeitou, "Opção com valor inválido deve ser rejeitada.");
+    }
+
+    public void testMetricasEHistograma() {
+        System.out.println("\n-- Teste: MetricasSimulacao e HistogramaLatencia --");
+        HistogramaLatencia h = new HistogramaLatencia();
+        for (int i = 1; i <= 1000; i++) h.registrar(i * 1000L);
+        long p50 = h.percentil(0.5);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.125, "p50 dentro do erro de 12,5% da faixa.");
+        assertEquals(1_000_000, h.maximo(), DELTA, "Máximo exato.");
+
+        DroneService s = new DroneService();
+        s.setSinkEventos(SinkEventos.SILENCIOSO);
+        s.criarPedido(2, 2, 1.0, Enums.Prioridade.ALTA);
+        s.criarPedido(3, 1, 1.0, Enums.Prioridade.BAIXA);
+        Map<Drone, List<Pedido>> plano = s.alocarPedidos();
+        new Simulator(s).runSimulationHeadless(plano, 10_000);
+        MetricasSimulacao m = s.getMetricas();
+        assertTrue(m.getAlocacoes() == 1 && m.getBuscasRota() == 5 && m.getRotasAvaliadas() > 0,
+                "Alocação registra a passada e as buscas de rota de cada drone.");
+        assertTrue(m.getTicks() > 0 && m.getEventosSimulacao() > 0 && m.getSimulacoes() == 1,
+                "Motor de ticks registra ticks e eventos.");
+    }
+
+    public void testKernelsDistancia() {
+        System.out.println("\n-- Teste: Kernels de distância em lote (" + GeoUtils.kernelDistancias() + ") --");
+        int n = 37; // Não múltiplo do número de faixas: passa pelo laço vetorial e pelo resto escalar
+        double[] xs = new double[n], ys = new double[n], bx = new double[n], by = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = (i * 7919 % 101) * 0.7 - 35;
+            ys[i] = (i * 104729 % 89) * 0.9 - 40;
+            bx[i] = ys[i] * 0.5 + 1;
+            by[i] = -xs[i] + 3;
+        }
+        double[] d = new double[n], pares = new double[n];
+        GeoUtils.distancias(1.5, -2.5, xs, ys, 0, n, d);
+        GeoUtils.distanciasPares(xs, ys, bx, by, 0, n, pares);
+        boolean iguais = true;
+        for (int i = 0; i < n; i++) {
+            iguais &= d[i] == GeoUtils.distanciaKm(1.5, -2.5, xs[i], ys[i]);
+            iguais &= pares[i] == GeoUtils.distanciaKm(xs[i], ys[i], bx[i], by[i]);
+        }
+        assertTrue(iguais, "Kernels em lote devolvem exatamente os valores de distanciaKm.");
+
+        int[] indices = new int[n];
+        int dentro = GeoUtils.filtrarRaio(1.5, -2.5, xs, ys, 3, n, 30.0, indices);
+        int esperado = 0;
+        boolean ordem = true;
+        for (int i = 3; i < n; i++) {
+            if (GeoUtils.distanciaKm(1.5, -2.5, xs[i], ys[i]) <= 30.0) ordem &= esperado < dentro && indices[esperado++] == i;
+        }
+        assertTrue(ordem && dentro == esperado, "Filtro por raio devolve os mesmos índices, em ordem crescente.");
+    }
+
+    public void testDespachoRegional() {
+        System.out.println("\n-- Teste: Despacho por regiões --");
+        DespachoRegional despacho = new DespachoRegional(10.0);
+        DespachoRegional.Regiao a = despacho.adicionarRegiao(0, 0);
+        DespachoRegional.Regiao b = despacho.adicionarRegiao(100, 0);
+        a.getServico().setSinkEventos(SinkEventos.SILENCIOSO);
+        b.getServico().setSinkEventos(SinkEventos.SILENCIOSO);
+        for (int i = 0; i < 4; i++) despacho.criarDrone(a, 5.0, 100.0);
+        despacho.criarDrone(b, 10.0, 110.0);
+
+        despacho.criarPedido(10, 0, 1.0, Enums.Prioridade.ALTA);
+        Pedido fronteira = despacho.criarPedido(48, 0, 9.0, Enums.Prioridade.ALTA); // Só o drone de B leva
+        despacho.criarPedido(20, 0, 9.0, Enums.Prioridade.ALTA);                    // Fora do alcance de B
+        Pedido local = null;
+        for (int i = 0; i < 6; i++) local = despacho.criarPedido(100, 5 * i - 10, 1.0, Enums.Prioridade.MEDIA);
+        assertEquals(0.0, local.getX(), DELTA, "Pedido vai para a base mais próxima, em coordenadas locais.");
+
+        // Relógio já passou da chegada, para o repasse não manter a hora por coincidência
+        while (System.currentTimeMillis() == fronteira.getDataChegadaTimestamp()) Thread.onSpinWait();
+
+        // 9 pendentes e 5 drones: A (3 pendentes) fica com 2 drones e B (6) recebe 2
+        DespachoRegional.ResultadoCiclo ciclo = despacho.planejarCiclo(Double.POSITIVE_INFINITY);
+        assertEquals(2, ciclo.dronesRemanejados, DELTA, "Drones ociosos passam para a região com mais pendentes.");
+        assertTrue(a.getServico().listarDrones().size() == 2 && b.getServico().listarDrones().size() == 3,
+                "Frotas rebalanceadas.");
+        boolean slotsOk = true;
+        for (DespachoRegional.Regiao r : despacho.getRegioes()) {
+            for (Drone d : r.getServico().listarDrones()) {
+                slotsOk &= d.getFrota() == r.getServico().getFrota() && d.getFrota().drone(d.getSlot()) == d;
+            }
+        }
+        assertTrue(slotsOk, "Cada drone transferido aponta para o slot certo da nova frota.");
+        assertEquals(7, ciclo.pedidosAlocados, DELTA, "A entrega o pedido leve e B os seis locais.");
+        assertEquals(1, ciclo.pedidosRepassados, DELTA, "O pedido de fronteira que A não leva vai para B.");
+        assertEquals(1, ciclo.naoAtendidos, DELTA, "O que nenhum vizinho alcança fica NAO_ATENDIDO em A.");
+
+        Pedido repassado = null;
+        for (Pedido p : b.getServico().listarPedidos()) if (p.getId() == fronteira.getId()) repassado = p;
+        assertTrue(repassado != null && repassado.getX() == -52 && repassado.getStatus() == Enums.StatusPedido.PENDENTE,
+                "O pedido repassado mantém o id, em coordenadas locais de B.");
+        assertTrue(repassado.getDataChegadaTimestamp() == fronteira.getDataChegadaTimestamp(),
+                "O pedido repassado mantém a hora de chegada.");
+        DespachoRegional.ResultadoCiclo segundo = despacho.planejarCiclo(Double.POSITIVE_INFINITY);
+        assertTrue(segundo.pedidosAlocados == 1 && repassado.getStatus() == Enums.StatusPedido.ALOCADO,
+                "B entrega o pedido repassado no ciclo seguinte.");
+    }
+
+    public void testPlanejamentoEmOndas() {
+        System.out.println("\n-- Teste: Planejamento em ondas --");
+        DroneService s = new DroneService(false);
+        s.setSinkEventos(SinkEventos.SILENCIOSO);
+        s.criarDrone(10.0, 100.0, 0, 0);
+        // 6 pedidos de 6kg a 10km da base: só cabe um por viagem
+        for (int i = 0; i < 6; i++) s.criarPedido(i % 2 == 0 ? 10 : -10, 0, 6.0, Enums.Prioridade.MEDIA);
+        Pedido longe = s.criarPedido(60, 0, 1.0, Enums.Prioridade.ALTA);
+
+        Map<Drone, List<Pedido>> umaOnda = s.alocarPedidos();
+        assertEquals(1, umaOnda.values().iterator().next().size(), DELTA, "Sem ondas o drone leva um pedido só.");
+
+        s.resetPedidos();
+        PlanoOndas plano = s.planejarOndas();
+        assertEquals(6, plano.getViagens().size(), DELTA, "Com ondas o drone faz uma viagem por pedido.");
+        assertEquals(6, plano.quantidadeOndas(), DELTA, "Seis ondas para o único drone.");
+        assertTrue(longe.getStatus() == Enums.StatusPedido.NAO_ATENDIDO, "Pedido fora do alcance de todos continua NAO_ATENDIDO.");
+        // Viagem de 20km gasta 16% (11% na ida com 6kg, 5% na volta): 4.8 de recarga entre viagens
+        assertEquals(6 * 20 + 5 * 4.8, plano.getMakespan(), DELTA, "Makespan soma viagens e recargas.");
+
+        Simulator.SimulationReport r = new Simulator(s).runSimulationOndas(plano);
+        assertEquals(6, r.totalEntregas, DELTA, "A simulação em ondas entrega todas as viagens.");
+        assertEquals(plano.getMakespan(), r.tempoTotalSimulacao, DELTA, "Makespan simulado igual ao planejado.");
+
+        s.resetPedidos();
+        PlanoOndas curto = s.planejarOndas(50.0);
+        assertEquals(2, curto.getViagens().size(), DELTA, "Horizonte de 50km comporta 2 viagens.");
+        int pendentes = 0;
+        for (Pedido p : s.listarPedidos()) if (p.getStatus() == Enums.StatusPedido.PENDENTE) pendentes++;
+        assertEquals(4, pendentes, DELTA, "O que não coube no horizonte fica PENDENTE para o próximo ciclo.");
+    }
+
+    public void testRotaViavelNaBateria() {
+        System.out.println("\n-- Teste: Rota viável no modelo de energia --");
+        // B (1kg, 60km) listado antes de A (9kg, 10km): mesma distância nos dois sentidos, mas indo antes
+        // a B o drone carrega 10kg por 60km (90% de bateria); entregando A primeiro gasta 15% + 30%
+        List<Pedido> candidatos = new ArrayList<>();
+        candidatos.add(new Pedido(60, 0, 1.0, Enums.Prioridade.ALTA)); // B
+        candidatos.add(new Pedido(10, 0, 9.0, Enums.Prioridade.ALTA)); // A
+        MotorBuscaRota motor = new MotorBuscaRota();
+        motor.carregar(candidatos);
+        assertEquals(2, motor.buscar(10.0, 150.0), DELTA, "Os 2 pedidos cabem no alcance e na bateria.");
+        assertEquals(1, motor.parada(0), DELTA, "O pedido pesado e próximo deve ser entregue primeiro.");
+
+        // 8kg a 70km: cabe no alcance (140km), mas a ida gasta 91% da bateria
+        candidatos.clear();
+        candidatos.add(new Pedido(70, 0, 8.0, Enums.Prioridade.ALTA));
+        motor.carregar(candidatos);
+        assertEquals(0, motor.buscar(10.0, 150.0), DELTA, "Pedido que esgotaria a bateria não entra em rota.");
+
+        // 4 paradas: a volta mais curta (0, 2, 3, 1) leva os 6kg de 1 por todo o caminho e estoura a bateria,
+        // e o sentido inverso também; entre as ordens que cabem, a mais curta é (0, 1, 3, 2), com 95.93km
+        candidatos.clear();
+        candidatos.add(new Pedido(2, 6, 2.0, Enums.Prioridade.ALTA));
+        candidatos.add(new Pedido(-20, 14, 6.0, Enums.Prioridade.ALTA));
+        candidatos.add(new Pedido(19, 19, 2.0, Enums.Prioridade.ALTA));
+        candidatos.add(new Pedido(9, 18, 0.5, Enums.Prioridade.ALTA));
+        MotorBuscaRota quatro = new MotorBuscaRota(4);
+        quatro.carregar(candidatos);
+        assertEquals(4, quatro.buscar(12.0, 150.0), DELTA, "Com 4 paradas, a bateria escolhe uma ordem que não é a mais curta.");
+        assertTrue(quatro.parada(0) == 0 && quatro.parada(1) == 1 && quatro.parada(2) == 3 && quatro.parada(3) == 2,
+                "Ordem mais curta entre as que cabem na bateria.");
+        assertEquals(95.93, quatro.distanciaMelhor(), 0.01, "Distância da ordem que cabe.");
+
+        // Frota e pedidos aleatórios: nenhuma rota aceita pode pedir recarga urgente no meio do caminho
+        DroneService s = new DroneService(false);
+        s.setSinkEventos(SinkEventos.SILENCIOSO);
+        Random r = new Random(7);
+        for (int i = 0; i < 5; i++) s.criarDrone(8 + r.nextInt(8), 120.0 + r.nextInt(80), 0, 0);
+        Enums.Prioridade[] prioridades = Enums.Prioridade.values();
+        for (int i = 0; i < 200; i++) {
+            s.criarPedido((r.nextDouble() * 2 - 1) * 60, (r.nextDouble() * 2 - 1) * 60, 0.5 + r.nextDouble() * 7.5,
+                    prioridades[r.nextInt(prioridades.length)]);
+        }
+        Simulator simulator = new Simulator(s);
+        Simulator.SimulationReport tecnico = simulator.runSimulation(s.alocarPedidos());
+        assertTrue(tecnico.totalEntregas > 0, "A frota aleatória deve entregar alguma coisa.");
+        assertEquals(0, tecnico.recargasUrgentes, DELTA, "Rotas aceitas terminam sem recarga urgente.");
+        s.resetPedidos();
+        PlanoOndas ondas = s.planejarOndas();
+        Simulator.SimulationReport porOndas = simulator.runSimulationOndas(ondas);
+        assertEquals(0, porOndas.recargasUrgentesPorEntrega(), DELTA, "Plano em ondas também sem desvios de recarga.");
+        assertEquals(porOndas.totalEntregas + tecnico.totalEntregas, s.getMetricas().getEntregas(), DELTA,
+                "As métricas acumulam as entregas das duas simulações.");
+        assertEquals(0, s.getMetricas().getRecargasUrgentesPorEntrega(), DELTA, "Métrica de recargas urgentes por entrega zerada.");
+
+        // 9kg a 60km: no alcance e na capacidade do drone, mas a ida gasta 84% da bateria
+        DroneService pesado = new DroneService(false);
+        pesado.setSinkEventos(SinkEventos.SILENCIOSO);
+        pesado.criarDrone(10.0, 150.0, 0, 0);
+        Pedido alemDaBateria = pesado.criarPedido(60, 0, 9.0, Enums.Prioridade.ALTA);
+        pesado.criarPedido(10, 0, 2.0, Enums.Prioridade.MEDIA);
+        PlanoOndas semEle = pesado.planejarOndas();
+        assertTrue(alemDaBateria.getStatus() == Enums.StatusPedido.NAO_ATENDIDO && semEle.getViagens().size() == 1,
+                "Pedido além da bateria fica NAO_ATENDIDO nas ondas, não PENDENTE para sempre.");
+
+        // 10kg a 55km da base vizinha: o drone de B alcança (100km) e carrega, mas a ida gasta 82.5%
+        DespachoRegional despacho = new DespachoRegional(10.0);
+        DespachoRegional.Regiao a = despacho.adicionarRegiao(0, 0);
+        DespachoRegional.Regiao b = despacho.adicionarRegiao(100, 0);
+        a.getServico().setSinkEventos(SinkEventos.SILENCIOSO);
+        b.getServico().setSinkEventos(SinkEventos.SILENCIOSO);
+        despacho.criarDrone(a, 5.0, 100.0);
+        despacho.criarDrone(b, 10.0, 200.0);
+        despacho.criarPedido(45, 0, 10.0, Enums.Prioridade.ALTA);
+        despacho.criarPedido(100, 5, 1.0, Enums.Prioridade.MEDIA); // Mantém o drone de B em B
+        DespachoRegional.ResultadoCiclo ciclo = despacho.planejarCiclo(Double.POSITIVE_INFINITY);
+        assertTrue(ciclo.pedidosRepassados == 0 && ciclo.naoAtendidos == 1,
+                "Pedido além da bateria da vizinha não é repassado.");
+    }
+
+    public void testMonteCarlo() throws InterruptedException {
+        System.out.println("\n-- Teste: Monte Carlo com rodadas isoladas --");
+        // Drones criados ao mesmo tempo por serviços diferentes não podem repetir id
+        DroneService[] servicos = new DroneService[4];
+        Thread[] threads = new Thread[servicos.length];
+        for (int t = 0; t < threads.length; t++) {
+            DroneService s = servicos[t] = new DroneService(false);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) s.criarDrone(10.0, 100.0, 0, 0);
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        Set<Integer> ids = new HashSet<>();
+        for (DroneService s : servicos) for (Drone d : s.listarDrones()) ids.add(d.getId());
+        assertEquals(2000, ids.size(), DELTA, "Ids de drones criados em paralelo são únicos.");
+
+        MonteCarlo mc = new MonteCarlo(MonteCarlo.uniforme(4, 60, 40.0));
+        ForkJoinPool umaThread = new ForkJoinPool(1);
+        ForkJoinPool quatro = new ForkJoinPool(4);
+        mc.setPool(umaThread);
+        MonteCarlo.Resultado sequencial = mc.executar(16, 7);
+        mc.setPool(quatro);
+        MonteCarlo.Resultado paralelo = mc.executar(16, 7);
+        umaThread.shutdown();
+        quatro.shutdown();
+        boolean iguais = true;
+        for (int k = 0; k < 16; k++) {
+            for (String m : MonteCarlo.METRICAS) iguais &= sequencial.valor(k, m) == paralelo.valor(k, m);
+        }
+        assertTrue(iguais, "Cada semente dá o mesmo resultado com 1 ou 4 threads.");
+        MonteCarlo.Estatistica entregas = paralelo.metrica("entregas");
+        assertEquals(sequencial.metrica("entregas").media, entregas.media, DELTA, "O resumo não depende das threads.");
+        MonteCarlo.Estatistica makespan = paralelo.metrica("makespanKm");
+        assertTrue(makespan.margem95 > 0 && makespan.inferior95() < makespan.media && makespan.media < makespan.superior95()
+                && makespan.minimo <= makespan.media && makespan.media <= makespan.maximo, "O intervalo de 95% fica em volta da média.");
+        assertEquals(60, entregas.media + paralelo.metrica("naoEntregues").media, DELTA, "Entregues e não entregues somam os pedidos.");
+        assertEquals(0, paralelo.metrica("recargasUrgentesPorEntrega").maximo, DELTA, "Nenhuma rodada com recarga urgente.");
+    }
+
+    public void testCheckpoint() throws IOException {
+        System.out.println("\n-- Teste: Checkpoint (gravar e restaurar o estado) --");
+        Path arquivo = Files.createTempFile("checkpoint", ".bin");
+        try {
+            DroneService origem = new DroneService(false);
+            origem.setSinkEventos(SinkEventos.SILENCIOSO);
+            origem.criarDrone(5.0, 60.0, 0, 0);
+            origem.criarDrone(8.0, 80.0, 2, -1);
+            for (int i = 0; i < 30; i++) {
+                origem.criarPedido((i * 7) % 23 - 11, (i * 11) % 19 - 9, 0.5 + i % 4, Enums.Prioridade.values()[i % 3]);
+            }
+            origem.criarPedido(70, 0, 1.0, Enums.Prioridade.ALTA); // Fora do alcance: NAO_ATENDIDO
+            Map<Drone, List<Pedido>> plano = origem.alocarPedidos();
+            new Checkpoint(origem).gravar(arquivo, 42.5);
+
+            DroneService destino = new DroneService(false);
+            destino.setSinkEventos(SinkEventos.SILENCIOSO);
+            Checkpoint.Resumo r = new Checkpoint(destino).restaurar(arquivo);
+            assertTrue(r.drones == 2 && r.pedidos == 31 && r.relogio == 42.5, "Resumo traz drones, pedidos e o relógio salvo.");
+
+            List<Pedido> antes = origem.listarPedidos(), depois = destino.listarPedidos();
+            boolean pedidosIguais = antes.size() == depois.size();
+            for (int i = 0; pedidosIguais && i < antes.size(); i++) {
+                Pedido a = antes.get(i), b = depois.get(i);
+                pedidosIguais = a.getId() == b.getId() && a.getStatus() == b.getStatus() && a.getX() == b.getX()
+                        && a.getPesoKg() == b.getPesoKg() && a.getPrioridade() == b.getPrioridade()
+                        && a.getDataChegadaTimestamp() == b.getDataChegadaTimestamp();
+            }
+            assertTrue(pedidosIguais, "Pedidos voltam com os mesmos ids, status e dados.");
+
+            boolean rotasIguais = true;
+            for (int i = 0; i < 2; i++) {
+                Drone a = origem.listarDrones().get(i), b = destino.listarDrones().get(i);
+                List<Long> idsA = new ArrayList<>(), idsB = new ArrayList<>();
+                for (Pedido p : plano.getOrDefault(a, List.of())) idsA.add(p.getId());
+                for (Pedido p : destino.getPedidosDoDrone(b)) idsB.add(p.getId());
+                rotasIguais &= a.getId() == b.getId() && a.getStatus() == b.getStatus() && a.getBateria() == b.getBateria()
+                        && idsA.equals(idsB) && (idsB.isEmpty() || destino.getDroneDoPedido(destino.getPedidosDoDrone(b).get(0)) == b);
+            }
+            assertTrue(rotasIguais, "Drones voltam com o mesmo estado e as mesmas rotas.");
+            assertEquals(origem.quantidadePendentes(), destino.quantidadePendentes(), DELTA, "Mesmos pendentes.");
+
+            // A próxima alocação a partir do estado restaurado sai igual à do original (mesma ordem de atendimento)
+            origem.alocarPedidos();
+            destino.alocarPedidos();
+            assertTrue(origem.getUltimoRelatorioAlocacao().pedidosAlocados == destino.getUltimoRelatorioAlocacao().pedidosAlocados
+                            && origem.getUltimoRelatorioAlocacao().distanciaTotalKm == destino.getUltimoRelatorioAlocacao().distanciaTotalKm,
+                    "Alocação seguinte igual no estado original e no restaurado.");
+            long maiorId = 0;
+            for (Pedido p : depois) maiorId = Math.max(maiorId, p.getId());
+            assertTrue(destino.criarPedido(1, 1, 1.0, Enums.Prioridade.BAIXA).getId() > maiorId,
+                    "Novos pedidos recebem ids acima dos restaurados.");
+
+            // Arquivo truncado: erro de E/S, sem restauração parcial
+            byte[] bytes = Files.readAllBytes(arquivo);
+            Files.write(arquivo, Arrays.copyOf(bytes, bytes.length - 3));
+            DroneService vazio = new DroneService(false);
+            boolean rejeitado = false;
+            try {
+                new Checkpoint(vazio).restaurar(arquivo);
+            } catch (IOException e) {
+                rejeitado = true;
+            }
+            assertTrue(rejeitado && vazio.listarPedidos().isEmpty(), "Checkpoint truncado é rejeitado.");
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    public void testDiarioEventos() throws IOException {
+        System.out.println("\n-- Teste: Diário de eventos (group commit, reprodução e compactação) --");
+        Path diretorio = Files.createTempDirectory("diario");
+        Path arquivo = diretorio.resolve("diario.bin"), snapshot = diretorio.resolve("snapshot.bin");
+        Path copia = diretorio.resolve("copia.bin");
+        try {
+            DroneService origem = new DroneService(false);
+            origem.setSinkEventos(SinkEventos.SILENCIOSO);
+            origem.criarDrone(5.0, 60.0, 0, 0);
+            origem.criarDrone(8.0, 80.0, 0, 0);
+            DiarioEventos diario = new DiarioEventos(arquivo);
+            origem.setSinkEventos(diario);
+            diario.compactar(origem, snapshot, 0); // Snapshot inicial com a frota
+
+            for (int i = 0; i < 30; i++) {
+                origem.criarPedido((i * 7) % 23 - 11, (i * 11) % 19 - 9, 0.5 + i % 4, Enums.Prioridade.values()[i % 3]);
+            }
+            origem.criarPedido(70, 0, 1.0, Enums.Prioridade.ALTA); // Fora do alcance: NAO_ATENDIDO
+            new SimuladorEventos(origem).executar(origem.alocarPedidos());
+            for (int i = 0; i < 10; i++) origem.criarPedido(i - 5, 3, 1.0, Enums.Prioridade.MEDIA);
+            origem.importarPedidos(Arrays.asList(new Pedido(4, 4, 2.0, Enums.Prioridade.ALTA), new Pedido(-4, 2, 1.0, Enums.Prioridade.BAIXA)));
+            origem.planejarOndas(60.0);
+            diario.flush();
+            assertTrue(diario.quadrosGravados() > 0 && diario.quadrosGravados() < diario.eventosDuraveis(),
+                    "Group commit: vários eventos por quadro (um force por quadro).");
+
+            DroneService refeito = new DroneService(false);
+            refeito.setSinkEventos(SinkEventos.SILENCIOSO);
+            DiarioEventos.Resumo r = DiarioEventos.reproduzir(arquivo, snapshot, refeito);
+            assertTrue(r.eventos == diario.eventosDuraveis() && r.ignorados == 0, "Reprodução aplica todos os eventos gravados.");
+            assertTrue(mesmoEstado(origem, refeito), "Snapshot + diário refazem pedidos, rotas e drones.");
+
+            // Compactação: snapshot novo e diário vazio; o diário antigo sobre o snapshot novo não repete nada
+            Files.copy(arquivo, copia);
+            diario.compactar(origem, snapshot, 7.5);
+            assertEquals(DiarioEventos.CABECALHO_BYTES, Files.size(arquivo), DELTA, "Diário compactado fica só com o cabeçalho.");
+            DroneService aposQueda = new DroneService(false);
+            aposQueda.setSinkEventos(SinkEventos.SILENCIOSO);
+            r = DiarioEventos.reproduzir(copia, snapshot, aposQueda);
+            assertTrue(r.eventos == 0 && r.ignorados > 0 && mesmoEstado(origem, aposQueda),
+                    "Diário anterior à compactação é pulado pela marca do snapshot.");
+
+            origem.resetPedidos();
+            origem.alocarPedidos();
+            diario.fechar();
+            long integro = Files.size(arquivo);
+            Files.write(arquivo, new byte[]{1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND); // Quadro pela metade
+            DroneService depois = new DroneService(false);
+            depois.setSinkEventos(SinkEventos.SILENCIOSO);
+            r = DiarioEventos.reproduzir(arquivo, snapshot, depois);
+            assertTrue(r.bytesDescartados == 7 && r.relogio == 7.5 && mesmoEstado(origem, depois),
+                    "Quadro incompleto no fim é descartado; o resto é reproduzido sobre o snapshot compactado.");
+            new DiarioEventos(arquivo).fechar();
+            assertEquals(integro, Files.size(arquivo), DELTA, "Reabrir o diário corta o fim incompleto.");
+        } finally {
+            for (Path p : new Path[]{arquivo, snapshot, copia}) Files.deleteIfExists(p);
+            Files.deleteIfExists(diretorio);
+        }
+    }
+
+    public void testDiarioComMapaDelta() throws IOException {
+        System.out.println("\n-- Teste: Mapa delta com diário de eventos (console mudo, diário completo) --");
+        Path diretorio = Files.createTempDirectory("diario-delta");
+        Path arquivo = diretorio.resolve("diario.bin"), snapshot = diretorio.resolve("snapshot.bin");
+        try {
+            DroneService origem = cenarioTicks(1);
+            ByteArrayOutputStream console = new ByteArrayOutputStream();
+            PrintStream saida = new PrintStream(console, true);
+            DiarioEventos diario = new DiarioEventos(arquivo, new SinkConsole(EventoSimulacao.Nivel.DEBUG, saida, saida), 1 << 16);
+            origem.setSinkEventos(diario);
+            diario.compactar(origem, snapshot, 0);
+
+            AsciiMap mapa = new AsciiMap(20, 20, new PrintStream(new ByteArrayOutputStream()));
+            mapa.setModoDelta(true);
+            Map<Drone, List<Pedido>> plano = origem.alocarPedidos();
+            diario.flush();
+            assertTrue(console.size() > 0, "Fora do mapa delta os eventos vão para o console.");
+            console.reset();
+            new Simulator(origem).runSimulationAscii(plano, 0, mapa);
+            diario.flush();
+            assertTrue(console.size() == 0, "Nada vai para o console enquanto o mapa delta é desenhado.");
+            assertTrue(origem.getSinkEventos() == diario, "O sink original volta no fim da simulação.");
+            assertTrue(entregues(origem) > 0, "O cenário entrega pedidos.");
+
+            DroneService refeito = new DroneService(false);
+            refeito.setSinkEventos(SinkEventos.SILENCIOSO);
+            DiarioEventos.reproduzir(arquivo, snapshot, refeito);
+            assertTrue(mesmoEstado(origem, refeito), "O diário gravado no modo delta refaz entregas, liberações e drones.");
+            diario.fechar();
+        } finally {
+            for (Path p : new Path[]{arquivo, snapshot}) Files.deleteIfExists(p);
+            Files.deleteIfExists(diretorio);
+        }
+    }
+
+    /** Mesmos pedidos (id e status), pendentes, rotas e status/bateria dos drones. */
+    private static boolean mesmoEstado(DroneService a, DroneService b) {
+        Map<Long, Enums.StatusPedido> statusA = new HashMap<>(), statusB = new HashMap<>();
+        for (Pedido p : a.listarPedidos()) statusA.put(p.getId(), p.getStatus());
+        for (Pedido p : b.listarPedidos()) statusB.put(p.getId(), p.getStatus());
+        if (!statusA.equals(statusB) || a.quantidadePendentes() != b.quantidadePendentes()) return false;
+        List<Drone> da = a.listarDrones(), db = b.listarDrones();
+        if (da.size() != db.size()) return false;
+        for (int i = 0; i < da.size(); i++) {
+            Drone x = da.get(i), y = db.get(i);
+            List<Long> rotaA = new ArrayList<>(), rotaB = new ArrayList<>();
+            for (Pedido p : a.getPedidosDoDrone(x)) rotaA.add(p.getId());
+            for (Pedido p : b.getPedidosDoDrone(y)) rotaB.add(p.getId());
+            if (x.getId() != y.getId() || x.getStatus() != y.getStatus() || x.getBateria() != y.getBateria()
+                    || !rotaA.equals(rotaB)) return false;
+        }
+        return true;
+    }
+
     public void runAllTests() {
         System.out.println("=================================================");
         System.out.println("        INICIANDO TESTES EM JAVA PURO            ");
@@ -115,6 +978,29 @@ public class TesteUnitario {
             testDistanciaEuclidiana();
             testRejeitarPedidoPorPeso();
             testAlocacaoPriorizacaoERejeicao();
+            testGradeEspacial();
+            testFilaPendentesOrdem();
+            testMotorBuscaRotaMelhorOrdem();
+            testMotorBuscaRotaHeldKarp();
+            testSimuladorEventosMesmoRelatorio();
+            testMotorTickMesmasRegras();
+            testAsciiMapDelta();
+            testSinkAssincronoFiltraNivel();
+            testCriarPedidoConcorrente();
+            testAlocacaoParalela();
+            testIndiceRotasELiberacao();
+            testGeradorIdsFaixas();
+            testCarregadorCenario();
+            testExecucaoLote();
+            testMetricasEHistograma();
+            testPlanejamentoEmOndas();
+            testRotaViavelNaBateria();
+            testMonteCarlo();
+            testKernelsDistancia();
+            testDespachoRegional();
+            testCheckpoint();
+            testDiarioEventos();
+            testDiarioComMapaDelta();
             // Adicione aqui outros testes de funcionalidade
         } catch (Exception e) {
             System.err.println("ERRO FATAL DURANTE TESTES: " + e.getMessage());
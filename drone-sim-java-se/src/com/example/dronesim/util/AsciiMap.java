@@ -2,25 +2,83 @@ package com.example.dronesim.util;
 
 import com.example.dronesim.model.Enums;
 
+import java.io.PrintStream;
+
 public class AsciiMap {
+    private static final String SEPARADOR = "----------------------------------------";
+    private static final String LEGENDA = "Base=B | Pedido=P | Entregue=E | Drone parado=D | Indo=> | Voltando=< | Recarregando=R";
+    private static final String NL = System.lineSeparator();
+    private static final String ESC = "\u001B[";
+
     private final int width;
     private final int height;
     private final char[][] grid;
+    // Células alteradas desde o último clear() (índice y * width + x), para limpar só o que mudou
+    private final int[] sujas;
+    private final boolean[] marcadaSuja;
+    private int totalSujas = 0;
+    // Quadro montado num único buffer reaproveitado e escrito com uma só chamada
+    private final StringBuilder quadro;
+    private final PrintStream saida;
+
+    // Modo delta (ANSI): redesenha só as células que mudaram desde o último quadro
+    private boolean modoDelta = false;
+    private final char[][] ultimoQuadro;
+    private boolean quadroInicialDesenhado = false;
 
     public AsciiMap(int width, int height) {
+        this(width, height, System.out);
+    }
+
+    public AsciiMap(int width, int height, PrintStream saida) {
         this.width = width;
         this.height = height;
         this.grid = new char[height][width];
-        clear();
-    }
-
-    public void clear() {
+        this.ultimoQuadro = new char[height][width];
+        this.sujas = new int[width * height];
+        this.marcadaSuja = new boolean[width * height];
+        this.quadro = new StringBuilder((SEPARADOR.length() + LEGENDA.length()) + height * (width * 2 + NL.length()) + 16);
+        this.saida = saida;
         for (int y = 0; y < height; y++)
             for (int x = 0; x < width; x++)
                 grid[y][x] = '.';
         grid[0][0] = 'B'; // Base
     }
 
+    /**
+     * Ativa o modo delta: o primeiro quadro limpa a tela e é desenhado inteiro; os seguintes só
+     * reposicionam o cursor (códigos ANSI) nas células alteradas. Pensado para a visualização ao vivo
+     * sem outras mensagens no console, já que depende das posições absolutas na tela.
+     */
+    public void setModoDelta(boolean modoDelta) {
+        this.modoDelta = modoDelta;
+        this.quadroInicialDesenhado = false;
+    }
+
+    public boolean isModoDelta() {
+        return modoDelta;
+    }
+
+    public void clear() {
+        // Só as células escritas desde o último clear() podem estar diferentes de '.'
+        for (int s = 0; s < totalSujas; s++) {
+            int pos = sujas[s];
+            grid[pos / width][pos % width] = '.';
+            marcadaSuja[pos] = false;
+        }
+        totalSujas = 0;
+        grid[0][0] = 'B'; // Base
+    }
+
+    private void escrever(int x, int y, char c) {
+        grid[y][x] = c;
+        int pos = y * width + x;
+        if (!marcadaSuja[pos]) {
+            marcadaSuja[pos] = true;
+            sujas[totalSujas++] = pos;
+        }
+    }
+
     // Método atualizado com marcador de RETORNANDO ('<')
     public void setDrone(double x, double y, int id, Enums.StatusDrone status) {
         int dx = Math.min(width - 1, Math.max(0, (int)Math.round(x)));
@@ -47,14 +105,14 @@ public class AsciiMap {
         // Evita sobrescrever a Base ou um 'E' de entrega concluída
         if (dx != 0 || dy != 0) {
             if (grid[dy][dx] != 'E') {
-                grid[dy][dx] = marker;
+                escrever(dx, dy, marker);
             }
         } else if (dx == 0 && dy == 0) {
             // Se estiver na base, usa o marcador do drone/recarga
             if (status != Enums.StatusDrone.IDLE && status != Enums.StatusDrone.RECARREGANDO) {
-                grid[dy][dx] = 'B';
+                escrever(dx, dy, 'B');
             } else {
-                grid[dy][dx] = marker;
+                escrever(dx, dy, marker);
             }
         }
     }
@@ -70,16 +128,44 @@ public class AsciiMap {
         }
 
         // Se a posição estiver vazia ('.') ou for a Base ('B'), usa o marcador (P ou E)
-        if (grid[py][px] == '.' || grid[py][px] == 'B') grid[py][px] = marker;
+        if (grid[py][px] == '.' || grid[py][px] == 'B') escrever(px, py, marker);
     }
 
     public void render() {
-        System.out.println("----------------------------------------");
+        quadro.setLength(0);
+        if (modoDelta && quadroInicialDesenhado) {
+            montarDelta();
+        } else {
+            if (modoDelta) quadro.append(ESC).append("2J").append(ESC).append('H'); // Limpa a tela
+            montarCompleto();
+            quadroInicialDesenhado = true;
+        }
+        if (modoDelta) {
+            for (int y = 0; y < height; y++) System.arraycopy(grid[y], 0, ultimoQuadro[y], 0, width);
+        }
+        saida.print(quadro);
+        saida.flush();
+    }
+
+    private void montarCompleto() {
+        quadro.append(SEPARADOR).append(NL);
         for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) System.out.print(grid[y][x] + " ");
-            System.out.println();
+            for (int x = 0; x < width; x++) quadro.append(grid[y][x]).append(' ');
+            quadro.append(NL);
         }
         // Legenda atualizada
-        System.out.println("Base=B | Pedido=P | Entregue=E | Drone parado=D | Indo=> | Voltando=< | Recarregando=R");
+        quadro.append(LEGENDA).append(NL);
+    }
+
+    private void montarDelta() {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (grid[y][x] == ultimoQuadro[y][x]) continue;
+                // Linha 1 é o separador; cada célula ocupa 2 colunas ("c ")
+                quadro.append(ESC).append(y + 2).append(';').append(2 * x + 1).append('H').append(grid[y][x]);
+            }
+        }
+        // Cursor volta para baixo da legenda
+        quadro.append(ESC).append(height + 3).append(";1H");
     }
 }
\ No newline at end of file
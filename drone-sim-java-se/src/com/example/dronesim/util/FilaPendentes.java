@@ -0,0 +1,203 @@
+package com.example.dronesim.util;
+
+import com.example.dronesim.model.Enums;
+import com.example.dronesim.model.Pedido;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Fila dos pedidos PENDENTES em ordem de atendimento: prioridade (ALTA > MEDIA > BAIXA) e, dentro da
+ * mesma prioridade, ordem de chegada (FIFO). Uma fila FIFO por prioridade, com inserção, remoção e
+ * consulta em O(1), mantida conforme os pedidos mudam de status; assim a alocação não precisa varrer
+ * o histórico de pedidos nem reordenar os pendentes a cada chamada.
+ *
+ * <p>Sem um objeto por pedido: cada fila é um array na ordem de chegada (removidos viram null) e a
+ * sequência de cada pedido fica numa tabela de hash aberta (chave por referência, hash pelo id), o que
+ * mantém a carga de milhões de pedidos de um cenário barata em tempo e em GC.
+ */
+public class FilaPendentes {
+    private static final int PRIORIDADES = Enums.Prioridade.values().length;
+
+    // Índice = ordinal da prioridade. A posição i da fila guarda o pedido de sequência base + i;
+    // a parte ocupada é [inicio, fim)
+    private final Pedido[][] filas = new Pedido[PRIORIDADES][];
+    private final long[] base = new long[PRIORIDADES];
+    private final int[] inicio = new int[PRIORIDADES];
+    private final int[] fim = new int[PRIORIDADES];
+    private final int[] vivos = new int[PRIORIDADES];
+
+    // Tabela pedido -> sequência (sondagem linear, null = livre)
+    private Pedido[] chaves = new Pedido[16];
+    private long[] sequencias = new long[16];
+    private int tamanho = 0;
+
+    public FilaPendentes() {
+        for (int i = 0; i < PRIORIDADES; i++) filas[i] = new Pedido[16];
+    }
+
+    /** Coloca o pedido no fim da fila da sua prioridade (não faz nada se já estiver na fila). */
+    public void adicionar(Pedido p) {
+        if (buscar(p) >= 0) return;
+        int prioridade = p.getPrioridade().ordinal();
+        if (fim[prioridade] == filas[prioridade].length) abrirEspaco(prioridade);
+        int i = fim[prioridade]++;
+        filas[prioridade][i] = p;
+        vivos[prioridade]++;
+        inserir(p, base[prioridade] + i);
+    }
+
+    public boolean remover(Pedido p) {
+        int k = buscar(p);
+        if (k < 0) return false;
+        int prioridade = p.getPrioridade().ordinal();
+        Pedido[] fila = filas[prioridade];
+        fila[(int) (sequencias[k] - base[prioridade])] = null;
+        apagar(k);
+        if (--vivos[prioridade] == 0) {
+            // Fila vazia: recomeça do início do array (as sequências continuam crescendo)
+            base[prioridade] += fim[prioridade];
+            inicio[prioridade] = fim[prioridade] = 0;
+        } else {
+            while (fila[inicio[prioridade]] == null) inicio[prioridade]++;
+        }
+        return true;
+    }
+
+    public boolean contem(Pedido p) {
+        return buscar(p) >= 0;
+    }
+
+    /** Prepara a tabela para mais 'quantidade' pedidos de uma vez (carga em massa, sem rehash a cada dobra). */
+    public void reservar(int quantidade) {
+        while ((long) (tamanho + quantidade) * 3 > (long) chaves.length * 2) crescer();
+    }
+
+    public void limpar() {
+        for (int i = 0; i < PRIORIDADES; i++) {
+            Arrays.fill(filas[i], inicio[i], fim[i], null);
+            base[i] += fim[i];
+            inicio[i] = fim[i] = vivos[i] = 0;
+        }
+        Arrays.fill(chaves, null);
+        tamanho = 0;
+    }
+
+    public int tamanho() { return tamanho; }
+
+    /**
+     * Chave de ordenação do pedido (menor = atendido antes). Pedidos fora da fila vão para o fim.
+     */
+    public long ordem(Pedido p) {
+        int k = buscar(p);
+        if (k < 0) return Long.MAX_VALUE;
+        return ((long) (PRIORIDADES - 1 - p.getPrioridade().ordinal()) << 56) | sequencias[k];
+    }
+
+    /**
+     * Pedidos da fila na ordem de atendimento (não remover durante a iteração).
+     */
+    public Iterable<Pedido> emOrdem() {
+        return () -> new Iterator<Pedido>() {
+            private int prioridade = PRIORIDADES - 1;
+            private int i = inicio[prioridade];
+
+            @Override
+            public boolean hasNext() {
+                while (true) {
+                    while (i < fim[prioridade] && filas[prioridade][i] == null) i++;
+                    if (i < fim[prioridade] || prioridade == 0) return i < fim[prioridade];
+                    prioridade--;
+                    i = inicio[prioridade];
+                }
+            }
+
+            @Override
+            public Pedido next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return filas[prioridade][i++];
+            }
+        };
+    }
+
+    /** Adiciona em 'destino' todos os pedidos da fila, na ordem de atendimento. */
+    public void copiarEmOrdem(List<Pedido> destino) {
+        for (int prioridade = PRIORIDADES - 1; prioridade >= 0; prioridade--) {
+            Pedido[] fila = filas[prioridade];
+            for (int i = inicio[prioridade]; i < fim[prioridade]; i++) {
+                if (fila[i] != null) destino.add(fila[i]);
+            }
+        }
+    }
+
+    /**
+     * Fila sem espaço no fim: descarta o trecho vazio do começo e, se ainda assim metade do array
+     * estiver ocupada, dobra a capacidade. As sequências dos pedidos não mudam.
+     */
+    private void abrirEspaco(int prioridade) {
+        Pedido[] fila = filas[prioridade];
+        int ocupados = fim[prioridade] - inicio[prioridade];
+        Pedido[] nova = ocupados * 2 > fila.length ? new Pedido[fila.length * 2] : fila;
+        System.arraycopy(fila, inicio[prioridade], nova, 0, ocupados);
+        if (nova == fila) Arrays.fill(fila, ocupados, fim[prioridade], null);
+        filas[prioridade] = nova;
+        base[prioridade] += inicio[prioridade];
+        inicio[prioridade] = 0;
+        fim[prioridade] = ocupados;
+    }
+
+    // --- Tabela aberta pedido -> sequência ---
+
+    private int buscar(Pedido p) {
+        int mascara = chaves.length - 1;
+        for (int i = espalhar(p) & mascara; ; i = (i + 1) & mascara) {
+            if (chaves[i] == p) return i;
+            if (chaves[i] == null) return -1;
+        }
+    }
+
+    private void inserir(Pedido p, long sequencia) {
+        if ((tamanho + 1) * 3 > chaves.length * 2) crescer();
+        int mascara = chaves.length - 1;
+        int i = espalhar(p) & mascara;
+        while (chaves[i] != null) i = (i + 1) & mascara;
+        chaves[i] = p;
+        sequencias[i] = sequencia;
+        tamanho++;
+    }
+
+    /** Remove a posição k puxando para trás as chaves seguintes do mesmo agrupamento (sem lápides). */
+    private void apagar(int k) {
+        int mascara = chaves.length - 1;
+        int livre = k;
+        for (int i = (k + 1) & mascara; chaves[i] != null; i = (i + 1) & mascara) {
+            int ideal = espalhar(chaves[i]) & mascara;
+            // A chave em i pode ocupar 'livre' se a posição ideal dela não estiver em (livre, i]
+            if (((i - ideal) & mascara) >= ((i - livre) & mascara)) {
+                chaves[livre] = chaves[i];
+                sequencias[livre] = sequencias[i];
+                livre = i;
+            }
+        }
+        chaves[livre] = null;
+        tamanho--;
+    }
+
+    private void crescer() {
+        Pedido[] velhasChaves = chaves;
+        long[] velhasSequencias = sequencias;
+        chaves = new Pedido[velhasChaves.length * 2];
+        sequencias = new long[velhasChaves.length * 2];
+        tamanho = 0;
+        for (int i = 0; i < velhasChaves.length; i++) {
+            if (velhasChaves[i] != null) inserir(velhasChaves[i], velhasSequencias[i]);
+        }
+    }
+
+    private static int espalhar(Pedido p) {
+        long h = p.getId() * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
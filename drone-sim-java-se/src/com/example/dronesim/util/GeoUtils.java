@@ -1,9 +1,67 @@
 package com.example.dronesim.util;
 
 public class GeoUtils {
+    // Liga/desliga os kernels SIMD (ex.: -Ddronesim.simd=false para comparar com o escalar)
+    public static final String PROPRIEDADE_SIMD = "dronesim.simd";
+
     public static double distanciaKm(double x1, double y1, double x2, double y2) {
         double dx = x2 - x1;
         double dy = y2 - y1;
         return Math.sqrt(dx*dx + dy*dy);
     }
+
+    // --- Em lote, sobre arrays de coordenadas (mesmos valores de distanciaKm) ---
+
+    /** destino[i] = distância de (x, y) até (xs[i], ys[i]), para i em [inicio, fim). */
+    public static void distancias(double x, double y, double[] xs, double[] ys, int inicio, int fim, double[] destino) {
+        Kernel.ATIVO.distancias(x, y, xs, ys, inicio, fim, destino);
+    }
+
+    /** destino[i] = distância de (ax[i], ay[i]) até (bx[i], by[i]), para i em [inicio, fim). */
+    public static void distanciasPares(double[] ax, double[] ay, double[] bx, double[] by, int inicio, int fim,
+                                       double[] destino) {
+        Kernel.ATIVO.distanciasPares(ax, ay, bx, by, inicio, fim, destino);
+    }
+
+    /**
+     * Grava em 'indices' (em ordem crescente) os i em [inicio, fim) a uma distância <= raio de (x, y)
+     * e devolve quantos são. 'indices' precisa de espaço para fim - inicio posições.
+     */
+    public static int filtrarRaio(double x, double y, double[] xs, double[] ys, int inicio, int fim, double raio,
+                                  int[] indices) {
+        return Kernel.ATIVO.filtrarRaio(x, y, xs, ys, inicio, fim, raio, indices);
+    }
+
+    /** Kernel em uso pelas funções em lote: "VETORIAL xN" (N faixas por operação) ou "ESCALAR". */
+    public static String kernelDistancias() {
+        return Kernel.DESCRICAO;
+    }
+
+    /**
+     * Escolhido na primeira chamada em lote: a Vector API só é carregada se o módulo incubado estiver
+     * na JVM (java --add-modules jdk.incubator.vector ...) e a propriedade dronesim.simd não for false.
+     * Quem só usa distanciaKm não paga a carga.
+     */
+    private static final class Kernel {
+        static final KernelDistancias ATIVO;
+        static final String DESCRICAO;
+
+        static {
+            KernelDistancias kernel = new KernelDistancias.Escalar();
+            String descricao = "ESCALAR";
+            if (!"false".equalsIgnoreCase(System.getProperty(PROPRIEDADE_SIMD))
+                    && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                try {
+                    // Por reflexão: sem o módulo, a classe vetorial nunca é resolvida
+                    kernel = (KernelDistancias) Class.forName("com.example.dronesim.util.KernelDistanciasVetorial")
+                            .getDeclaredConstructor().newInstance();
+                    descricao = kernel.toString();
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    kernel = new KernelDistancias.Escalar(); // Módulo presente mas inutilizável
+                }
+            }
+            ATIVO = kernel;
+            DESCRICAO = descricao;
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package com.example.dronesim.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de ids numéricos de 64 bits (sequência crescente, sem UUID/SecureRandom).
+ * Para carga em massa com várias threads, cada produtor reserva uma faixa de ids de uma vez
+ * ({@link #reservar(int)}) e a consome sem tocar no contador compartilhado.
+ */
+public class GeradorIds {
+    /** Gerador usado pelos pedidos. */
+    public static final GeradorIds PEDIDOS = new GeradorIds(1);
+
+    private final AtomicLong proximo;
+
+    public GeradorIds(long primeiro) {
+        this.proximo = new AtomicLong(primeiro);
+    }
+
+    public long proximo() {
+        return proximo.getAndIncrement();
+    }
+
+    /**
+     * Garante que os próximos ids fiquem acima de 'id' (ex.: depois de restaurar pedidos já numerados).
+     */
+    public void avancarAlem(long id) {
+        proximo.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * Reserva 'tamanho' ids consecutivos para uso exclusivo de quem chamou.
+     */
+    public Faixa reservar(int tamanho) {
+        if (tamanho <= 0) throw new IllegalArgumentException("Tamanho da faixa deve ser positivo.");
+        long inicio = proximo.getAndAdd(tamanho);
+        return new Faixa(inicio, inicio + tamanho);
+    }
+
+    /**
+     * Faixa [inicio, fim) de ids reservada para um único produtor (não é thread-safe).
+     */
+    public static class Faixa {
+        private long proximo;
+        private final long fim;
+
+        Faixa(long inicio, long fim) {
+            this.proximo = inicio;
+            this.fim = fim;
+        }
+
+        public boolean temProximo() {
+            return proximo < fim;
+        }
+
+        public long proximo() {
+            if (proximo >= fim) throw new IllegalStateException("Faixa de ids esgotada.");
+            return proximo++;
+        }
+
+        public long restantes() {
+            return fim - proximo;
+        }
+    }
+}
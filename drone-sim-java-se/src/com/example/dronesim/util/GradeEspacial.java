@@ -0,0 +1,181 @@
+package com.example.dronesim.util;
+
+import com.example.dronesim.model.Pedido;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice espacial em grade uniforme para os pedidos pendentes.
+ * Cada célula guarda os pedidos cujas coordenadas caem dentro dela, permitindo
+ * buscar apenas os pedidos em um raio (ex.: alcance do drone) sem varrer a lista inteira.
+ * As coordenadas de cada célula ficam também em arrays primitivos, filtrados pelo raio com os
+ * kernels em lote de {@link GeoUtils} (SIMD quando disponível). As células ficam numa tabela aberta
+ * com a chave primitiva (sem boxing por inserção, o que pesa ao reindexar milhões de pendentes).
+ */
+public class GradeEspacial {
+    private final double tamanhoCelula;
+    // Tabela chave da célula -> célula (sondagem linear, null = livre)
+    private long[] chaves = new long[64];
+    private Celula[] celulas = new Celula[64];
+    private int ocupadas = 0;
+    private int tamanho = 0;
+    // Maior célula até agora (tamanho do buffer de índices de uma busca)
+    private int maiorCelula = 0;
+
+    /** Pedidos da célula e as suas coordenadas, nas mesmas posições [0, tamanho). */
+    private static final class Celula {
+        Pedido[] pedidos = new Pedido[8];
+        double[] xs = new double[8];
+        double[] ys = new double[8];
+        int tamanho = 0;
+
+        void adicionar(Pedido p) {
+            if (tamanho == pedidos.length) {
+                pedidos = Arrays.copyOf(pedidos, tamanho * 2);
+                xs = Arrays.copyOf(xs, tamanho * 2);
+                ys = Arrays.copyOf(ys, tamanho * 2);
+            }
+            pedidos[tamanho] = p;
+            xs[tamanho] = p.getX();
+            ys[tamanho] = p.getY();
+            tamanho++;
+        }
+
+        boolean remover(Pedido p) {
+            for (int i = 0; i < tamanho; i++) {
+                if (pedidos[i] == p) {
+                    // Remoção O(1): troca com o último elemento da célula
+                    int ultimo = --tamanho;
+                    pedidos[i] = pedidos[ultimo];
+                    xs[i] = xs[ultimo];
+                    ys[i] = ys[ultimo];
+                    pedidos[ultimo] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public GradeEspacial(double tamanhoCelula) {
+        if (tamanhoCelula <= 0) throw new IllegalArgumentException("Tamanho de célula deve ser positivo.");
+        this.tamanhoCelula = tamanhoCelula;
+    }
+
+    private int celula(double coord) {
+        return (int) Math.floor(coord / tamanhoCelula);
+    }
+
+    private static long chave(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    public void adicionar(Pedido p) {
+        long k = chave(celula(p.getX()), celula(p.getY()));
+        int i = posicao(k);
+        Celula c = celulas[i];
+        if (c == null) {
+            c = new Celula();
+            chaves[i] = k;
+            celulas[i] = c;
+            if (++ocupadas * 3 > celulas.length * 2) crescer();
+        }
+        c.adicionar(p);
+        maiorCelula = Math.max(maiorCelula, c.tamanho);
+        tamanho++;
+    }
+
+    public boolean remover(Pedido p) {
+        int i = posicao(chave(celula(p.getX()), celula(p.getY())));
+        Celula c = celulas[i];
+        if (c == null || !c.remover(p)) return false;
+        if (c.tamanho == 0) apagar(i);
+        tamanho--;
+        return true;
+    }
+
+    public void limpar() {
+        Arrays.fill(celulas, null);
+        ocupadas = 0;
+        tamanho = 0;
+        maiorCelula = 0;
+    }
+
+    public int tamanho() { return tamanho; }
+
+    /**
+     * Adiciona em 'destino' todos os pedidos a uma distância <= raio do ponto (x, y).
+     * Só lê o índice: pode rodar em várias threads ao mesmo tempo (o buffer de índices é da chamada).
+     */
+    public void buscarRaio(double x, double y, double raio, List<Pedido> destino) {
+        if (raio < 0 || tamanho == 0) return;
+        int cx0 = celula(x - raio), cx1 = celula(x + raio);
+        int cy0 = celula(y - raio), cy1 = celula(y + raio);
+        long celulasNoRaio = (long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1);
+        int[] indices = new int[maiorCelula];
+
+        if (celulasNoRaio > ocupadas) {
+            // Raio cobre mais células do que as ocupadas: percorre só as ocupadas
+            for (Celula c : celulas) {
+                if (c != null) filtrarRaio(c, x, y, raio, indices, destino);
+            }
+            return;
+        }
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                Celula c = celulas[posicao(chave(cx, cy))];
+                if (c != null) filtrarRaio(c, x, y, raio, indices, destino);
+            }
+        }
+    }
+
+    private static void filtrarRaio(Celula c, double x, double y, double raio, int[] indices, List<Pedido> destino) {
+        int n = GeoUtils.filtrarRaio(x, y, c.xs, c.ys, 0, c.tamanho, raio, indices);
+        for (int j = 0; j < n; j++) destino.add(c.pedidos[indices[j]]);
+    }
+
+    // --- Tabela aberta chave -> célula ---
+
+    /** Posição da chave na tabela ou, se ela não estiver, a posição livre onde entraria. */
+    private int posicao(long k) {
+        int mascara = celulas.length - 1;
+        int i = espalhar(k) & mascara;
+        while (celulas[i] != null && chaves[i] != k) i = (i + 1) & mascara;
+        return i;
+    }
+
+    /** Remove a posição i puxando para trás as chaves seguintes do mesmo agrupamento (sem lápides). */
+    private void apagar(int i) {
+        int mascara = celulas.length - 1;
+        int livre = i;
+        for (int j = (i + 1) & mascara; celulas[j] != null; j = (j + 1) & mascara) {
+            int ideal = espalhar(chaves[j]) & mascara;
+            if (((j - ideal) & mascara) >= ((j - livre) & mascara)) {
+                chaves[livre] = chaves[j];
+                celulas[livre] = celulas[j];
+                livre = j;
+            }
+        }
+        celulas[livre] = null;
+        ocupadas--;
+    }
+
+    private void crescer() {
+        long[] antigasChaves = chaves;
+        Celula[] antigas = celulas;
+        chaves = new long[antigas.length * 2];
+        celulas = new Celula[antigas.length * 2];
+        for (int i = 0; i < antigas.length; i++) {
+            if (antigas[i] == null) continue;
+            int j = posicao(antigasChaves[i]);
+            chaves[j] = antigasChaves[i];
+            celulas[j] = antigas[i];
+        }
+    }
+
+    private static int espalhar(long k) {
+        long h = k * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.dronesim.util;
+
+/**
+ * Kernels de distância em lote sobre arrays primitivos de coordenadas (ver {@link GeoUtils}).
+ * Toda implementação devolve exatamente os mesmos valores de {@link GeoUtils#distanciaKm}
+ * (subtração, produto e soma em double e raiz correta), para que trocar de kernel não mude nenhum resultado.
+ */
+interface KernelDistancias {
+
+    /** destino[i] = distância de (x, y) até (xs[i], ys[i]), para i em [inicio, fim). */
+    void distancias(double x, double y, double[] xs, double[] ys, int inicio, int fim, double[] destino);
+
+    /** destino[i] = distância de (ax[i], ay[i]) até (bx[i], by[i]), para i em [inicio, fim). */
+    void distanciasPares(double[] ax, double[] ay, double[] bx, double[] by, int inicio, int fim, double[] destino);
+
+    /**
+     * Grava em 'indices', em ordem crescente, os i em [inicio, fim) com distância de (x, y) até
+     * (xs[i], ys[i]) <= raio e devolve quantos são.
+     */
+    int filtrarRaio(double x, double y, double[] xs, double[] ys, int inicio, int fim, double raio, int[] indices);
+
+    /** Implementação de referência, um par por vez. */
+    final class Escalar implements KernelDistancias {
+        @Override
+        public void distancias(double x, double y, double[] xs, double[] ys, int inicio, int fim, double[] destino) {
+            for (int i = inicio; i < fim; i++) destino[i] = GeoUtils.distanciaKm(x, y, xs[i], ys[i]);
+        }
+
+        @Override
+        public void distanciasPares(double[] ax, double[] ay, double[] bx, double[] by, int inicio, int fim, double[] destino) {
+            for (int i = inicio; i < fim; i++) destino[i] = GeoUtils.distanciaKm(ax[i], ay[i], bx[i], by[i]);
+        }
+
+        @Override
+        public int filtrarRaio(double x, double y, double[] xs, double[] ys, int inicio, int fim, double raio, int[] indices) {
+            int n = 0;
+            for (int i = inicio; i < fim; i++) {
+                // Sem desvio: pedidos dentro e fora do raio se alternam sem padrão e o desvio erraria muito
+                indices[n] = i;
+                n += GeoUtils.distanciaKm(x, y, xs[i], ys[i]) <= raio ? 1 : 0;
+            }
+            return n;
+        }
+    }
+}
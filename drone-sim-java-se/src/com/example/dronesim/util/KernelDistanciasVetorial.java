@@ -0,0 +1,55 @@
+package com.example.dronesim.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels de distância com a Vector API (SIMD): uma faixa de DoubleVector.SPECIES_PREFERRED por vez
+ * e o resto do intervalo pelo caminho escalar (o filtro por raio é todo escalar, ver filtrarRaio). Só é carregado por {@link GeoUtils} quando o módulo
+ * jdk.incubator.vector está na JVM (--add-modules jdk.incubator.vector); sem ele, esta classe nem é tocada.
+ */
+final class KernelDistanciasVetorial implements KernelDistancias {
+    private static final VectorSpecies<Double> ESPECIE = DoubleVector.SPECIES_PREFERRED;
+    private static final KernelDistancias ESCALAR = new KernelDistancias.Escalar();
+
+    KernelDistanciasVetorial() {}
+
+    @Override
+    public String toString() {
+        return "VETORIAL x" + ESPECIE.length();
+    }
+
+    @Override
+    public void distancias(double x, double y, double[] xs, double[] ys, int inicio, int fim, double[] destino) {
+        int i = inicio;
+        int limite = inicio + ESPECIE.loopBound(fim - inicio);
+        for (; i < limite; i += ESPECIE.length()) {
+            DoubleVector dx = DoubleVector.fromArray(ESPECIE, xs, i).sub(x);
+            DoubleVector dy = DoubleVector.fromArray(ESPECIE, ys, i).sub(y);
+            dx.mul(dx).add(dy.mul(dy)).lanewise(VectorOperators.SQRT).intoArray(destino, i);
+        }
+        for (; i < fim; i++) destino[i] = GeoUtils.distanciaKm(x, y, xs[i], ys[i]);
+    }
+
+    @Override
+    public void distanciasPares(double[] ax, double[] ay, double[] bx, double[] by, int inicio, int fim, double[] destino) {
+        int i = inicio;
+        int limite = inicio + ESPECIE.loopBound(fim - inicio);
+        for (; i < limite; i += ESPECIE.length()) {
+            DoubleVector dx = DoubleVector.fromArray(ESPECIE, bx, i).sub(DoubleVector.fromArray(ESPECIE, ax, i));
+            DoubleVector dy = DoubleVector.fromArray(ESPECIE, by, i).sub(DoubleVector.fromArray(ESPECIE, ay, i));
+            dx.mul(dx).add(dy.mul(dy)).lanewise(VectorOperators.SQRT).intoArray(destino, i);
+        }
+        for (; i < fim; i++) destino[i] = GeoUtils.distanciaKm(ax[i], ay[i], bx[i], by[i]);
+    }
+
+    /**
+     * Fica no laço escalar sem desvio: no JDK 17 ler a máscara de comparação faixa a faixa (toLong,
+     * laneIsSet) não é intrínseco e aloca a cada faixa, o que deixava o filtro vetorial mais lento.
+     */
+    @Override
+    public int filtrarRaio(double x, double y, double[] xs, double[] ys, int inicio, int fim, double raio, int[] indices) {
+        return ESCALAR.filtrarRaio(x, y, xs, ys, inicio, fim, raio, indices);
+    }
+}